@@ -0,0 +1,30 @@
+package com.olprog.yahourt.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import com.olprog.yahourt.store.MappedResultStore;
+import com.olprog.yahourt.store.ResultStore;
+
+@Configuration
+public class ResultStoreConfig {
+
+  @Bean
+  public ResultStore resultStore(
+      @Value("${yogurt.result-store.enabled:false}") boolean enabled,
+      @Value("${yogurt.result-store.directory:${java.io.tmpdir}/yogurt-result-store}") Path directory,
+      @Value("${yogurt.result-store.segment-size:16MB}") DataSize segmentSize,
+      @Value("${yogurt.result-store.max-size:256MB}") DataSize maxSize,
+      @Value("${yogurt.result-store.index-slots:65536}") int indexSlots) throws IOException {
+    if (!enabled) {
+      return ResultStore.NONE;
+    }
+    // Le nombre de segments est déduit de la taille de segment de l'index existant
+    return new MappedResultStore(directory, Math.toIntExact(segmentSize.toBytes()), maxSize.toBytes(), indexSlots);
+  }
+}
@@ -0,0 +1,47 @@
+package com.olprog.yahourt.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.service.SimulationResultSerializer;
+
+/**
+ * Écrit les {@link SimulationResult} directement dans le flux de réponse avec
+ * le sérialiseur dédié plutôt qu'avec Jackson. La lecture reste à Jackson.
+ */
+public class SimulationResultHttpMessageConverter extends AbstractHttpMessageConverter<SimulationResult> {
+
+  private final SimulationResultSerializer serializer;
+
+  public SimulationResultHttpMessageConverter(SimulationResultSerializer serializer) {
+    super(MediaType.APPLICATION_JSON);
+    this.serializer = serializer;
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return SimulationResult.class == clazz;
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected SimulationResult readInternal(Class<? extends SimulationResult> clazz, HttpInputMessage inputMessage)
+      throws HttpMessageNotReadableException {
+    throw new HttpMessageNotReadableException("Lecture non prise en charge", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(SimulationResult result, HttpOutputMessage outputMessage) throws IOException {
+    serializer.writeTo(result, outputMessage.getBody());
+  }
+}
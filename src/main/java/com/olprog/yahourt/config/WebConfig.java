@@ -1,12 +1,23 @@
 package com.olprog.yahourt.config;
 
+import java.util.List;
+
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.context.annotation.Configuration;
 
+import com.olprog.yahourt.service.SimulationResultSerializer;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+  private final SimulationResultSerializer simulationResultSerializer;
+
+  public WebConfig(SimulationResultSerializer simulationResultSerializer) {
+    this.simulationResultSerializer = simulationResultSerializer;
+  }
+
   @Override
   public void addCorsMappings(CorsRegistry registry) {
     registry.addMapping("/**")
@@ -15,4 +26,10 @@ public class WebConfig implements WebMvcConfigurer {
         .allowedHeaders("*")
         .maxAge(3600);
   }
+
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    // Prioritaire sur Jackson pour les résultats de simulation
+    converters.add(0, new SimulationResultHttpMessageConverter(simulationResultSerializer));
+  }
 }
@@ -0,0 +1,54 @@
+package com.olprog.yahourt.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.olprog.yahourt.dto.BacktestRequestDto;
+import com.olprog.yahourt.model.BacktestReport;
+import com.olprog.yahourt.service.BacktestService;
+import com.olprog.yahourt.service.WorkloadCost;
+import com.olprog.yahourt.service.WorkloadLanes;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/yogurt/backtest")
+@Validated
+public class BacktestController {
+
+    private final BacktestService backtestService;
+    private final WorkloadLanes workloadLanes;
+
+    @Autowired
+    public BacktestController(BacktestService backtestService, WorkloadLanes workloadLanes) {
+        this.backtestService = backtestService;
+        this.workloadLanes = workloadLanes;
+    }
+
+    @PostMapping(consumes = "application/json")
+    public ResponseEntity<BacktestReport> backtest(@RequestBody @Valid BacktestRequestDto requestDto) {
+        long days = requestDto.getActualConsumption() == null ? 0 : requestDto.getActualConsumption().length;
+        return ResponseEntity.ok(workloadLanes.execute(days, () -> backtestService.backtest(requestDto)));
+    }
+
+    // Paramètres en query string (dailyConsumption[MONDAY]=3...), série brute dans le corps
+    @PostMapping(consumes = "text/plain")
+    public ResponseEntity<BacktestReport> backtestStream(@ModelAttribute @Valid BacktestRequestDto requestDto,
+            HttpServletRequest request) throws IOException {
+        try (InputStream series = request.getInputStream()) {
+            // Longueur de la série inconnue avant lecture
+            return ResponseEntity.ok(workloadLanes.execute(WorkloadCost.unbounded(),
+                    () -> backtestService.backtest(requestDto, series)));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.olprog.yahourt.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.service.BatchCoordinator;
+import com.olprog.yahourt.service.BatchShardExecutor;
+import com.olprog.yahourt.service.WorkloadCost;
+import com.olprog.yahourt.service.WorkloadLanes;
+
+@RestController
+@RequestMapping("/api/yogurt/batch")
+public class BatchController {
+
+    private final BatchCoordinator batchCoordinator;
+    private final BatchShardExecutor shardExecutor;
+    private final WorkloadLanes workloadLanes;
+
+    @Autowired
+    public BatchController(BatchCoordinator batchCoordinator, BatchShardExecutor shardExecutor,
+            WorkloadLanes workloadLanes) {
+        this.batchCoordinator = batchCoordinator;
+        this.shardExecutor = shardExecutor;
+        this.workloadLanes = workloadLanes;
+    }
+
+    // Point d'entrée du coordinateur : résultats écrits au fil des shards terminés, dans la voie du lot
+    @PostMapping
+    public ResponseEntity<StreamingResponseBody> runBatch(@RequestBody List<OptimizationRequestDto> scenarios) {
+        long cost = WorkloadCost.of(scenarios);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> workloadLanes.execute(cost, () -> {
+                    batchCoordinator.run(scenarios, out);
+                    return null;
+                }));
+    }
+
+    // Point d'entrée des workers
+    @PostMapping("/shard")
+    public ResponseEntity<byte[]> runShard(@RequestBody List<OptimizationRequestDto> scenarios) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(workloadLanes.execute(WorkloadCost.of(scenarios), () -> shardExecutor.execute(scenarios)));
+    }
+}
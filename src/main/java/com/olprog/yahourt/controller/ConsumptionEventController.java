@@ -0,0 +1,41 @@
+package com.olprog.yahourt.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.olprog.yahourt.dto.ConsumptionEventDto;
+import com.olprog.yahourt.model.ConsumptionProfile;
+import com.olprog.yahourt.service.ConsumptionProfileLearner;
+
+@RestController
+@RequestMapping("/api/yogurt")
+public class ConsumptionEventController {
+
+    private final ConsumptionProfileLearner profileLearner;
+
+    @Autowired
+    public ConsumptionEventController(ConsumptionProfileLearner profileLearner) {
+        this.profileLearner = profileLearner;
+    }
+
+    // Consommation réelle des foyers, par lots
+    @PostMapping("/consumption-events")
+    public ResponseEntity<Void> recordEvents(@RequestBody List<ConsumptionEventDto> events) {
+        profileLearner.record(events);
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/households/{householdId}/consumption-profile")
+    public ResponseEntity<ConsumptionProfile> learnedProfile(@PathVariable String householdId) {
+        ConsumptionProfile profile = profileLearner.learnedProfile(householdId, ConsumptionProfile.createDefault());
+        return profile == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(profile);
+    }
+}
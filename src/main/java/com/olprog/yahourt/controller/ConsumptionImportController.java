@@ -0,0 +1,42 @@
+package com.olprog.yahourt.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.olprog.yahourt.model.ConsumptionImportReport;
+import com.olprog.yahourt.service.ConsumptionImportService;
+import com.olprog.yahourt.service.WorkloadCost;
+import com.olprog.yahourt.service.WorkloadLanes;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/yogurt")
+public class ConsumptionImportController {
+
+    private final ConsumptionImportService importService;
+    private final WorkloadLanes workloadLanes;
+
+    @Autowired
+    public ConsumptionImportController(ConsumptionImportService importService, WorkloadLanes workloadLanes) {
+        this.importService = importService;
+        this.workloadLanes = workloadLanes;
+    }
+
+    // Corps brut en text/csv : foyer,aaaa-mm-jj,consommation ; lu en flux
+    @PostMapping(value = "/consumption-history", consumes = "text/csv")
+    public ResponseEntity<ConsumptionImportReport> importHistory(HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean variance) throws IOException {
+        try (InputStream body = request.getInputStream()) {
+            return ResponseEntity.ok(workloadLanes.execute(WorkloadCost.unbounded(),
+                    () -> importService.importHistory(body, variance)));
+        }
+    }
+}
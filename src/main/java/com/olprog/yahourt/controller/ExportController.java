@@ -0,0 +1,39 @@
+package com.olprog.yahourt.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.olprog.yahourt.dto.ExportRequestDto;
+import com.olprog.yahourt.model.ExportReport;
+import com.olprog.yahourt.service.ColumnarExportService;
+import com.olprog.yahourt.service.WorkloadCost;
+import com.olprog.yahourt.service.WorkloadLanes;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/yogurt")
+@Validated
+public class ExportController {
+
+    private final ColumnarExportService exportService;
+    private final WorkloadLanes workloadLanes;
+
+    @Autowired
+    public ExportController(ColumnarExportService exportService, WorkloadLanes workloadLanes) {
+        this.exportService = exportService;
+        this.workloadLanes = workloadLanes;
+    }
+
+    // Export colonnaire écrit côté serveur ; seul le compte rendu est renvoyé
+    @PostMapping("/export")
+    public ResponseEntity<ExportReport> export(@RequestBody @Valid ExportRequestDto requestDto) {
+        return ResponseEntity.ok(workloadLanes.execute(WorkloadCost.of(requestDto.getHouseholds()),
+                () -> exportService.export(requestDto)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.olprog.yahourt.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.olprog.yahourt.dto.FleetPlanRequestDto;
+import com.olprog.yahourt.model.FleetPlan;
+import com.olprog.yahourt.service.FleetPlanningService;
+import com.olprog.yahourt.service.WorkloadCost;
+import com.olprog.yahourt.service.WorkloadLanes;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/yogurt")
+@Validated
+public class FleetPlanController {
+
+    private final FleetPlanningService fleetPlanningService;
+    private final WorkloadLanes workloadLanes;
+
+    @Autowired
+    public FleetPlanController(FleetPlanningService fleetPlanningService, WorkloadLanes workloadLanes) {
+        this.fleetPlanningService = fleetPlanningService;
+        this.workloadLanes = workloadLanes;
+    }
+
+    @PostMapping("/fleet-plan")
+    public ResponseEntity<FleetPlan> plan(@RequestBody @Valid FleetPlanRequestDto requestDto) {
+        return ResponseEntity.ok(workloadLanes.execute(WorkloadCost.of(requestDto.getHouseholds()),
+                () -> fleetPlanningService.plan(requestDto)));
+    }
+}
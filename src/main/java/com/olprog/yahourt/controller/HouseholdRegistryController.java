@@ -0,0 +1,87 @@
+package com.olprog.yahourt.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.olprog.yahourt.dto.HouseholdRecordDto;
+import com.olprog.yahourt.model.RegisteredHousehold;
+import com.olprog.yahourt.model.ShoppingListReport;
+import com.olprog.yahourt.service.HouseholdRegistryService;
+import com.olprog.yahourt.service.WorkloadCost;
+import com.olprog.yahourt.service.WorkloadLanes;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/yogurt/registry")
+@ConditionalOnProperty(name = "yogurt.registry.enabled", havingValue = "true")
+@Validated
+public class HouseholdRegistryController {
+
+    private final HouseholdRegistryService registryService;
+    private final WorkloadLanes workloadLanes;
+
+    @Autowired
+    public HouseholdRegistryController(HouseholdRegistryService registryService, WorkloadLanes workloadLanes) {
+        this.registryService = registryService;
+        this.workloadLanes = workloadLanes;
+    }
+
+    @PostMapping("/households")
+    public ResponseEntity<RegisteredHousehold> create(@RequestBody @Valid HouseholdRecordDto record) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(registryService.create(record));
+    }
+
+    @GetMapping("/households/{id}")
+    public ResponseEntity<RegisteredHousehold> find(@PathVariable int id) {
+        RegisteredHousehold household = registryService.find(id);
+        return household == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(household);
+    }
+
+    @PutMapping("/households/{id}")
+    public ResponseEntity<RegisteredHousehold> update(@PathVariable int id,
+            @RequestBody @Valid HouseholdRecordDto record) {
+        RegisteredHousehold household = registryService.update(id, record);
+        return household == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(household);
+    }
+
+    @DeleteMapping("/households/{id}")
+    public ResponseEntity<Void> delete(@PathVariable int id) {
+        return registryService.delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    // Recalcul à la demande de la liste d'un jour (aujourd'hui par défaut), dans la voie lourde
+    @PostMapping("/shopping-lists")
+    public ResponseEntity<ShoppingListReport> generateShoppingList(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate day = date != null ? date : LocalDate.now();
+        return ResponseEntity.ok(workloadLanes.execute(WorkloadCost.unbounded(),
+                () -> registryService.generateShoppingList(day)));
+    }
+
+    // Commandes de la liste calculée pour ce jour, en CSV écrit au fil du parcours
+    @GetMapping("/shopping-lists/{date}")
+    public ResponseEntity<StreamingResponseBody> shoppingList(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(out -> registryService.writeShoppingList(date, out));
+    }
+}
@@ -0,0 +1,50 @@
+package com.olprog.yahourt.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.olprog.yahourt.dto.NextOrderRequestDto;
+import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.service.NextOrderService;
+import com.olprog.yahourt.service.WorkloadCost;
+import com.olprog.yahourt.service.WorkloadLanes;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/yogurt")
+@CrossOrigin(origins = "*")
+@Validated
+public class NextOrderController {
+
+    private final NextOrderService nextOrderService;
+    private final WorkloadLanes workloadLanes;
+
+    @Autowired
+    public NextOrderController(NextOrderService nextOrderService, WorkloadLanes workloadLanes) {
+        this.nextOrderService = nextOrderService;
+        this.workloadLanes = workloadLanes;
+    }
+
+    @PostMapping("/next-order")
+    public ResponseEntity<PurchaseRecommendation> nextOrder(
+            @RequestBody(required = false) @Valid NextOrderRequestDto requestDto) {
+        return ResponseEntity.ok(nextOrderService.recommendNextOrder(requestDto));
+    }
+
+    @PostMapping("/next-order/bulk")
+    public ResponseEntity<List<PurchaseRecommendation>> nextOrders(
+            @RequestBody List<NextOrderRequestDto> requestDtos) {
+        // Validation en un seul passage dans le service, pour tout le lot ; un grand lot passe en voie lourde
+        return ResponseEntity.ok(workloadLanes.execute(WorkloadCost.ofNextOrders(requestDtos),
+                () -> nextOrderService.recommendNextOrders(requestDtos)));
+    }
+}
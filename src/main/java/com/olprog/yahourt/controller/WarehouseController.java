@@ -0,0 +1,40 @@
+package com.olprog.yahourt.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.olprog.yahourt.dto.WarehouseSimulationRequestDto;
+import com.olprog.yahourt.model.WarehouseSimulationResult;
+import com.olprog.yahourt.service.WarehouseSimulationService;
+import com.olprog.yahourt.service.WorkloadCost;
+import com.olprog.yahourt.service.WorkloadLanes;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/yogurt")
+@Validated
+public class WarehouseController {
+
+    private final WarehouseSimulationService warehouseService;
+    private final WorkloadLanes workloadLanes;
+
+    @Autowired
+    public WarehouseController(WarehouseSimulationService warehouseService, WorkloadLanes workloadLanes) {
+        this.warehouseService = warehouseService;
+        this.workloadLanes = workloadLanes;
+    }
+
+    // Entrepôt local servant les commandes des foyers, simulés ensemble
+    @PostMapping("/warehouse-simulation")
+    public ResponseEntity<WarehouseSimulationResult> simulate(
+            @RequestBody @Valid WarehouseSimulationRequestDto requestDto) {
+        return ResponseEntity.ok(workloadLanes.execute(WorkloadCost.of(requestDto.getHouseholds()),
+                () -> warehouseService.simulate(requestDto)));
+    }
+}
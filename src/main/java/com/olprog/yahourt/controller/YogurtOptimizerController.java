@@ -1,6 +1,7 @@
 package com.olprog.yahourt.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -10,8 +11,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.olprog.yahourt.dto.OptimizationRequestDto;
-import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.jfr.RequestEvent;
 import com.olprog.yahourt.model.StockSimulationParams;
+import com.olprog.yahourt.service.SimulationCoalescer;
+import com.olprog.yahourt.service.WorkloadCost;
+import com.olprog.yahourt.service.WorkloadLanes;
 import com.olprog.yahourt.service.YogurtOptimizationService;
 
 import jakarta.validation.Valid;
@@ -23,22 +27,45 @@ import jakarta.validation.Valid;
 public class YogurtOptimizerController {
 
     private final YogurtOptimizationService optimizationService;
+    private final SimulationCoalescer simulationCoalescer;
+    private final WorkloadLanes workloadLanes;
 
     @Autowired
-    public YogurtOptimizerController(YogurtOptimizationService optimizationService) {
+    public YogurtOptimizerController(YogurtOptimizationService optimizationService,
+            SimulationCoalescer simulationCoalescer,
+            WorkloadLanes workloadLanes) {
         this.optimizationService = optimizationService;
+        this.simulationCoalescer = simulationCoalescer;
+        this.workloadLanes = workloadLanes;
     }
 
     @PostMapping("/optimize")
-    public ResponseEntity<SimulationResult> optimizeYogurtStock(
+    public ResponseEntity<byte[]> optimizeYogurtStock(
             @RequestBody(required = false) @Valid OptimizationRequestDto requestDto) {
-        // Convertir le DTO en paramètres de simulation
-        StockSimulationParams params = optimizationService.convertRequestToParams(requestDto);
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        byte[] result = null;
+        try {
+            // Voie choisie sur le coût estimé, avant toute conversion
+            result = workloadLanes.execute(WorkloadCost.of(requestDto), () -> {
+                // Convertir le DTO en paramètres de simulation
+                StockSimulationParams params = optimizationService.convertRequestToParams(requestDto);
 
-        // Exécuter la simulation
-        SimulationResult result = optimizationService.simulateYogurtStockForYear(params);
+                // Exécuter la simulation (partagée avec les requêtes identiques en cours)
+                return simulationCoalescer.simulate(params);
+            });
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.endpoint = "/api/yogurt/optimize";
+                event.responseBytes = result != null ? result.length : 0;
+                event.commit();
+            }
+        }
 
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(result);
     }
 
 }
@@ -0,0 +1,40 @@
+package com.olprog.yahourt.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestRequestDto {
+  // Date de la première valeur de la série
+  @NotNull(message = "La date de début de la série est requise")
+  private LocalDate startDate;
+
+  @Min(value = 0, message = "Le stock initial doit être supérieur ou égal à 0")
+  private Integer initialStock;
+
+  @Min(value = 1, message = "Le délai de livraison doit être d'au moins 1 jour")
+  private Integer deliveryDelay;
+
+  @Min(value = 1, message = "La taille du paquet doit être d'au moins 1")
+  private Integer packSize;
+
+  private String purchaseDay;
+
+  // Profil hebdomadaire utilisé pour les prévisions de commande
+  private Map<String, Integer> dailyConsumption;
+  private String householdId;
+
+  // Consommation réelle, une valeur par jour à partir de startDate ; absente
+  // lorsque la série est transmise en flux
+  private int[] actualConsumption;
+}
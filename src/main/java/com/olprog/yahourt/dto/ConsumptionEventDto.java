@@ -0,0 +1,18 @@
+package com.olprog.yahourt.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionEventDto {
+  private String householdId;
+  private LocalDate date;
+  private Integer consumption;
+}
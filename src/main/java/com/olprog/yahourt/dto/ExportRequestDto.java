@@ -0,0 +1,24 @@
+package com.olprog.yahourt.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportRequestDto {
+  @Pattern(regexp = "[A-Za-z0-9][A-Za-z0-9._-]*", message = "Nom de fichier d'export invalide")
+  private String fileName;
+
+  @Valid
+  @NotEmpty(message = "Au moins un foyer est requis")
+  private List<OptimizationRequestDto> households;
+}
@@ -0,0 +1,31 @@
+package com.olprog.yahourt.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetPlanRequestDto {
+  @Valid
+  @NotEmpty(message = "Au moins un foyer est requis")
+  private List<OptimizationRequestDto> households;
+
+  // Paquets que le fournisseur peut livrer par jour, tous foyers confondus
+  @NotNull(message = "La capacité quotidienne de livraison est requise")
+  @Min(value = 1, message = "La capacité quotidienne de livraison doit être d'au moins 1 paquet")
+  private Integer dailyCapacity;
+
+  // Avance maximale d'une livraison (et de sa commande), 2 jours par défaut
+  @Min(value = 0, message = "L'avance maximale doit être supérieure ou égale à 0")
+  private Integer maxAdvanceDays;
+}
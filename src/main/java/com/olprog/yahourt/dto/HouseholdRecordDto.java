@@ -0,0 +1,32 @@
+package com.olprog.yahourt.dto;
+
+import java.util.Map;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuration d'un foyer du registre ; les champs absents reprennent les
+ * valeurs par défaut.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HouseholdRecordDto {
+  @Min(value = 0, message = "Le stock actuel doit être supérieur ou égal à 0")
+  private Integer currentStock;
+
+  @Min(value = 1, message = "Le délai de livraison doit être d'au moins 1 jour")
+  private Integer deliveryDelay;
+
+  @Min(value = 1, message = "La taille du paquet doit être d'au moins 1")
+  private Integer packSize;
+
+  private String purchaseDay;
+
+  private Map<String, Integer> dailyConsumption;
+}
@@ -0,0 +1,17 @@
+package com.olprog.yahourt.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InFlightDeliveryDto {
+  private LocalDate deliveryDate;
+  private Integer packs;
+}
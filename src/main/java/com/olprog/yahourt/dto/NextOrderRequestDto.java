@@ -0,0 +1,37 @@
+package com.olprog.yahourt.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NextOrderRequestDto {
+  // Date du jour (aujourd'hui par défaut)
+  private LocalDate asOf;
+
+  // Stock au début de la journée asOf, avant les livraisons du jour
+  @Min(value = 0, message = "Le stock actuel doit être supérieur ou égal à 0")
+  private Integer currentStock;
+
+  @Min(value = 1, message = "Le délai de livraison doit être d'au moins 1 jour")
+  private Integer deliveryDelay;
+
+  @Min(value = 1, message = "La taille du paquet doit être d'au moins 1")
+  private Integer packSize;
+
+  private String purchaseDay;
+
+  private Map<String, Integer> dailyConsumption;
+
+  // Commandes passées, pas encore livrées
+  private List<InFlightDeliveryDto> inFlightDeliveries;
+}
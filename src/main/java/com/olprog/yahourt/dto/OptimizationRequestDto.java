@@ -1,7 +1,12 @@
 package com.olprog.yahourt.dto;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
+import com.olprog.yahourt.model.CostModel;
+
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,6 +18,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class OptimizationRequestDto {
+  // Foyer dont le profil appris sert de consommation par défaut
+  private String householdId;
+
   @Min(value = 0, message = "Le stock initial doit être supérieur ou égal à 0")
   private Integer initialStock;
 
@@ -23,4 +31,38 @@ public class OptimizationRequestDto {
   private Integer packSize;
 
   private Map<String, Integer> dailyConsumption;
+
+  // Consommation imposée pour certaines dates (jours fériés, vacances...)
+  private Map<LocalDate, Integer> consumptionOverrides;
+
+  // Dates sans livraison : la livraison est reportée au jour suivant possible
+  private List<LocalDate> blockedDeliveryDates;
+
+  // day (par défaut), week ou month
+  private String granularity;
+
+  // Fenêtre de jours restitués (bornes incluses)
+  private LocalDate from;
+  private LocalDate to;
+
+  // Jours par page, ou semaines, mois selon la granularité
+  @Min(value = 1, message = "La taille de page doit être d'au moins 1 jour")
+  private Integer pageSize;
+
+  // Curseur renvoyé par la page précédente (nextCursor)
+  private String cursor;
+
+  // Durée de conservation en jours, absente si la péremption est ignorée
+  @Min(value = 1, message = "La durée de conservation doit être d'au moins 1 jour")
+  private Integer shelfLifeDays;
+
+  // Références simulées ensemble ; les champs absents reprennent les valeurs ci-dessus
+  @Valid
+  private List<SkuDto> skus;
+
+  // Prix, coût fixe par commande, coût de stockage et remises éventuelles
+  private CostModel costModel;
+
+  // rule (par défaut) ou cost_optimal
+  private String policy;
 }
@@ -0,0 +1,40 @@
+package com.olprog.yahourt.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseSimulationRequestDto {
+  @Valid
+  @NotEmpty(message = "Au moins un foyer est requis")
+  private List<OptimizationRequestDto> households;
+
+  // Stock de l'entrepôt au premier jour de commande, orderUpTo par défaut
+  @Min(value = 0, message = "Le stock initial de l'entrepôt doit être supérieur ou égal à 0")
+  private Long initialStock;
+
+  // Délai de réapprovisionnement de l'entrepôt, 3 jours par défaut
+  @Min(value = 1, message = "Le délai de livraison de l'entrepôt doit être d'au moins 1 jour")
+  private Integer deliveryDelay;
+
+  // Règle (s, S) en yaourts ; déduites de la demande moyenne si absentes
+  @Min(value = 0, message = "Le point de commande doit être supérieur ou égal à 0")
+  private Long reorderPoint;
+
+  @Min(value = 0, message = "Le niveau de recomplètement doit être supérieur ou égal à 0")
+  private Long orderUpTo;
+
+  // Yaourts par lot commandé au fournisseur, 1 par défaut
+  @Min(value = 1, message = "La taille du lot doit être d'au moins 1")
+  private Integer lotSize;
+}
@@ -0,0 +1,144 @@
+package com.olprog.yahourt.exception;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Corps d'erreur JSON construits à partir de fragments pré-encodés.
+ * L'horodatage est mis en cache à la milliseconde : sous un flot de requêtes
+ * invalides, la plupart des réponses réutilisent la même chaîne.
+ */
+final class ErrorResponseTemplates {
+
+  private static final byte[] TIMESTAMP_PREFIX = ascii("{\"timestamp\":\"");
+  private static final byte[] BAD_REQUEST_HEAD = ascii("\",\"status\":400,\"error\":\"Validation Error\",\"message\":");
+  private static final byte[] INTERNAL_ERROR_HEAD = ascii(
+      "\",\"status\":500,\"error\":\"Internal Server Error\",\"message\":");
+  private static final byte[] UNAVAILABLE_HEAD = ascii(
+      "\",\"status\":503,\"error\":\"Service Unavailable\",\"message\":");
+  private static final byte[] VIOLATIONS_KEY = ascii(",\"violations\":[");
+  private static final byte[] DETAILS_KEY = ascii(",\"details\":{");
+  private static final byte[] NULL = ascii("null");
+
+  private static final ZoneId ZONE = ZoneId.systemDefault();
+
+  private static volatile CachedTimestamp cachedTimestamp = new CachedTimestamp(Long.MIN_VALUE, new byte[0]);
+
+  private ErrorResponseTemplates() {
+  }
+
+  static ResponseEntity<byte[]> badRequest(String message, List<String> violations) {
+    ByteArrayOutputStream out = start(BAD_REQUEST_HEAD, message);
+    if (violations != null && violations.size() > 1) {
+      out.writeBytes(VIOLATIONS_KEY);
+      for (int i = 0; i < violations.size(); i++) {
+        if (i > 0) {
+          out.write(',');
+        }
+        writeString(out, violations.get(i));
+      }
+      out.write(']');
+    }
+    return finish(out, HttpStatus.BAD_REQUEST);
+  }
+
+  static ResponseEntity<byte[]> badRequest(String message, Map<String, String> details) {
+    ByteArrayOutputStream out = start(BAD_REQUEST_HEAD, message);
+    out.writeBytes(DETAILS_KEY);
+    boolean first = true;
+    for (Map.Entry<String, String> entry : details.entrySet()) {
+      if (!first) {
+        out.write(',');
+      }
+      first = false;
+      writeString(out, entry.getKey());
+      out.write(':');
+      writeString(out, entry.getValue());
+    }
+    out.write('}');
+    return finish(out, HttpStatus.BAD_REQUEST);
+  }
+
+  static ResponseEntity<byte[]> internalError(String message) {
+    return finish(start(INTERNAL_ERROR_HEAD, message), HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  static ResponseEntity<byte[]> serviceUnavailable(String message) {
+    return finish(start(UNAVAILABLE_HEAD, message), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  private static ByteArrayOutputStream start(byte[] head, String message) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+    out.writeBytes(TIMESTAMP_PREFIX);
+    out.writeBytes(timestamp());
+    out.writeBytes(head);
+    writeString(out, message);
+    return out;
+  }
+
+  private static ResponseEntity<byte[]> finish(ByteArrayOutputStream out, HttpStatus status) {
+    out.write('}');
+    return ResponseEntity.status(status)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(out.toByteArray());
+  }
+
+  private static byte[] timestamp() {
+    long now = System.currentTimeMillis();
+    CachedTimestamp cached = cachedTimestamp;
+    if (cached.millis != now) {
+      String formatted = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZONE).toString();
+      cached = new CachedTimestamp(now, ascii(formatted));
+      cachedTimestamp = cached;
+    }
+    return cached.bytes;
+  }
+
+  private static void writeString(ByteArrayOutputStream out, String value) {
+    if (value == null) {
+      out.writeBytes(NULL);
+      return;
+    }
+    out.write('"');
+    int runStart = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\' || c < 0x20) {
+        writeUtf8(out, value, runStart, i);
+        out.write('\\');
+        switch (c) {
+          case '"', '\\' -> out.write(c);
+          case '\n' -> out.write('n');
+          case '\r' -> out.write('r');
+          case '\t' -> out.write('t');
+          default -> out.writeBytes(ascii(String.format("u%04x", (int) c)));
+        }
+        runStart = i + 1;
+      }
+    }
+    writeUtf8(out, value, runStart, value.length());
+    out.write('"');
+  }
+
+  private static void writeUtf8(ByteArrayOutputStream out, String value, int from, int to) {
+    if (from < to) {
+      out.writeBytes(value.substring(from, to).getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private record CachedTimestamp(long millis, byte[] bytes) {
+  }
+}
@@ -1,10 +1,9 @@
 package com.olprog.yahourt.exception;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -15,20 +14,13 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 public class GlobalExceptionHandler {
 
   @ExceptionHandler(ValidationException.class)
-  public ResponseEntity<Map<String, Object>> handleValidationException(ValidationException ex) {
-    Map<String, Object> response = new HashMap<>();
-    response.put("timestamp", LocalDateTime.now().toString());
-    response.put("status", HttpStatus.BAD_REQUEST.value());
-    response.put("error", "Validation Error");
-    response.put("message", ex.getMessage());
-
-    return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+  public ResponseEntity<byte[]> handleValidationException(ValidationException ex) {
+    return ErrorResponseTemplates.badRequest(ex.getMessage(), ex.getViolations());
   }
 
   @ExceptionHandler(MethodArgumentNotValidException.class)
-  public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
-    Map<String, Object> response = new HashMap<>();
-    Map<String, String> errors = new HashMap<>();
+  public ResponseEntity<byte[]> handleValidationExceptions(MethodArgumentNotValidException ex) {
+    Map<String, String> errors = new LinkedHashMap<>();
 
     ex.getBindingResult().getAllErrors().forEach(error -> {
       String fieldName = ((FieldError) error).getField();
@@ -36,23 +28,20 @@ public class GlobalExceptionHandler {
       errors.put(fieldName, errorMessage);
     });
 
-    response.put("timestamp", LocalDateTime.now().toString());
-    response.put("status", HttpStatus.BAD_REQUEST.value());
-    response.put("error", "Validation Error");
-    response.put("message", "Validation failed for request");
-    response.put("details", errors);
+    return ErrorResponseTemplates.badRequest("Validation failed for request", errors);
+  }
 
-    return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+  @ExceptionHandler(LaneRejectedException.class)
+  public ResponseEntity<byte[]> handleLaneRejectedException(LaneRejectedException ex) {
+    ResponseEntity<byte[]> response = ErrorResponseTemplates.serviceUnavailable(ex.getMessage());
+    return ResponseEntity.status(response.getStatusCode())
+        .headers(response.getHeaders())
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(response.getBody());
   }
 
   @ExceptionHandler(Exception.class)
-  public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
-    Map<String, Object> response = new HashMap<>();
-    response.put("timestamp", LocalDateTime.now().toString());
-    response.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-    response.put("error", "Internal Server Error");
-    response.put("message", ex.getMessage());
-
-    return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+  public ResponseEntity<byte[]> handleGenericException(Exception ex) {
+    return ErrorResponseTemplates.internalError(ex.getMessage());
   }
 }
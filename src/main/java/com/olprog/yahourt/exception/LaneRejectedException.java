@@ -0,0 +1,17 @@
+package com.olprog.yahourt.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * File d'attente d'une voie d'exécution pleine : la requête est refusée tout
+ * de suite plutôt que d'attendre sans limite. Comme pour
+ * {@link ValidationException}, aucune pile d'appels n'est capturée.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class LaneRejectedException extends RuntimeException {
+
+  public LaneRejectedException(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -1,11 +1,33 @@
 package com.olprog.yahourt.exception;
 
+import java.util.List;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Erreur de validation attendue : aucune pile d'appels n'est capturée, une
+ * requête invalide ne doit pas coûter plus cher qu'une requête valide.
+ */
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class ValidationException extends RuntimeException {
+
+  private final List<String> violations;
+
   public ValidationException(String message) {
-    super(message);
+    this(message, List.of(message));
+  }
+
+  public ValidationException(List<String> violations) {
+    this(String.join("; ", violations), List.copyOf(violations));
+  }
+
+  private ValidationException(String message, List<String> violations) {
+    super(message, null, false, false);
+    this.violations = violations;
+  }
+
+  public List<String> getViolations() {
+    return violations;
   }
 }
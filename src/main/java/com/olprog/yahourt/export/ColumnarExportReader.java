@@ -0,0 +1,166 @@
+package com.olprog.yahourt.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lecture bloc par bloc d'un export colonnaire : chaque bloc est projeté en
+ * mémoire et ses colonnes sont lues sans copie.
+ *
+ * <pre>
+ * try (ColumnarExportReader reader = new ColumnarExportReader(path)) {
+ *   while (reader.next()) {
+ *     if (reader.type() == ColumnarFormat.DAYS) {
+ *       for (int row = 0; row &lt; reader.rows(); row++) {
+ *         reader.stockLevel(row);
+ *       }
+ *     }
+ *   }
+ * }
+ * </pre>
+ */
+public final class ColumnarExportReader implements Closeable {
+
+  private final FileChannel channel;
+  private final ByteBuffer chunkHeader = ByteBuffer.allocate(ColumnarFormat.CHUNK_HEADER_SIZE)
+      .order(ColumnarFormat.ORDER);
+  private final int chunkRows;
+
+  private long position = ColumnarFormat.FILE_HEADER_SIZE;
+  private int type;
+  private int rows;
+  private MappedByteBuffer chunk;
+  private boolean complete;
+
+  public ColumnarExportReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    ByteBuffer header = ByteBuffer.allocate(ColumnarFormat.FILE_HEADER_SIZE).order(ColumnarFormat.ORDER);
+    readFully(header, 0);
+    if (header.getLong(0) != ColumnarFormat.FILE_MAGIC || header.getInt(8) != ColumnarFormat.VERSION) {
+      channel.close();
+      throw new IOException("Fichier d'export colonnaire invalide: " + file);
+    }
+    this.chunkRows = header.getInt(12);
+  }
+
+  /**
+   * Passe au bloc suivant.
+   *
+   * @return faux à la fin du fichier
+   */
+  public boolean next() throws IOException {
+    if (complete) {
+      return false;
+    }
+    if (chunk != null) {
+      position += ColumnarFormat.CHUNK_HEADER_SIZE + chunk.capacity();
+      chunk = null;
+    }
+    if (position + ColumnarFormat.CHUNK_HEADER_SIZE > channel.size()) {
+      throw new IOException("Export tronqué : bloc de fin absent");
+    }
+    chunkHeader.clear();
+    readFully(chunkHeader, position);
+    type = chunkHeader.getInt(0);
+    rows = chunkHeader.getInt(4);
+    long payloadSize = chunkHeader.getLong(8);
+    if (type == ColumnarFormat.END) {
+      complete = true;
+      return false;
+    }
+    long expectedSize = type == ColumnarFormat.DAYS ? ColumnarFormat.dayChunkSize(rows)
+        : type == ColumnarFormat.SUMMARIES ? ColumnarFormat.summaryChunkSize(rows) : -1;
+    if (rows < 0 || payloadSize != expectedSize
+        || position + ColumnarFormat.CHUNK_HEADER_SIZE + payloadSize > channel.size()) {
+      throw new IOException("Bloc invalide à la position " + position);
+    }
+    chunk = channel.map(FileChannel.MapMode.READ_ONLY, position + ColumnarFormat.CHUNK_HEADER_SIZE,
+        payloadSize);
+    chunk.order(ColumnarFormat.ORDER);
+    return true;
+  }
+
+  public int type() {
+    return type;
+  }
+
+  public int rows() {
+    return rows;
+  }
+
+  public int chunkRows() {
+    return chunkRows;
+  }
+
+  // Colonnes d'un bloc DAYS
+
+  public int household(int row) {
+    return intColumn(0, row);
+  }
+
+  public int epochDay(int row) {
+    return intColumn(1, row);
+  }
+
+  public int stockLevel(int row) {
+    return intColumn(2, row);
+  }
+
+  public int consumption(int row) {
+    return intColumn(3, row);
+  }
+
+  public int consumed(int row) {
+    return intColumn(4, row);
+  }
+
+  public boolean deliveryDay(int row) {
+    return (flags(ColumnarFormat.DAY_INT_COLUMNS, row) & ColumnarFormat.FLAG_DELIVERY) != 0;
+  }
+
+  public boolean purchaseDay(int row) {
+    return (flags(ColumnarFormat.DAY_INT_COLUMNS, row) & ColumnarFormat.FLAG_PURCHASE) != 0;
+  }
+
+  // Colonnes d'un bloc SUMMARIES : 0 foyer, 1 achats, 2 achetés, 3 consommés,
+  // 4 stock moyen, 5 minimum, 6 maximum, 7 périmés
+
+  public int summaryInt(int column, int row) {
+    return intColumn(column, row);
+  }
+
+  public double averagePacksToBuy(int row) {
+    return chunk.getDouble(rows * ColumnarFormat.SUMMARY_INT_COLUMNS * 4 + row * 8);
+  }
+
+  public boolean partial(int row) {
+    return chunk.get(rows * (ColumnarFormat.SUMMARY_INT_COLUMNS * 4 + 8) + row) != 0;
+  }
+
+  private int intColumn(int column, int row) {
+    return chunk.getInt((column * rows + row) * 4);
+  }
+
+  private byte flags(int intColumns, int row) {
+    return chunk.get(intColumns * rows * 4 + row);
+  }
+
+  private void readFully(ByteBuffer buffer, long at) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, at + buffer.position()) < 0) {
+        throw new IOException("Fin de fichier inattendue");
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    chunk = null;
+    channel.close();
+  }
+}
@@ -0,0 +1,176 @@
+package com.olprog.yahourt.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.olprog.yahourt.model.SimulationSummary;
+import com.olprog.yahourt.service.DailyStockListener;
+
+/**
+ * Écrit un export colonnaire (voir {@link ColumnarFormat}) au fil de la
+ * simulation : le writer est lui-même le {@link DailyStockListener} du
+ * moteur. Les colonnes d'un bloc sont remplies dans des tampons directs
+ * alloués une fois, puis écrites d'un seul appel groupé sur le
+ * {@link FileChannel} : la mémoire utilisée ne dépend pas du nombre de foyers.
+ * <p>
+ * Non thread-safe : un writer par fichier et par thread.
+ */
+public final class ColumnarExportWriter implements DailyStockListener, Closeable {
+
+  private static final int SUMMARY_ROWS = 4096;
+
+  private final FileChannel channel;
+  private final int chunkRows;
+
+  private final ByteBuffer chunkHeader = ByteBuffer.allocateDirect(ColumnarFormat.CHUNK_HEADER_SIZE)
+      .order(ColumnarFormat.ORDER);
+
+  private final ByteBuffer[] dayChunk;
+  private final ByteBuffer[] summaryChunk;
+  private int dayRows;
+  private int summaryRows;
+
+  private int household;
+  private long totalDayRows;
+  private long households;
+
+  public ColumnarExportWriter(Path file, int chunkRows) throws IOException {
+    if (chunkRows < 1) {
+      throw new IllegalArgumentException("chunkRows doit être positif");
+    }
+    this.chunkRows = chunkRows;
+    this.dayChunk = columns(chunkRows, ColumnarFormat.DAY_INT_COLUMNS, 0);
+    this.summaryChunk = columns(SUMMARY_ROWS, ColumnarFormat.SUMMARY_INT_COLUMNS, 1);
+    // Jamais de réécriture d'un fichier existant, éventuellement en cours d'écriture
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+    ByteBuffer header = ByteBuffer.allocate(ColumnarFormat.FILE_HEADER_SIZE).order(ColumnarFormat.ORDER);
+    header.putLong(ColumnarFormat.FILE_MAGIC).putInt(ColumnarFormat.VERSION).putInt(chunkRows).flip();
+    while (header.hasRemaining()) {
+      channel.write(header);
+    }
+  }
+
+  /**
+   * Colonnes d'un bloc : l'en-tête, les colonnes int, les éventuelles colonnes
+   * double, puis la colonne d'indicateurs.
+   */
+  private ByteBuffer[] columns(int rows, int intColumns, int doubleColumns) {
+    ByteBuffer[] buffers = new ByteBuffer[1 + intColumns + doubleColumns + 1];
+    buffers[0] = chunkHeader;
+    for (int i = 1; i <= intColumns; i++) {
+      buffers[i] = ByteBuffer.allocateDirect(rows * 4).order(ColumnarFormat.ORDER);
+    }
+    for (int i = intColumns + 1; i <= intColumns + doubleColumns; i++) {
+      buffers[i] = ByteBuffer.allocateDirect(rows * 8).order(ColumnarFormat.ORDER);
+    }
+    buffers[buffers.length - 1] = ByteBuffer.allocateDirect(rows);
+    return buffers;
+  }
+
+  /**
+   * Les jours suivants sont rattachés à ce foyer.
+   */
+  public DailyStockListener household(int householdIndex) {
+    this.household = householdIndex;
+    return this;
+  }
+
+  @Override
+  public void onDay(int epochDay, int stockLevel, boolean deliveryDay, boolean purchaseDay, int consumption,
+      int consumed) {
+    dayChunk[1].putInt(household);
+    dayChunk[2].putInt(epochDay);
+    dayChunk[3].putInt(stockLevel);
+    dayChunk[4].putInt(consumption);
+    dayChunk[5].putInt(consumed);
+    dayChunk[6].put((byte) ((deliveryDay ? ColumnarFormat.FLAG_DELIVERY : 0)
+        | (purchaseDay ? ColumnarFormat.FLAG_PURCHASE : 0)));
+    totalDayRows++;
+    if (++dayRows == chunkRows) {
+      flushDays();
+    }
+  }
+
+  public void summary(int householdIndex, SimulationSummary summary) {
+    summaryChunk[1].putInt(householdIndex);
+    summaryChunk[2].putInt(summary.getTotalPurchases());
+    summaryChunk[3].putInt(summary.getTotalYogurtsPurchased());
+    summaryChunk[4].putInt(summary.getTotalYogurtsConsumed());
+    summaryChunk[5].putInt(summary.getAverageStockLevel());
+    summaryChunk[6].putInt(summary.getMinimumStockLevel());
+    summaryChunk[7].putInt(summary.getMaximumStockLevel());
+    summaryChunk[8].putInt(summary.getExpiredYogurts());
+    summaryChunk[9].putDouble(summary.getAveragePacksToBuy());
+    summaryChunk[10].put((byte) (summary.isPartial() ? 1 : 0));
+    households++;
+    if (++summaryRows == SUMMARY_ROWS) {
+      flushSummaries();
+    }
+  }
+
+  public long getDayRows() {
+    return totalDayRows;
+  }
+
+  public long getHouseholds() {
+    return households;
+  }
+
+  public long size() throws IOException {
+    return channel.position();
+  }
+
+  private void flushDays() {
+    if (dayRows > 0) {
+      writeChunk(ColumnarFormat.DAYS, dayRows, ColumnarFormat.dayChunkSize(dayRows), dayChunk);
+      dayRows = 0;
+    }
+  }
+
+  private void flushSummaries() {
+    if (summaryRows > 0) {
+      writeChunk(ColumnarFormat.SUMMARIES, summaryRows, ColumnarFormat.summaryChunkSize(summaryRows),
+          summaryChunk);
+      summaryRows = 0;
+    }
+  }
+
+  private void writeChunk(int type, int rows, long payloadSize, ByteBuffer[] buffers) {
+    chunkHeader.clear();
+    chunkHeader.putInt(type).putInt(rows).putLong(payloadSize).flip();
+    for (int i = 1; i < buffers.length; i++) {
+      buffers[i].flip();
+    }
+    try {
+      long remaining = ColumnarFormat.CHUNK_HEADER_SIZE + payloadSize;
+      while (remaining > 0) {
+        remaining -= channel.write(buffers);
+      }
+    } catch (IOException e) {
+      throw new ExportException("Écriture de l'export impossible", e);
+    }
+    for (int i = 1; i < buffers.length; i++) {
+      buffers[i].clear();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!channel.isOpen()) {
+      return;
+    }
+    try {
+      flushDays();
+      flushSummaries();
+      writeChunk(ColumnarFormat.END, 0, 0, new ByteBuffer[] { chunkHeader });
+      channel.force(false);
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.olprog.yahourt.export;
+
+import java.nio.ByteOrder;
+
+/**
+ * Format colonnaire des exports de simulation, en petit-boutiste.
+ * <p>
+ * Le fichier commence par un en-tête ({@link #FILE_MAGIC}, version, nombre
+ * maximal de lignes par bloc) suivi d'une suite de blocs. Chaque bloc a un
+ * en-tête de {@link #CHUNK_HEADER_SIZE} octets (type, nombre de lignes, taille
+ * du contenu) puis ses colonnes, chacune contiguë :
+ * <ul>
+ * <li>{@link #DAYS} : foyer, jour epoch, stock, consommation prévue,
+ * consommation servie (int), indicateurs livraison/achat (octet) ;</li>
+ * <li>{@link #SUMMARIES} : foyer, achats, yaourts achetés, consommés, stock
+ * moyen, minimum, maximum, périmés (int), paquets moyens par achat (double),
+ * simulation partielle (octet).</li>
+ * </ul>
+ * Un bloc {@link #END} termine le fichier : un fichier sans ce bloc est un
+ * export interrompu.
+ */
+public final class ColumnarFormat {
+
+  public static final long FILE_MAGIC = 0x3153_4C4F_4347_4F59L; // "YOGCOLS1"
+  public static final int VERSION = 1;
+  public static final int FILE_HEADER_SIZE = 16;
+
+  public static final int DAYS = 0x5359_4144; // "DAYS"
+  public static final int SUMMARIES = 0x4D4D_5553; // "SUMM"
+  public static final int END = 0x2144_4E45; // "END!"
+  public static final int CHUNK_HEADER_SIZE = 16;
+
+  public static final int DAY_INT_COLUMNS = 5;
+  public static final int SUMMARY_INT_COLUMNS = 8;
+
+  public static final byte FLAG_DELIVERY = 1;
+  public static final byte FLAG_PURCHASE = 2;
+
+  static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  private ColumnarFormat() {
+  }
+
+  static long dayChunkSize(int rows) {
+    return (long) rows * (DAY_INT_COLUMNS * 4 + 1);
+  }
+
+  static long summaryChunkSize(int rows) {
+    return (long) rows * (SUMMARY_INT_COLUMNS * 4 + 8 + 1);
+  }
+}
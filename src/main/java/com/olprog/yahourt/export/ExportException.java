@@ -0,0 +1,12 @@
+package com.olprog.yahourt.export;
+
+/**
+ * Échec d'entrée/sortie pendant un export, levé depuis le listener de
+ * simulation qui ne peut pas déclarer d'{@link java.io.IOException}.
+ */
+public class ExportException extends RuntimeException {
+
+  public ExportException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,187 @@
+package com.olprog.yahourt.history;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Cumuls de consommation par foyer et par jour de la semaine : nombre de
+ * jours, somme et somme des carrés. Les identifiants de foyer sont gardés en
+ * octets dans une table à adressage ouvert ; aucune chaîne n'est créée tant
+ * que le résultat n'est pas lu.
+ * <p>
+ * Non thread-safe : chaque tâche d'import remplit sa propre table, fusionnée
+ * ensuite avec {@link #merge(ConsumptionHistory)}.
+ */
+public final class ConsumptionHistory {
+
+  private static final int EMPTY = -1;
+
+  // Table de hachage : index de foyer par emplacement
+  private int[] slots;
+  private int[] hashes;
+
+  // Identifiants, concaténés dans keyBytes
+  private byte[] keyBytes = new byte[4096];
+  private int keyBytesUsed;
+  private int[] keyOffsets;
+  private int[] keyLengths;
+
+  // Cumuls, indexés par foyer * 7 + jour de la semaine
+  private long[] counts;
+  private long[] sums;
+  private long[] sumsOfSquares;
+
+  private int households;
+  private long rows;
+  private long rejectedRows;
+
+  public ConsumptionHistory() {
+    this.slots = new int[1024];
+    Arrays.fill(slots, EMPTY);
+    this.hashes = new int[512];
+    this.keyOffsets = new int[512];
+    this.keyLengths = new int[512];
+    this.counts = new long[512 * 7];
+    this.sums = new long[512 * 7];
+    this.sumsOfSquares = new long[512 * 7];
+  }
+
+  /**
+   * Ajoute une journée pour le foyer dont l'identifiant occupe
+   * {@code [from, to)} dans le tampon.
+   */
+  void add(ByteBuffer buffer, int from, int to, int dayOfWeek, int consumption) {
+    int household = householdIndex(buffer, from, to);
+    int cell = household * 7 + dayOfWeek;
+    counts[cell]++;
+    sums[cell] += consumption;
+    sumsOfSquares[cell] += (long) consumption * consumption;
+    rows++;
+  }
+
+  void reject() {
+    rejectedRows++;
+  }
+
+  /**
+   * Ajoute les cumuls d'une autre table à celle-ci.
+   */
+  public ConsumptionHistory merge(ConsumptionHistory other) {
+    ByteBuffer keys = ByteBuffer.wrap(other.keyBytes);
+    for (int h = 0; h < other.households; h++) {
+      int household = householdIndex(keys, other.keyOffsets[h], other.keyOffsets[h] + other.keyLengths[h]);
+      for (int d = 0; d < 7; d++) {
+        counts[household * 7 + d] += other.counts[h * 7 + d];
+        sums[household * 7 + d] += other.sums[h * 7 + d];
+        sumsOfSquares[household * 7 + d] += other.sumsOfSquares[h * 7 + d];
+      }
+    }
+    rows += other.rows;
+    rejectedRows += other.rejectedRows;
+    return this;
+  }
+
+  public int households() {
+    return households;
+  }
+
+  public String householdId(int household) {
+    return new String(keyBytes, keyOffsets[household], keyLengths[household], StandardCharsets.UTF_8);
+  }
+
+  public long count(int household, int dayOfWeek) {
+    return counts[household * 7 + dayOfWeek];
+  }
+
+  public long sum(int household, int dayOfWeek) {
+    return sums[household * 7 + dayOfWeek];
+  }
+
+  public long sumOfSquares(int household, int dayOfWeek) {
+    return sumsOfSquares[household * 7 + dayOfWeek];
+  }
+
+  public long rows() {
+    return rows;
+  }
+
+  public long rejectedRows() {
+    return rejectedRows;
+  }
+
+  private int householdIndex(ByteBuffer buffer, int from, int to) {
+    int hash = 1;
+    for (int i = from; i < to; i++) {
+      hash = 31 * hash + buffer.get(i);
+    }
+    hash ^= hash >>> 16;
+
+    int mask = slots.length - 1;
+    for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+      int household = slots[slot];
+      if (household == EMPTY) {
+        household = insert(buffer, from, to, hash);
+        slots[slot] = household;
+        if (households * 2 > slots.length) {
+          rehash();
+        }
+        return household;
+      }
+      if (hashes[household] == hash && sameKey(household, buffer, from, to)) {
+        return household;
+      }
+    }
+  }
+
+  private boolean sameKey(int household, ByteBuffer buffer, int from, int to) {
+    if (keyLengths[household] != to - from) {
+      return false;
+    }
+    int offset = keyOffsets[household];
+    for (int i = from; i < to; i++) {
+      if (keyBytes[offset++] != buffer.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int insert(ByteBuffer buffer, int from, int to, int hash) {
+    int household = households++;
+    if (household == hashes.length) {
+      int capacity = hashes.length * 2;
+      hashes = Arrays.copyOf(hashes, capacity);
+      keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+      keyLengths = Arrays.copyOf(keyLengths, capacity);
+      counts = Arrays.copyOf(counts, capacity * 7);
+      sums = Arrays.copyOf(sums, capacity * 7);
+      sumsOfSquares = Arrays.copyOf(sumsOfSquares, capacity * 7);
+    }
+    int length = to - from;
+    if (keyBytesUsed + length > keyBytes.length) {
+      keyBytes = Arrays.copyOf(keyBytes, Math.max(keyBytes.length * 2, keyBytesUsed + length));
+    }
+    for (int i = from; i < to; i++) {
+      keyBytes[keyBytesUsed + i - from] = buffer.get(i);
+    }
+    hashes[household] = hash;
+    keyOffsets[household] = keyBytesUsed;
+    keyLengths[household] = length;
+    keyBytesUsed += length;
+    return household;
+  }
+
+  private void rehash() {
+    slots = new int[slots.length * 2];
+    Arrays.fill(slots, EMPTY);
+    int mask = slots.length - 1;
+    for (int household = 0; household < households; household++) {
+      int slot = hashes[household] & mask;
+      while (slots[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = household;
+    }
+  }
+}
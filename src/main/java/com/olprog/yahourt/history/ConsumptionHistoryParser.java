@@ -0,0 +1,170 @@
+package com.olprog.yahourt.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Lecture d'un historique de consommation CSV, une ligne par foyer et par
+ * jour : {@code foyer,aaaa-mm-jj,consommation}. Une première ligne d'en-tête
+ * est ignorée.
+ * <p>
+ * Le fichier est lu par tranches dans un tampon direct et chaque ligne est
+ * décodée directement depuis les octets : ni chaîne ni objet date par ligne.
+ * Le fichier peut être découpé en plages alignées sur les fins de ligne
+ * ({@link #split(FileChannel, int)}) lues en parallèle, chacune dans sa propre
+ * {@link ConsumptionHistory}.
+ */
+public final class ConsumptionHistoryParser {
+
+  static final int BUFFER_SIZE = 1 << 20;
+
+  private ConsumptionHistoryParser() {
+  }
+
+  /**
+   * Bornes de {@code parts} plages couvrant le fichier, chacune commençant au
+   * début d'une ligne.
+   */
+  public static long[] split(FileChannel channel, int parts) throws IOException {
+    long size = channel.size();
+    long[] bounds = new long[parts + 1];
+    ByteBuffer probe = ByteBuffer.allocate(4096);
+    for (int i = 1; i < parts; i++) {
+      long position = Math.max(bounds[i - 1], size * i / parts);
+      bounds[i] = position == 0 ? 0 : nextLineStart(channel, position, size, probe);
+    }
+    bounds[parts] = size;
+    return bounds;
+  }
+
+  // Début de la ligne suivant l'octet position - 1
+  private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe)
+      throws IOException {
+    long at = position - 1;
+    while (at < size) {
+      probe.clear();
+      int read = channel.read(probe, at);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (probe.get(i) == '\n') {
+          return at + i + 1;
+        }
+      }
+      at += read;
+    }
+    return size;
+  }
+
+  /**
+   * Lit les lignes commençant dans {@code [start, end)}.
+   */
+  public static ConsumptionHistory parse(FileChannel channel, long start, long end) throws IOException {
+    ConsumptionHistory history = new ConsumptionHistory();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    long position = start;
+    boolean header = start == 0;
+
+    while (position < end) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read <= 0) {
+        break;
+      }
+      boolean lastRead = position + read >= channel.size();
+      int lineStart = 0;
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          if (!parseLine(buffer, lineStart, i, history) && !header) {
+            history.reject();
+          }
+          header = false;
+          lineStart = i + 1;
+          if (position + lineStart >= end) {
+            return history;
+          }
+        }
+      }
+      if (lastRead && lineStart < read) {
+        // Dernière ligne sans fin de ligne
+        if (!parseLine(buffer, lineStart, read, history) && !header) {
+          history.reject();
+        }
+        return history;
+      }
+      if (lineStart == 0) {
+        throw new IOException("Ligne de plus de " + BUFFER_SIZE + " octets à la position " + position);
+      }
+      position += lineStart;
+    }
+    return history;
+  }
+
+  /**
+   * Décode une ligne {@code [from, to)} et l'ajoute à l'historique.
+   *
+   * @return faux si la ligne est invalide (ou vide)
+   */
+  static boolean parseLine(ByteBuffer buffer, int from, int to, ConsumptionHistory history) {
+    if (to > from && buffer.get(to - 1) == '\r') {
+      to--;
+    }
+    int comma = from;
+    while (comma < to && buffer.get(comma) != ',') {
+      comma++;
+    }
+    // aaaa-mm-jj puis ',' puis au moins un chiffre
+    int date = comma + 1;
+    if (comma == from || to - date < 12 || buffer.get(date + 4) != '-' || buffer.get(date + 7) != '-'
+        || buffer.get(date + 10) != ',') {
+      return false;
+    }
+    int year = digits(buffer, date, 4);
+    int month = digits(buffer, date + 5, 2);
+    int day = digits(buffer, date + 8, 2);
+    int consumption = digits(buffer, date + 11, to - date - 11);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || consumption < 0) {
+      return false;
+    }
+    // Le 1er janvier 1970 était un jeudi
+    int dayOfWeek = (int) Math.floorMod(epochDay(year, month, day) + 3, 7L);
+    history.add(buffer, from, comma, dayOfWeek, consumption);
+    return true;
+  }
+
+  // Entier positif écrit sur count chiffres, ou -1
+  private static int digits(ByteBuffer buffer, int from, int count) {
+    if (count < 1 || count > 9) {
+      return -1;
+    }
+    int value = 0;
+    for (int i = from; i < from + count; i++) {
+      int digit = buffer.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static int daysInMonth(int year, int month) {
+    if (month == 2) {
+      boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+      return leap ? 29 : 28;
+    }
+    return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+  }
+
+  // Jour epoch d'une date du calendrier grégorien proleptique
+  static long epochDay(int year, int month, int day) {
+    long y = month <= 2 ? year - 1 : year;
+    long era = Math.floorDiv(y, 400);
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+}
@@ -0,0 +1,26 @@
+package com.olprog.yahourt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Conversion et validation d'une requête en paramètres de simulation.
+ */
+@Name("com.olprog.yahourt.ParamsConversion")
+@Label("Yogurt Params Conversion")
+@Category({ "Yogurt", "Service" })
+@Description("Conversion du DTO en paramètres de simulation")
+@StackTrace(false)
+public class ParamsConversionEvent extends Event {
+
+    @Label("Default Request")
+    @Description("Vrai si la requête n'avait pas de corps")
+    public boolean defaultRequest;
+
+    @Label("Valid")
+    public boolean valid;
+}
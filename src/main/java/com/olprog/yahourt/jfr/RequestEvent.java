@@ -0,0 +1,27 @@
+package com.olprog.yahourt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Traitement complet d'une requête HTTP, de sa réception à la réponse.
+ */
+@Name("com.olprog.yahourt.Request")
+@Label("Yogurt Request")
+@Category({ "Yogurt", "Web" })
+@Description("Requête d'optimisation reçue et traitée")
+@StackTrace(false)
+public class RequestEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Response Size")
+    @DataAmount
+    public long responseBytes;
+}
@@ -0,0 +1,24 @@
+package com.olprog.yahourt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Sérialisation JSON d'un résultat de simulation.
+ */
+@Name("com.olprog.yahourt.Serialization")
+@Label("Yogurt Serialization")
+@Category({ "Yogurt", "Service" })
+@Description("Écriture JSON d'un résultat de simulation")
+@StackTrace(false)
+public class SerializationEvent extends Event {
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
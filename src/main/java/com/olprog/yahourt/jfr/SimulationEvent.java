@@ -0,0 +1,44 @@
+package com.olprog.yahourt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Exécution d'une simulation de stock.
+ */
+@Name("com.olprog.yahourt.Simulation")
+@Label("Yogurt Simulation")
+@Category({ "Yogurt", "Service" })
+@Description("Simulation jour par jour du stock de yaourts")
+@StackTrace(false)
+public class SimulationEvent extends Event {
+
+    @Label("Start Date")
+    public String startDate;
+
+    @Label("Horizon")
+    @Description("Nombre de jours de l'année simulée")
+    public int horizon;
+
+    @Label("Days Simulated")
+    @Description("Jours effectivement simulés par cet appel, reprise de curseur exclue")
+    public int daysSimulated;
+
+    @Label("Recommendations")
+    public int recommendations;
+
+    @Label("Granularity")
+    public String granularity;
+
+    @Label("Resumed")
+    @Description("Vrai si la simulation reprend depuis un curseur")
+    public boolean resumed;
+
+    @Label("Failed")
+    @Description("Vrai si la simulation a échoué, par exemple sur un curseur invalide")
+    public boolean failed;
+}
@@ -0,0 +1,29 @@
+package com.olprog.yahourt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BacktestReport {
+  private int days;
+  private long totalDemand;
+  private long totalConsumed;
+  private int stockoutDays;
+  private long unmetDemand;
+  // Part de la demande servie
+  private double serviceLevel;
+  private int totalPurchases;
+  private long totalYogurtsPurchased;
+  private int averageStockLevel;
+  private int minimumStockLevel;
+  private int maximumStockLevel;
+  // Stock de fin de journée au-delà de la demande réelle des délai + 7 jours suivants
+  private double averageExcessStock;
+  private int maximumExcessStock;
+  private int finalStock;
+}
@@ -0,0 +1,61 @@
+package com.olprog.yahourt.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Exceptions au calendrier hebdomadaire (jours fériés, vacances) : consommation
+ * forcée pour certaines dates et dates sans livraison possible.
+ * <p>
+ * Les dates sont stockées en jours epoch dans des tableaux triés, pour que la
+ * simulation les parcoure avec un simple curseur.
+ */
+@Getter
+@EqualsAndHashCode
+public final class CalendarOverrides {
+
+  public static final CalendarOverrides NONE = new CalendarOverrides(new int[0], new int[0], new int[0]);
+
+  private final int[] consumptionDays;
+  private final int[] consumptionValues;
+  private final int[] blockedDeliveryDays;
+
+  private CalendarOverrides(int[] consumptionDays, int[] consumptionValues, int[] blockedDeliveryDays) {
+    this.consumptionDays = consumptionDays;
+    this.consumptionValues = consumptionValues;
+    this.blockedDeliveryDays = blockedDeliveryDays;
+  }
+
+  public static CalendarOverrides of(Map<LocalDate, Integer> consumptionOverrides,
+      Collection<LocalDate> blockedDeliveryDates) {
+    // Tri par date en une passe : (jour << 32 | valeur) ordonne d'abord sur le jour
+    long[] packed = new long[consumptionOverrides == null ? 0 : consumptionOverrides.size()];
+    int count = 0;
+    if (consumptionOverrides != null) {
+      for (Map.Entry<LocalDate, Integer> entry : consumptionOverrides.entrySet()) {
+        packed[count++] = (entry.getKey().toEpochDay() << 32) | (entry.getValue() & 0xFFFFFFFFL);
+      }
+    }
+    Arrays.sort(packed);
+    int[] days = new int[count];
+    int[] values = new int[count];
+    for (int i = 0; i < count; i++) {
+      days[i] = (int) (packed[i] >> 32);
+      values[i] = (int) packed[i];
+    }
+
+    int[] blocked = blockedDeliveryDates == null ? new int[0]
+        : blockedDeliveryDates.stream().mapToInt(date -> (int) date.toEpochDay()).sorted().distinct().toArray();
+
+    return new CalendarOverrides(days, values, blocked);
+  }
+
+  public boolean isEmpty() {
+    return consumptionDays.length == 0 && blockedDeliveryDays.length == 0;
+  }
+}
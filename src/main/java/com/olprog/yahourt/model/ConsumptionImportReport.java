@@ -0,0 +1,20 @@
+package com.olprog.yahourt.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionImportReport {
+  private List<HouseholdConsumptionProfile> profiles;
+  private long rows;
+  private long rejectedRows;
+  private long elapsedMillis;
+  private long rowsPerSecond;
+}
@@ -0,0 +1,47 @@
+package com.olprog.yahourt.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Coûts d'approvisionnement d'un foyer : prix du paquet, coût fixe par
+ * commande et coût de stockage d'un yaourt pendant un jour.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CostModel {
+  private double pricePerPack;
+  private double fixedOrderCost;
+  private double holdingCostPerUnitDay;
+
+  // Remises facultatives ; la plus forte quantité atteinte s'applique
+  private List<QuantityDiscount> quantityDiscounts;
+
+  /**
+   * Prix d'achat d'une commande de {@code packs} paquets, remise comprise
+   * (coût fixe exclu).
+   */
+  public double purchaseCost(int packs) {
+    double price = pricePerPack;
+    int threshold = 0;
+    if (quantityDiscounts != null) {
+      for (QuantityDiscount discount : quantityDiscounts) {
+        if (discount.getMinPacks() <= packs && discount.getMinPacks() > threshold) {
+          threshold = discount.getMinPacks();
+          price = discount.getPricePerPack();
+        }
+      }
+    }
+    return price * packs;
+  }
+
+  public boolean hasQuantityDiscounts() {
+    return quantityDiscounts != null && !quantityDiscounts.isEmpty();
+  }
+}
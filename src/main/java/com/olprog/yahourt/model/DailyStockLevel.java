@@ -2,6 +2,8 @@ package com.olprog.yahourt.model;
 
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +13,9 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+// Ordre figé : les booléens sont exposés par leurs getters isXxx(), dont l'ordre
+// de découverte par réflexion n'est pas garanti
+@JsonPropertyOrder({ "date", "stockLevel", "consumption", "deliveryDay", "purchaseDay" })
 public class DailyStockLevel {
   private LocalDate date;
   private int stockLevel;
@@ -0,0 +1,17 @@
+package com.olprog.yahourt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportReport {
+  private String file;
+  private long households;
+  private long dayRows;
+  private long bytes;
+}
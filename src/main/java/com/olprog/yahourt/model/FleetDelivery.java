@@ -0,0 +1,21 @@
+package com.olprog.yahourt.model;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetDelivery {
+  // Position du foyer dans la requête
+  private int household;
+  private LocalDate orderDate;
+  private LocalDate requestedDeliveryDate;
+  private LocalDate deliveryDate;
+  private int packs;
+}
@@ -0,0 +1,28 @@
+package com.olprog.yahourt.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetPlan {
+  // Livraisons planifiées par jour ; une commande partagée en a plusieurs
+  private List<FleetDelivery> deliveries;
+
+  private int orders;
+  private long packs;
+  private int shiftedOrders;
+  private int splitOrders;
+  private int lateOrders;
+  // Commandes livrées (en partie) après la rupture prévue du foyer
+  private int atRiskOrders;
+  private int maxDelayDays;
+  private long unconstrainedPeakDailyPacks;
+  private long peakDailyPacks;
+}
@@ -0,0 +1,10 @@
+package com.olprog.yahourt.model;
+
+/**
+ * Niveau d'agrégation de la série de stock renvoyée par la simulation.
+ */
+public enum Granularity {
+  DAY,
+  WEEK,
+  MONTH
+}
@@ -0,0 +1,31 @@
+package com.olprog.yahourt.model;
+
+import java.time.DayOfWeek;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HouseholdConsumptionProfile {
+  private String householdId;
+
+  // Moyennes arrondies, directement utilisables pour la simulation
+  private ConsumptionProfile consumptionProfile;
+
+  // Nombre de jours relevés par jour de la semaine
+  private Map<DayOfWeek, Long> days;
+
+  private Map<DayOfWeek, Double> mean;
+
+  // Variance (échantillon) par jour de la semaine, sur demande uniquement
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Map<DayOfWeek, Double> variance;
+}
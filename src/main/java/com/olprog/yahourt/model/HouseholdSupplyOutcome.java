@@ -0,0 +1,24 @@
+package com.olprog.yahourt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Commandes d'un foyer servies par l'entrepôt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HouseholdSupplyOutcome {
+  // Position du foyer dans la requête
+  private int household;
+  private String householdId;
+  private int orders;
+  // Commandes servies partiellement ou pas du tout
+  private int unmetOrders;
+  private long requestedYogurts;
+  private long shippedYogurts;
+}
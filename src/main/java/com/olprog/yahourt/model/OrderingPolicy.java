@@ -0,0 +1,11 @@
+package com.olprog.yahourt.model;
+
+/**
+ * Politique de commande appliquée par la simulation.
+ */
+public enum OrderingPolicy {
+  // Règle fixe : couvrir le délai de livraison plus une semaine
+  RULE,
+  // Plan de commandes de coût minimal sur l'horizon, selon le modèle de coûts
+  COST_OPTIMAL
+}
@@ -0,0 +1,19 @@
+package com.olprog.yahourt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Remise sur quantité : à partir de {@code minPacks} paquets dans une même
+ * commande, tous les paquets sont facturés {@code pricePerPack}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuantityDiscount {
+  private int minPacks;
+  private double pricePerPack;
+}
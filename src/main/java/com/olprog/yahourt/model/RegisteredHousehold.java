@@ -0,0 +1,21 @@
+package com.olprog.yahourt.model;
+
+import java.time.DayOfWeek;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegisteredHousehold {
+  private int id;
+  private int currentStock;
+  private int deliveryDelay;
+  private int packSize;
+  private DayOfWeek purchaseDay;
+  private ConsumptionProfile consumptionProfile;
+}
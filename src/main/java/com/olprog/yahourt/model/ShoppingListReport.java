@@ -0,0 +1,22 @@
+package com.olprog.yahourt.model;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoppingListReport {
+  private LocalDate date;
+  // Foyers dont c'est le jour d'achat, et ceux qui doivent commander
+  private int households;
+  private int orders;
+  private long packs;
+  private long yogurts;
+  private long elapsedMillis;
+}
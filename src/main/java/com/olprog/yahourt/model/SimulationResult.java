@@ -2,6 +2,8 @@ package com.olprog.yahourt.model;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,6 +16,20 @@ import lombok.NoArgsConstructor;
 public class SimulationResult {
 
   private List<PurchaseRecommendation> purchaseRecommendations;
+  // Absentes lorsqu'une granularité plus grossière que le jour est demandée
+  @JsonInclude(JsonInclude.Include.NON_NULL)
   private List<DailyStockLevel> dailyStockLevels;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private List<StockBucket> stockBuckets;
+
   private SimulationSummary summary;
+
+  // Détail par référence, présent uniquement en simulation multi-références
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private List<SkuResult> skus;
+
+  // Curseur de la page suivante, absent sur la dernière page
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String nextCursor;
 }
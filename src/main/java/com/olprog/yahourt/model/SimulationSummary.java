@@ -1,5 +1,7 @@
 package com.olprog.yahourt.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,4 +19,16 @@ public class SimulationSummary {
   private int minimumStockLevel;
   private int maximumStockLevel;
   private double averagePacksToBuy;
+
+  // Vrai lorsque la simulation s'est arrêtée avant la fin de l'année
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  private boolean partial;
+
+  // Yaourts jetés à péremption, absent sans durée de conservation
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  private int expiredYogurts;
+
+  // Coût total du plan (achats, commandes, stockage), absent sans modèle de coûts
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Double totalCost;
 }
@@ -0,0 +1,21 @@
+package com.olprog.yahourt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Référence de yaourt (parfum, format) simulée avec les autres : jour d'achat
+ * et livraison communs, stock et consommation propres.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Sku {
+  private String id;
+  private int initialStock;
+  private int packSize;
+  private ConsumptionProfile consumptionProfile;
+}
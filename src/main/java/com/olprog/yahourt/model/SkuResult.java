@@ -0,0 +1,18 @@
+package com.olprog.yahourt.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuResult {
+  private String skuId;
+  private List<PurchaseRecommendation> purchaseRecommendations;
+  private SimulationSummary summary;
+}
@@ -0,0 +1,24 @@
+package com.olprog.yahourt.model;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBucket {
+  private LocalDate periodStart;
+  private LocalDate periodEnd;
+  private int days;
+  private int minimumStockLevel;
+  private double averageStockLevel;
+  private int maximumStockLevel;
+  private int totalConsumption;
+  private int deliveries;
+  private int stockoutDays;
+}
@@ -2,6 +2,7 @@ package com.olprog.yahourt.model;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.List;
 
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -32,6 +33,34 @@ public class StockSimulationParams {
   @NotNull(message = "Le profil de consommation ne peut pas être nul")
   private ConsumptionProfile consumptionProfile;
 
+  // Jours fériés, vacances : null ou vide si le profil hebdomadaire suffit
+  private CalendarOverrides calendarOverrides;
+
+  // Agrégation de la série de stock, jour par défaut
+  private Granularity granularity;
+
+  // Fenêtre restituée (bornes incluses) : la simulation s'arrête après windowEnd
+  private LocalDate windowStart;
+  private LocalDate windowEnd;
+
+  // Nombre maximal de jours (ou de semaines, de mois selon la granularité)
+  // restitués par page, et curseur de reprise
+  private Integer pageSize;
+  private String cursor;
+
+  // Durée de conservation d'un lot livré, en jours ; null si les yaourts ne périment pas
+  private Integer shelfLifeDays;
+
+  // Plusieurs références simulées ensemble : remplacent alors initialStock,
+  // packSize et consumptionProfile
+  private List<Sku> skus;
+
+  // Coûts d'approvisionnement : null si la simulation ne chiffre pas le plan
+  private CostModel costModel;
+
+  // Règle fixe si null
+  private OrderingPolicy policy;
+
   public static StockSimulationParams createDefault() {
     return StockSimulationParams.builder()
         .startDate(LocalDate.of(2025, 1, 5))
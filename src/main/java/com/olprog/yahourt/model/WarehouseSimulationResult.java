@@ -0,0 +1,24 @@
+package com.olprog.yahourt.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseSimulationResult {
+  // Stock de l'entrepôt par jour ; consumption = yaourts commandés par les foyers
+  private List<DailyStockLevel> dailyStockLevels;
+
+  // Réapprovisionnements de l'entrepôt, en lots
+  private List<PurchaseRecommendation> replenishments;
+
+  private WarehouseSummary summary;
+
+  private List<HouseholdSupplyOutcome> households;
+}
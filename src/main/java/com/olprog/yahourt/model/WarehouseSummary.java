@@ -0,0 +1,28 @@
+package com.olprog.yahourt.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseSummary {
+  private int households;
+  private int householdOrders;
+  private int unmetOrders;
+  private long requestedYogurts;
+  private long shippedYogurts;
+  private long unmetYogurts;
+  // Part des yaourts demandés effectivement expédiés
+  private double fillRate;
+  // Jours où au moins une commande n'a pas été entièrement servie
+  private int stockoutDays;
+  private long averageStockLevel;
+  private int replenishments;
+  // Règle appliquée, fournie ou déduite de la demande
+  private long reorderPoint;
+  private long orderUpTo;
+}
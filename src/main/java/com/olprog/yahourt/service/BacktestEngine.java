@@ -0,0 +1,150 @@
+package com.olprog.yahourt.service;
+
+import java.time.DayOfWeek;
+
+import com.olprog.yahourt.model.BacktestReport;
+import com.olprog.yahourt.model.ConsumptionProfile;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Rejoue la règle de commande de {@link SimulationEngine} sur une série de
+ * consommation réelle, jour par jour, de longueur quelconque : les commandes
+ * sont toujours décidées sur le profil hebdomadaire, mais c'est la série qui
+ * est consommée.
+ * <p>
+ * La mémoire est bornée par le délai de livraison : livraisons attendues,
+ * stocks et demandes récents sont gardés dans des tampons circulaires.
+ * <p>
+ * Le stock excédentaire d'un jour est son stock de fin de journée au-delà de
+ * la demande réelle des {@code délai + 7} jours suivants, l'horizon que la
+ * règle cherche à couvrir ; il n'est évalué que pour les jours dont cette
+ * fenêtre est entièrement connue.
+ */
+final class BacktestEngine {
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+
+    private final int purchaseDay;
+    private final int deliveryDelay;
+    private final int packSize;
+    private final int[] weeklyConsumption = new int[7];
+    private final int weeklyTotal;
+
+    // Livraisons attendues, indexées par jour modulo (délai + 1)
+    private final int[] incoming;
+
+    // Fenêtre de la demande réelle des jours suivants, pour le stock excédentaire
+    private final int excessWindow;
+    private final int[] recentDemands;
+    private final int[] recentStocks;
+    private long windowDemand;
+
+    private int day;
+    private int days;
+    private int stock;
+
+    private long totalDemand;
+    private long totalConsumed;
+    private int stockoutDays;
+    private int totalPurchases;
+    private long totalYogurtsPurchased;
+    private long sumStockLevels;
+    private int minStockLevel = Integer.MAX_VALUE;
+    private int maxStockLevel = Integer.MIN_VALUE;
+    private long sumExcessStock;
+    private int excessDays;
+    private int maxExcessStock;
+
+    BacktestEngine(StockSimulationParams params) {
+        this.day = (int) params.getStartDate().toEpochDay();
+        this.stock = params.getInitialStock();
+        this.deliveryDelay = params.getDeliveryDelay();
+        this.packSize = params.getPackSize();
+        this.purchaseDay = params.getPurchaseDay().ordinal();
+        ConsumptionProfile profile = params.getConsumptionProfile();
+        int total = 0;
+        for (DayOfWeek dayOfWeek : DAYS) {
+            weeklyConsumption[dayOfWeek.ordinal()] = profile.getConsumptionForDay(dayOfWeek);
+            total += weeklyConsumption[dayOfWeek.ordinal()];
+        }
+        this.weeklyTotal = total;
+        this.incoming = new int[deliveryDelay + 1];
+        this.excessWindow = deliveryDelay + 7;
+        this.recentDemands = new int[excessWindow];
+        this.recentStocks = new int[excessWindow + 1];
+    }
+
+    /**
+     * Simule le jour suivant avec sa consommation réelle.
+     */
+    void accept(int demand) {
+        int dayOfWeek = SimulationEngine.dayOfWeek(day);
+
+        // Livraison prévue ce jour
+        int slot = Math.floorMod(day, incoming.length);
+        int delivered = incoming[slot];
+        incoming[slot] = 0;
+        stock += delivered;
+        totalYogurtsPurchased += delivered;
+
+        sumStockLevels += stock;
+        minStockLevel = Math.min(minStockLevel, stock);
+        maxStockLevel = Math.max(maxStockLevel, stock);
+
+        // Même règle que la simulation : projection du profil sur délai + 7 jours
+        if (dayOfWeek == purchaseDay) {
+            int projected = SimulationEngine.weeklyProjection(weeklyConsumption, weeklyTotal, dayOfWeek,
+                    deliveryDelay + 7);
+            int packsToBuy = SimulationEngine.packsToBuy(projected, stock, packSize);
+            if (packsToBuy > 0) {
+                incoming[Math.floorMod(day + deliveryDelay, incoming.length)] += packsToBuy * packSize;
+                totalPurchases++;
+            }
+        }
+
+        int consumed = Math.min(stock, demand);
+        stock -= consumed;
+        totalDemand += demand;
+        totalConsumed += consumed;
+        if (consumed < demand) {
+            stockoutDays++;
+        }
+
+        trackExcess(demand);
+        day++;
+        days++;
+    }
+
+    private void trackExcess(int demand) {
+        // La demande du jour complète la fenêtre du jour situé excessWindow jours plus tôt
+        int demandSlot = days % excessWindow;
+        windowDemand += demand - recentDemands[demandSlot];
+        recentDemands[demandSlot] = demand;
+        if (days >= excessWindow) {
+            int excess = (int) Math.max(0, recentStocks[(days - excessWindow) % recentStocks.length] - windowDemand);
+            sumExcessStock += excess;
+            maxExcessStock = Math.max(maxExcessStock, excess);
+            excessDays++;
+        }
+        recentStocks[days % recentStocks.length] = stock;
+    }
+
+    BacktestReport report() {
+        return BacktestReport.builder()
+                .days(days)
+                .totalDemand(totalDemand)
+                .totalConsumed(totalConsumed)
+                .stockoutDays(stockoutDays)
+                .unmetDemand(totalDemand - totalConsumed)
+                .serviceLevel(totalDemand == 0 ? 1 : (double) totalConsumed / totalDemand)
+                .totalPurchases(totalPurchases)
+                .totalYogurtsPurchased(totalYogurtsPurchased)
+                .averageStockLevel(days > 0 ? (int) (sumStockLevels / days) : 0)
+                .minimumStockLevel(minStockLevel == Integer.MAX_VALUE ? 0 : minStockLevel)
+                .maximumStockLevel(maxStockLevel == Integer.MIN_VALUE ? 0 : maxStockLevel)
+                .averageExcessStock(excessDays > 0 ? (double) sumExcessStock / excessDays : 0)
+                .maximumExcessStock(maxExcessStock)
+                .finalStock(stock)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.olprog.yahourt.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DayOfWeek;
+
+import org.springframework.stereotype.Service;
+
+import com.olprog.yahourt.dto.BacktestRequestDto;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.BacktestReport;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Évalue la règle de commande sur une consommation réelle passée, fournie en
+ * tableau ou en flux texte (entiers séparés par des virgules, espaces ou fins
+ * de ligne). Le flux est décodé au fil de la lecture : la série n'est jamais
+ * gardée en mémoire.
+ */
+@Service
+public class BacktestService {
+
+    private final YogurtOptimizationService optimizationService;
+
+    public BacktestService(YogurtOptimizationService optimizationService) {
+        this.optimizationService = optimizationService;
+    }
+
+    public BacktestReport backtest(BacktestRequestDto request) {
+        if (request == null || request.getActualConsumption() == null || request.getActualConsumption().length == 0) {
+            throw new ValidationException("La série de consommation réelle ne peut pas être vide");
+        }
+        BacktestEngine engine = new BacktestEngine(toParams(request));
+        int[] series = request.getActualConsumption();
+        for (int i = 0; i < series.length; i++) {
+            if (series[i] < 0) {
+                throw new ValidationException("Consommation négative au jour " + i);
+            }
+            engine.accept(series[i]);
+        }
+        return engine.report();
+    }
+
+    public BacktestReport backtest(BacktestRequestDto request, InputStream series) throws IOException {
+        BacktestEngine engine = new BacktestEngine(toParams(request));
+        byte[] buffer = new byte[64 * 1024];
+        int value = 0;
+        boolean inNumber = false;
+        int days = 0;
+        for (int read = series.read(buffer); read >= 0; read = series.read(buffer)) {
+            for (int i = 0; i < read; i++) {
+                int digit = buffer[i] - '0';
+                if (digit >= 0 && digit <= 9) {
+                    if (value > (Integer.MAX_VALUE - digit) / 10) {
+                        throw new ValidationException("Consommation trop grande au jour " + days);
+                    }
+                    value = value * 10 + digit;
+                    inNumber = true;
+                } else if (buffer[i] == ',' || buffer[i] == ';' || Character.isWhitespace(buffer[i])) {
+                    if (inNumber) {
+                        engine.accept(value);
+                        days++;
+                        value = 0;
+                        inNumber = false;
+                    }
+                } else {
+                    throw new ValidationException("Caractère invalide dans la série au jour " + days);
+                }
+            }
+        }
+        if (inNumber) {
+            engine.accept(value);
+            days++;
+        }
+        if (days == 0) {
+            throw new ValidationException("La série de consommation réelle ne peut pas être vide");
+        }
+        return engine.report();
+    }
+
+    private StockSimulationParams toParams(BacktestRequestDto request) {
+        if (request == null || request.getStartDate() == null) {
+            throw new ValidationException("La date de début de la série est requise");
+        }
+        // Même conversion que /optimize pour la politique de commande
+        StockSimulationParams params = optimizationService.convertRequestToParams(OptimizationRequestDto.builder()
+                .householdId(request.getHouseholdId())
+                .initialStock(request.getInitialStock())
+                .deliveryDelay(request.getDeliveryDelay())
+                .packSize(request.getPackSize())
+                .dailyConsumption(request.getDailyConsumption())
+                .build());
+        params.setStartDate(request.getStartDate());
+        if (request.getPurchaseDay() != null) {
+            DayOfWeek purchaseDay = WeekDays.parse(request.getPurchaseDay());
+            if (purchaseDay == null) {
+                throw new ValidationException("Jour d'achat invalide: " + request.getPurchaseDay());
+            }
+            params.setPurchaseDay(purchaseDay);
+        }
+        StockSimulationParamsValidator.validate(params);
+        return params;
+    }
+}
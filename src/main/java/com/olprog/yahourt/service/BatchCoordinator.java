@@ -0,0 +1,176 @@
+package com.olprog.yahourt.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+
+/**
+ * Coordonne l'exécution d'un grand lot de scénarios : le lot est découpé en
+ * shards envoyés aux workers (d'autres instances du même jar) via
+ * {@code POST /api/yogurt/batch/shard}. Un shard en échec est renvoyé au
+ * worker suivant ; après {@code maxAttempts} échecs, il est exécuté
+ * localement. Les résultats sont écrits dans l'ordre du lot, au fur et à
+ * mesure : seuls les shards de la fenêtre en cours sont gardés en mémoire.
+ * Le début du tableau étant déjà envoyé, un shard qui échoue quand même
+ * devient une erreur par scénario plutôt qu'une réponse tronquée.
+ * <p>
+ * Sans worker configuré, les shards sont exécutés localement, sur les
+ * threads de la voie lourde ({@link WorkloadLanes#bulkWorkers()}) : un lot
+ * ne prend pas plus que la part de CPU de cette voie.
+ */
+@Service
+public class BatchCoordinator {
+
+    static final String SHARD_PATH = "/api/yogurt/batch/shard";
+
+    private static final Logger log = LoggerFactory.getLogger(BatchCoordinator.class);
+
+    private final BatchShardExecutor shardExecutor;
+    private final ObjectMapper objectMapper;
+    private final List<URI> workers;
+    private final int shardSize;
+    private final int maxAttempts;
+    private final int window;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+    private final ExecutorService localExecutor;
+
+    @Autowired
+    public BatchCoordinator(BatchShardExecutor shardExecutor, ObjectMapper objectMapper,
+            WorkloadLanes workloadLanes,
+            @Value("${yogurt.batch.workers:}") List<String> workers,
+            @Value("${yogurt.batch.shard-size:500}") int shardSize,
+            @Value("${yogurt.batch.max-attempts:3}") int maxAttempts,
+            @Value("${yogurt.batch.shards-per-worker:2}") int shardsPerWorker,
+            @Value("${yogurt.batch.timeout:PT5M}") Duration timeout) {
+        this.shardExecutor = shardExecutor;
+        this.objectMapper = objectMapper;
+        this.workers = new ArrayList<>();
+        for (String worker : workers) {
+            if (!worker.isBlank()) {
+                this.workers.add(URI.create(worker.strip().replaceAll("/+$", "") + SHARD_PATH));
+            }
+        }
+        this.shardSize = Math.max(1, shardSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        int slots = this.workers.isEmpty() ? workloadLanes.bulkParallelism() : this.workers.size();
+        this.window = Math.max(1, slots * Math.max(1, shardsPerWorker));
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.localExecutor = workloadLanes.bulkWorkers();
+    }
+
+    /**
+     * Exécute le lot et écrit un tableau JSON de résultats, dans l'ordre des
+     * scénarios.
+     */
+    public void run(List<OptimizationRequestDto> scenarios, OutputStream out) throws IOException {
+        if (scenarios == null) {
+            throw new ValidationException("Le lot de scénarios ne peut pas être nul");
+        }
+        int shardCount = (scenarios.size() + shardSize - 1) / shardSize;
+        List<CompletableFuture<byte[]>> shards = new ArrayList<>(shardCount);
+
+        out.write('[');
+        boolean empty = true;
+        for (int i = 0; i < shardCount; i++) {
+            // Garder au plus "window" shards en cours d'exécution ou en attente d'écriture
+            while (shards.size() < shardCount && shards.size() < i + window) {
+                int shard = shards.size();
+                List<OptimizationRequestDto> slice = scenarios.subList(shard * shardSize,
+                        Math.min(scenarios.size(), (shard + 1) * shardSize));
+                shards.add(dispatch(shard, slice));
+            }
+
+            byte[] result;
+            try {
+                result = await(shards.get(i));
+            } catch (RuntimeException e) {
+                log.error("Shard {} en échec, scénarios signalés en erreur", i, e);
+                int scenarioCount = Math.min(scenarios.size(), (i + 1) * shardSize) - i * shardSize;
+                result = shardExecutor.failed(scenarioCount, "Exécution du scénario impossible");
+            }
+            shards.set(i, null);
+            // Fusion : contenu du tableau du shard, sans ses crochets
+            if (result.length > 2) {
+                if (!empty) {
+                    out.write(',');
+                }
+                out.write(result, 1, result.length - 2);
+                empty = false;
+            }
+        }
+        out.write(']');
+        out.flush();
+    }
+
+    private CompletableFuture<byte[]> dispatch(int shard, List<OptimizationRequestDto> slice) {
+        if (workers.isEmpty()) {
+            return CompletableFuture.supplyAsync(() -> shardExecutor.execute(slice), localExecutor);
+        }
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(slice);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return send(shard, slice, body, 0);
+    }
+
+    private CompletableFuture<byte[]> send(int shard, List<OptimizationRequestDto> slice, byte[] body,
+            int attempt) {
+        if (attempt >= maxAttempts) {
+            log.warn("Shard {} en échec après {} tentatives, exécution locale", shard, maxAttempts);
+            return CompletableFuture.supplyAsync(() -> shardExecutor.execute(slice), localExecutor);
+        }
+        // Chaque nouvelle tentative part sur le worker suivant
+        URI worker = workers.get((shard + attempt) % workers.size());
+        HttpRequest request = HttpRequest.newBuilder(worker)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure == null && response.statusCode() == 200) {
+                        return CompletableFuture.completedFuture(response.body());
+                    }
+                    log.warn("Shard {} en échec sur {} (tentative {}) : {}", shard, worker, attempt + 1,
+                            failure != null ? failure.toString() : "HTTP " + response.statusCode());
+                    return send(shard, slice, body, attempt + 1);
+                })
+                .thenCompose(future -> future);
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.olprog.yahourt.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Exécute un lot (shard) de scénarios dans ce processus. Le résultat est un
+ * tableau JSON, dans l'ordre des scénarios : un résultat de simulation par
+ * scénario valide, {@code {"error": "..."}} pour un scénario refusé, afin
+ * qu'un seul scénario invalide ne fasse pas échouer tout le lot.
+ */
+@Component
+public class BatchShardExecutor {
+
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    private final YogurtOptimizationService optimizationService;
+    private final SimulationResultSerializer serializer;
+    private final ObjectMapper objectMapper;
+
+    public BatchShardExecutor(YogurtOptimizationService optimizationService,
+            SimulationResultSerializer serializer,
+            ObjectMapper objectMapper) {
+        this.optimizationService = optimizationService;
+        this.serializer = serializer;
+        this.objectMapper = objectMapper;
+    }
+
+    public byte[] execute(List<OptimizationRequestDto> scenarios) {
+        // Tampon initial modeste : il grandit avec les résultats, rien n'est réservé par scénario
+        ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER);
+        out.write('[');
+        for (int i = 0; i < scenarios.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(executeOne(scenarios.get(i)));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    /**
+     * Tableau d'erreurs pour un shard qui n'a pas pu être exécuté : une entrée
+     * par scénario, pour que le tableau du lot reste complet et bien formé.
+     */
+    byte[] failed(int scenarios, String message) {
+        byte[] error = error(message);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(scenarios * (error.length + 1) + 1);
+        out.write('[');
+        for (int i = 0; i < scenarios; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(error);
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private byte[] executeOne(OptimizationRequestDto scenario) {
+        try {
+            StockSimulationParams params = optimizationService.convertRequestToParams(scenario);
+            SimulationResult result = optimizationService.simulateYogurtStockForYear(params);
+            return serializer.serialize(result);
+        } catch (ValidationException e) {
+            return error(e.getMessage());
+        }
+    }
+
+    private byte[] error(String message) {
+        try {
+            return objectMapper.writeValueAsBytes(Map.of("error", message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sérialisation de l'erreur impossible", e);
+        }
+    }
+}
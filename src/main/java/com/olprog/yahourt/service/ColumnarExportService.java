@@ -0,0 +1,146 @@
+package com.olprog.yahourt.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.olprog.yahourt.dto.ExportRequestDto;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.export.ColumnarExportWriter;
+import com.olprog.yahourt.model.ExportReport;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Exporte les simulations d'un grand nombre de foyers dans un fichier
+ * colonnaire. Chaque foyer est simulé puis écrit au fil de l'eau : ni la
+ * série quotidienne ni les résultats des foyers précédents ne sont gardés en
+ * mémoire. Un export ne remplace jamais un fichier existant : il est écrit
+ * sous un nom temporaire, puis publié sous son nom une fois complet.
+ */
+@Service
+public class ColumnarExportService {
+
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+
+    private final YogurtOptimizationService optimizationService;
+    private final Path directory;
+    private final int chunkRows;
+
+    public ColumnarExportService(YogurtOptimizationService optimizationService,
+            @Value("${yogurt.export.directory:${java.io.tmpdir}/yogurt-exports}") Path directory,
+            @Value("${yogurt.export.chunk-rows:65536}") int chunkRows) {
+        this.optimizationService = optimizationService;
+        this.directory = directory;
+        this.chunkRows = chunkRows;
+    }
+
+    public ExportReport export(ExportRequestDto request) {
+        if (request == null || request.getHouseholds() == null || request.getHouseholds().isEmpty()) {
+            throw new ValidationException("Au moins un foyer est requis");
+        }
+        String fileName = request.getFileName() != null ? request.getFileName()
+                : "export-" + UUID.randomUUID() + ".yogc";
+        if (!FILE_NAME.matcher(fileName).matches()) {
+            throw new ValidationException("Nom de fichier d'export invalide: " + fileName);
+        }
+        Path file = directory.resolve(fileName);
+        if (Files.exists(file)) {
+            throw new ValidationException("Le fichier d'export existe déjà: " + fileName);
+        }
+
+        // Tous les foyers sont validés avant la première simulation, sans garder leurs paramètres
+        List<OptimizationRequestDto> households = request.getHouseholds();
+        validate(households);
+
+        // Écrit sous un nom temporaire, inaccessible aux clients (point initial),
+        // puis publié seulement une fois complet
+        Path temporary = directory.resolve("." + fileName + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            long householdCount;
+            long dayRows;
+            try (ColumnarExportWriter writer = new ColumnarExportWriter(temporary, chunkRows)) {
+                for (int i = 0; i < households.size(); i++) {
+                    writer.summary(i, optimizationService.simulateYogurtStockForYear(convert(households.get(i)),
+                            writer.household(i)));
+                }
+                householdCount = writer.getHouseholds();
+                dayRows = writer.getDayRows();
+            }
+            publish(temporary, file);
+            return ExportReport.builder()
+                    .file(file.toString())
+                    .households(householdCount)
+                    .dayRows(dayRows)
+                    .bytes(Files.size(file))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export impossible: " + file, e);
+        } finally {
+            // Un export incomplet ou non publié n'est pas conservé
+            deleteQuietly(temporary);
+        }
+    }
+
+    private void validate(List<OptimizationRequestDto> households) {
+        List<String> violations = null;
+        for (int i = 0; i < households.size(); i++) {
+            try {
+                convert(households.get(i));
+            } catch (ValidationException e) {
+                if (violations == null) {
+                    violations = new ArrayList<>();
+                }
+                for (String violation : e.getViolations()) {
+                    violations.add("[" + i + "] " + violation);
+                }
+            }
+        }
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
+    }
+
+    private StockSimulationParams convert(OptimizationRequestDto household) {
+        StockSimulationParams params = optimizationService.convertRequestToParams(household);
+        // L'export porte sur toute la fenêtre, sans pagination
+        params.setPageSize(null);
+        params.setCursor(null);
+        StockSimulationParamsValidator.validate(params);
+        return params;
+    }
+
+    /**
+     * Publie le fichier terminé sans jamais écraser un export existant : le
+     * lien physique échoue si la cible existe, sans fenêtre de concurrence.
+     */
+    private static void publish(Path temporary, Path file) throws IOException {
+        try {
+            Files.createLink(file, temporary);
+        } catch (FileAlreadyExistsException e) {
+            throw new ValidationException("Le fichier d'export existe déjà: " + file.getFileName());
+        } catch (UnsupportedOperationException e) {
+            // Système de fichiers sans liens physiques : renommage atomique
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Rien de plus à faire : un fichier temporaire n'est jamais lu
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.olprog.yahourt.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.olprog.yahourt.history.ConsumptionHistory;
+import com.olprog.yahourt.history.ConsumptionHistoryParser;
+import com.olprog.yahourt.model.ConsumptionImportReport;
+import com.olprog.yahourt.model.ConsumptionProfile;
+import com.olprog.yahourt.model.HouseholdConsumptionProfile;
+
+/**
+ * Construit les profils de consommation des foyers à partir de leur historique
+ * CSV. Le fichier est découpé en plages lues en parallèle, chacune agrégée
+ * dans sa propre table ; les tables sont fusionnées à la fin.
+ */
+@Service
+public class ConsumptionImportService {
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public ConsumptionImportService(WorkloadLanes workloadLanes,
+            @Value("${yogurt.import.parallelism:0}") int parallelism) {
+        // Plages lues par les threads de la voie lourde, dans sa part de CPU
+        this.parallelism = parallelism > 0 ? parallelism : workloadLanes.bulkParallelism();
+        this.executor = workloadLanes.bulkWorkers();
+    }
+
+    /**
+     * Importe un historique reçu en flux : il est d'abord copié dans un fichier
+     * temporaire, pour pouvoir être découpé et lu en parallèle.
+     */
+    public ConsumptionImportReport importHistory(InputStream csv, boolean withVariance) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("consumption-history-", ".csv");
+            Files.copy(csv, file, StandardCopyOption.REPLACE_EXISTING);
+            return importHistory(file, withVariance);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de l'historique impossible", e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // Fichier temporaire : rien de plus à faire
+                }
+            }
+        }
+    }
+
+    public ConsumptionImportReport importHistory(Path csv, boolean withVariance) throws IOException {
+        long started = System.nanoTime();
+        ConsumptionHistory history;
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            // Inutile de découper un petit fichier
+            int parts = (int) Math.max(1, Math.min(parallelism, channel.size() / (1 << 20)));
+            long[] bounds = ConsumptionHistoryParser.split(channel, parts);
+
+            List<CompletableFuture<ConsumptionHistory>> tasks = new ArrayList<>(parts);
+            for (int i = 0; i < parts; i++) {
+                long start = bounds[i];
+                long end = bounds[i + 1];
+                tasks.add(CompletableFuture.supplyAsync(() -> parse(channel, start, end), executor));
+            }
+            history = tasks.get(0).join();
+            for (int i = 1; i < parts; i++) {
+                history.merge(tasks.get(i).join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+        long elapsedNanos = Math.max(1, System.nanoTime() - started);
+
+        List<HouseholdConsumptionProfile> profiles = new ArrayList<>(history.households());
+        for (int household = 0; household < history.households(); household++) {
+            profiles.add(profile(history, household, withVariance));
+        }
+        profiles.sort(Comparator.comparing(HouseholdConsumptionProfile::getHouseholdId));
+
+        return ConsumptionImportReport.builder()
+                .profiles(profiles)
+                .rows(history.rows())
+                .rejectedRows(history.rejectedRows())
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond((history.rows() + history.rejectedRows()) * 1_000_000_000L / elapsedNanos)
+                .build();
+    }
+
+    private static ConsumptionHistory parse(FileChannel channel, long start, long end) {
+        try {
+            return ConsumptionHistoryParser.parse(channel, start, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static HouseholdConsumptionProfile profile(ConsumptionHistory history, int household,
+            boolean withVariance) {
+        Map<DayOfWeek, Integer> consumption = new EnumMap<>(DayOfWeek.class);
+        Map<DayOfWeek, Long> days = new EnumMap<>(DayOfWeek.class);
+        Map<DayOfWeek, Double> means = new EnumMap<>(DayOfWeek.class);
+        Map<DayOfWeek, Double> variances = withVariance ? new EnumMap<>(DayOfWeek.class) : null;
+
+        for (DayOfWeek day : DAYS) {
+            long count = history.count(household, day.ordinal());
+            double mean = count == 0 ? 0 : (double) history.sum(household, day.ordinal()) / count;
+            consumption.put(day, (int) Math.round(mean));
+            days.put(day, count);
+            means.put(day, mean);
+            if (variances != null) {
+                // Variance d'échantillon, nulle avec moins de deux relevés
+                double variance = count < 2 ? 0
+                        : (history.sumOfSquares(household, day.ordinal()) - mean * history.sum(household,
+                                day.ordinal())) / (count - 1);
+                variances.put(day, Math.max(0, variance));
+            }
+        }
+
+        return HouseholdConsumptionProfile.builder()
+                .householdId(history.householdId(household))
+                .consumptionProfile(ConsumptionProfile.builder().dailyConsumption(consumption).build())
+                .days(days)
+                .mean(means)
+                .variance(variances)
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.olprog.yahourt.service;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.olprog.yahourt.dto.ConsumptionEventDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.ConsumptionProfile;
+
+/**
+ * Apprend en continu le profil hebdomadaire de chaque foyer à partir de sa
+ * consommation réelle : moyenne mobile exponentielle par jour de la semaine.
+ * <p>
+ * Chaque foyer a un {@link AtomicLongArray} de 7 moyennes (bits d'un
+ * {@code double}, NaN tant qu'aucun relevé n'est arrivé) mis à jour par
+ * compare-and-set, sans verrou : des événements concurrents pour un même foyer
+ * ne se bloquent pas et aucun n'est perdu.
+ * <p>
+ * Le nombre de foyers suivis est borné : au-delà de {@code maxHouseholds}, les
+ * foyers mis à jour le moins récemment sont oubliés, par lots d'un dixième de
+ * la limite pour que l'éviction reste rare.
+ */
+@Component
+public class ConsumptionProfileLearner {
+
+    static final double DEFAULT_ALPHA = 0.2;
+    static final int DEFAULT_MAX_HOUSEHOLDS = 100_000;
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+    private static final long UNSET = Double.doubleToRawLongBits(Double.NaN);
+    // Après les 7 moyennes : instant de la dernière mise à jour (System.nanoTime)
+    private static final int LAST_UPDATE = 7;
+
+    private final double alpha;
+    private final int maxHouseholds;
+    private final ConcurrentHashMap<String, AtomicLongArray> averages = new ConcurrentHashMap<>();
+
+    ConsumptionProfileLearner(double alpha) {
+        this(alpha, DEFAULT_MAX_HOUSEHOLDS);
+    }
+
+    @Autowired
+    public ConsumptionProfileLearner(@Value("${yogurt.learning.alpha:0.2}") double alpha,
+            @Value("${yogurt.learning.max-households:100000}") int maxHouseholds) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("Le facteur de lissage doit être dans ]0, 1]");
+        }
+        if (maxHouseholds < 1) {
+            throw new IllegalArgumentException("Le nombre maximal de foyers suivis doit être positif");
+        }
+        this.alpha = alpha;
+        this.maxHouseholds = maxHouseholds;
+    }
+
+    /**
+     * Enregistre un lot d'événements. Le lot est validé en entier avant d'être
+     * appliqué : les erreurs sont toutes signalées, avec leur position.
+     *
+     * @return le nombre d'événements appliqués
+     */
+    public int record(List<ConsumptionEventDto> events) {
+        if (events == null) {
+            throw new ValidationException("La liste des événements ne peut pas être nulle");
+        }
+        List<String> violations = null;
+        for (int i = 0; i < events.size(); i++) {
+            String error = validate(events.get(i));
+            if (error != null) {
+                if (violations == null) {
+                    violations = new ArrayList<>();
+                }
+                violations.add(events.size() == 1 ? error : "[" + i + "] " + error);
+            }
+        }
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
+
+        for (ConsumptionEventDto event : events) {
+            record(event.getHouseholdId(), SimulationEngine.dayOfWeek((int) event.getDate().toEpochDay()),
+                    event.getConsumption());
+        }
+        return events.size();
+    }
+
+    void record(String householdId, int dayOfWeek, int consumption) {
+        AtomicLongArray household = averages.get(householdId);
+        if (household == null) {
+            household = averages.computeIfAbsent(householdId, id -> unset());
+            if (averages.size() > maxHouseholds) {
+                evict();
+            }
+        }
+        long current;
+        long next;
+        do {
+            current = household.get(dayOfWeek);
+            double average = Double.longBitsToDouble(current);
+            // Le premier relevé initialise la moyenne
+            next = Double.doubleToRawLongBits(current == UNSET ? consumption
+                    : average + alpha * (consumption - average));
+        } while (!household.compareAndSet(dayOfWeek, current, next));
+        household.lazySet(LAST_UPDATE, System.nanoTime());
+    }
+
+    /**
+     * Oublie les foyers mis à jour le moins récemment, pour revenir à neuf
+     * dixièmes de la limite.
+     */
+    private synchronized void evict() {
+        if (averages.size() <= maxHouseholds) {
+            return;
+        }
+        long[] updates = new long[averages.size()];
+        int count = 0;
+        for (AtomicLongArray household : averages.values()) {
+            if (count == updates.length) {
+                break;
+            }
+            updates[count++] = household.get(LAST_UPDATE);
+        }
+        Arrays.sort(updates, 0, count);
+        int keep = maxHouseholds - maxHouseholds / 10;
+        long threshold = updates[Math.max(0, count - keep)];
+        averages.values().removeIf(household -> household.get(LAST_UPDATE) - threshold < 0);
+    }
+
+    int trackedHouseholds() {
+        return averages.size();
+    }
+
+    /**
+     * Profil appris, arrondi au yaourt ; les jours sans relevé reprennent les
+     * valeurs par défaut.
+     *
+     * @return {@code null} pour un foyer inconnu
+     */
+    public ConsumptionProfile learnedProfile(String householdId, ConsumptionProfile defaults) {
+        AtomicLongArray household = averages.get(householdId);
+        if (household == null) {
+            return null;
+        }
+        Map<DayOfWeek, Integer> consumption = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DAYS) {
+            long bits = household.get(day.ordinal());
+            consumption.put(day, bits == UNSET ? defaults.getConsumptionForDay(day)
+                    : (int) Math.round(Double.longBitsToDouble(bits)));
+        }
+        return ConsumptionProfile.builder().dailyConsumption(consumption).build();
+    }
+
+    private static AtomicLongArray unset() {
+        AtomicLongArray household = new AtomicLongArray(DAYS.length + 1);
+        for (int day = 0; day < DAYS.length; day++) {
+            household.set(day, UNSET);
+        }
+        household.set(LAST_UPDATE, System.nanoTime());
+        return household;
+    }
+
+    private static String validate(ConsumptionEventDto event) {
+        if (event == null || event.getHouseholdId() == null || event.getHouseholdId().isBlank()) {
+            return "L'identifiant du foyer est requis";
+        }
+        if (event.getDate() == null) {
+            return "La date de consommation est requise";
+        }
+        if (event.getConsumption() == null || event.getConsumption() < 0) {
+            return "La consommation doit être supérieure ou égale à 0";
+        }
+        return null;
+    }
+}
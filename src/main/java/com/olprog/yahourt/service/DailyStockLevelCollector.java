@@ -0,0 +1,35 @@
+package com.olprog.yahourt.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.olprog.yahourt.model.DailyStockLevel;
+
+/**
+ * Construit les lignes quotidiennes du résultat (granularité jour).
+ */
+final class DailyStockLevelCollector implements DailyStockListener {
+
+    private final List<DailyStockLevel> dailyStockLevels;
+
+    DailyStockLevelCollector(int expectedDays) {
+        this.dailyStockLevels = new ArrayList<>(expectedDays);
+    }
+
+    @Override
+    public void onDay(int epochDay, int stockLevel, boolean deliveryDay, boolean purchaseDay, int consumption,
+            int consumed) {
+        dailyStockLevels.add(DailyStockLevel.builder()
+                .date(LocalDate.ofEpochDay(epochDay))
+                .stockLevel(stockLevel)
+                .isDeliveryDay(deliveryDay)
+                .isPurchaseDay(purchaseDay)
+                .consumption(consumption)
+                .build());
+    }
+
+    List<DailyStockLevel> getDailyStockLevels() {
+        return dailyStockLevels;
+    }
+}
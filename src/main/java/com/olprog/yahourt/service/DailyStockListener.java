@@ -0,0 +1,18 @@
+package com.olprog.yahourt.service;
+
+/**
+ * Reçoit chaque jour simulé sous forme de valeurs primitives, sans qu'aucun
+ * objet ne soit construit par jour.
+ */
+public interface DailyStockListener {
+
+    /**
+     * @param epochDay    jour simulé
+     * @param stockLevel  stock en début de journée, livraison comprise
+     * @param consumption consommation prévue ce jour
+     * @param consumed    consommation réellement servie (inférieure en cas de
+     *                    rupture)
+     */
+    void onDay(int epochDay, int stockLevel, boolean deliveryDay, boolean purchaseDay, int consumption,
+            int consumed);
+}
@@ -0,0 +1,273 @@
+package com.olprog.yahourt.service;
+
+import java.util.Arrays;
+
+/**
+ * Répartit les livraisons de toute une flotte de foyers sous une capacité
+ * quotidienne du fournisseur, en paquets.
+ * <p>
+ * Les jours sont parcourus dans l'ordre. Chaque jour, les commandes dues
+ * (livraison demandée ce jour ou avant) sont servies par date de rupture
+ * croissante, c'est-à-dire par jours de couverture restants : la plus exposée
+ * d'abord. Une commande qui ne tient pas dans la capacité restante est
+ * partagée, le reste attend le jour suivant. La capacité encore libre sert
+ * ensuite à avancer, d'au plus {@code maxAdvanceDays} jours, des commandes des
+ * jours suivants qui déborderont de leur propre capacité et de celle encore
+ * libre entre-temps : une commande n'est avancée que du nécessaire.
+ * <p>
+ * Les commandes sont gardées dans des tableaux primitifs et la file de
+ * priorité est un tas binaire de {@code long} (date de rupture, index) : ni
+ * objet par commande ni boxing, pour tenir le million de commandes.
+ */
+final class FleetAllocator {
+
+    private int count;
+    private int[] households = new int[1024];
+    private int[] orderDays = new int[1024];
+    private int[] requestedDays = new int[1024];
+    private int[] earliestDays = new int[1024];
+    private int[] stockoutDays = new int[1024];
+    private int[] packs = new int[1024];
+
+    // Livraisons planifiées, dans l'ordre des jours
+    private int deliveryCount;
+    private int[] deliveryOrders;
+    private int[] deliveryDays;
+    private int[] deliveryPacks;
+
+    // Itérations des boucles de répartition, pour vérifier la complexité sans chronomètre
+    private long steps;
+
+    /**
+     * @param earliestDay premier jour où la commande peut être livrée
+     * @param stockoutDay jour de rupture prévu sans cette livraison
+     */
+    void add(int household, int orderDay, int requestedDay, int earliestDay, int stockoutDay, int orderPacks) {
+        if (count == packs.length) {
+            int capacity = count * 2;
+            households = Arrays.copyOf(households, capacity);
+            orderDays = Arrays.copyOf(orderDays, capacity);
+            requestedDays = Arrays.copyOf(requestedDays, capacity);
+            earliestDays = Arrays.copyOf(earliestDays, capacity);
+            stockoutDays = Arrays.copyOf(stockoutDays, capacity);
+            packs = Arrays.copyOf(packs, capacity);
+        }
+        households[count] = household;
+        orderDays[count] = orderDay;
+        requestedDays[count] = requestedDay;
+        earliestDays[count] = Math.min(earliestDay, requestedDay);
+        stockoutDays[count] = stockoutDay;
+        packs[count] = orderPacks;
+        count++;
+    }
+
+    void allocate(int dailyCapacity, int maxAdvanceDays) {
+        deliveryCount = 0;
+        steps = 0;
+        deliveryOrders = new int[count + 16];
+        deliveryDays = new int[count + 16];
+        deliveryPacks = new int[count + 16];
+        if (count == 0) {
+            return;
+        }
+
+        int firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+        int minStockout = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            firstDay = Math.min(firstDay, earliestDays[i]);
+            lastDay = Math.max(lastDay, requestedDays[i]);
+            minStockout = Math.min(minStockout, stockoutDays[i]);
+        }
+
+        // Commandes regroupées par jour demandé, puis triées par date de rupture
+        int days = lastDay - firstDay + 1;
+        int[] dayStarts = new int[days + 1];
+        long[] pending = new long[days];
+        for (int i = 0; i < count; i++) {
+            int offset = requestedDays[i] - firstDay;
+            dayStarts[offset + 1]++;
+            pending[offset] += packs[i];
+        }
+        for (int d = 0; d < days; d++) {
+            dayStarts[d + 1] += dayStarts[d];
+        }
+        int[] sorted = new int[count];
+        int[] positions = Arrays.copyOf(dayStarts, days);
+        for (int i = 0; i < count; i++) {
+            sorted[positions[requestedDays[i] - firstDay]++] = i;
+        }
+        for (int d = 0; d < days; d++) {
+            sortByStockout(sorted, dayStarts[d], dayStarts[d + 1], minStockout);
+        }
+        int[] pullCursors = Arrays.copyOf(dayStarts, days);
+        int[] remaining = Arrays.copyOf(packs, count);
+
+        long[] heap = new long[count];
+        int heapSize = 0;
+        int nextDue = 0;
+        for (int day = firstDay; nextDue < count || heapSize > 0; day++) {
+            int offset = day - firstDay;
+            int capacity = dailyCapacity;
+
+            // Commandes dues ce jour, y compris celles déjà avancées en partie
+            if (offset < days) {
+                for (; nextDue < dayStarts[offset + 1]; nextDue++) {
+                    int order = sorted[nextDue];
+                    if (remaining[order] > 0) {
+                        heapSize = push(heap, heapSize, key((long) stockoutDays[order] - minStockout, order));
+                    }
+                }
+            }
+
+            while (capacity > 0 && heapSize > 0) {
+                steps++;
+                int order = (int) heap[0];
+                int delivered = Math.min(remaining[order], capacity);
+                deliver(order, day, delivered, pending, firstDay, days);
+                remaining[order] -= delivered;
+                capacity -= delivered;
+                if (remaining[order] == 0) {
+                    heapSize = pop(heap, heapSize);
+                }
+            }
+
+            // Avancer les commandes des prochains jours qui dépasseront leur capacité, de ce
+            // qui ne tiendra pas non plus dans la capacité libre des jours intermédiaires
+            long spareBetween = 0;
+            for (int ahead = 1; ahead <= maxAdvanceDays && capacity > 0 && offset + ahead < days; ahead++) {
+                int target = offset + ahead;
+                long needed = pending[target] - dailyCapacity - spareBetween;
+                spareBetween += Math.max(0, dailyCapacity - pending[target]);
+                while (pullCursors[target] < dayStarts[target + 1] && remaining[sorted[pullCursors[target]]] == 0) {
+                    steps++;
+                    pullCursors[target]++;
+                }
+                for (int k = pullCursors[target]; k < dayStarts[target + 1] && capacity > 0 && needed > 0; k++) {
+                    steps++;
+                    int order = sorted[k];
+                    if (remaining[order] == 0 || earliestDays[order] > day) {
+                        continue;
+                    }
+                    int delivered = (int) Math.min(Math.min(remaining[order], capacity), needed);
+                    deliver(order, day, delivered, pending, firstDay, days);
+                    remaining[order] -= delivered;
+                    capacity -= delivered;
+                    needed -= delivered;
+                }
+            }
+        }
+    }
+
+    private void deliver(int order, int day, int delivered, long[] pending, int firstDay, int days) {
+        if (deliveryCount == deliveryOrders.length) {
+            int capacity = deliveryCount + (deliveryCount >> 1);
+            deliveryOrders = Arrays.copyOf(deliveryOrders, capacity);
+            deliveryDays = Arrays.copyOf(deliveryDays, capacity);
+            deliveryPacks = Arrays.copyOf(deliveryPacks, capacity);
+        }
+        deliveryOrders[deliveryCount] = order;
+        deliveryDays[deliveryCount] = day;
+        deliveryPacks[deliveryCount] = delivered;
+        deliveryCount++;
+        pending[requestedDays[order] - firstDay] -= delivered;
+    }
+
+    private void sortByStockout(int[] orders, int from, int to, int minStockout) {
+        if (to - from < 2) {
+            return;
+        }
+        long[] keys = new long[to - from];
+        for (int k = from; k < to; k++) {
+            keys[k - from] = key((long) stockoutDays[orders[k]] - minStockout, orders[k]);
+        }
+        Arrays.sort(keys);
+        for (int k = from; k < to; k++) {
+            orders[k] = (int) keys[k - from];
+        }
+    }
+
+    // Priorité positive sur 31 bits au plus, index de commande dans les 32 bits faibles
+    private static long key(long priority, int order) {
+        return (priority << 32) | order;
+    }
+
+    private static int push(long[] heap, int size, long key) {
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= key) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+        return size + 1;
+    }
+
+    private static int pop(long[] heap, int size) {
+        long last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (size > 0) {
+            heap[i] = last;
+        }
+        return size;
+    }
+
+    int orderCount() {
+        return count;
+    }
+
+    int household(int order) {
+        return households[order];
+    }
+
+    int orderDay(int order) {
+        return orderDays[order];
+    }
+
+    int requestedDay(int order) {
+        return requestedDays[order];
+    }
+
+    int stockoutDay(int order) {
+        return stockoutDays[order];
+    }
+
+    int packs(int order) {
+        return packs[order];
+    }
+
+    int deliveryCount() {
+        return deliveryCount;
+    }
+
+    long steps() {
+        return steps;
+    }
+
+    int deliveryOrder(int delivery) {
+        return deliveryOrders[delivery];
+    }
+
+    int deliveryDay(int delivery) {
+        return deliveryDays[delivery];
+    }
+
+    int deliveryPacks(int delivery) {
+        return deliveryPacks[delivery];
+    }
+}
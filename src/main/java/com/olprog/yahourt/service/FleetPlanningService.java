@@ -0,0 +1,229 @@
+package com.olprog.yahourt.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.olprog.yahourt.dto.FleetPlanRequestDto;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.ConsumptionProfile;
+import com.olprog.yahourt.model.FleetDelivery;
+import com.olprog.yahourt.model.FleetPlan;
+import com.olprog.yahourt.model.Granularity;
+import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.Sku;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Planifie les livraisons de toute une flotte de foyers sous la capacité
+ * quotidienne du fournisseur : chaque foyer est simulé seul, puis ses
+ * commandes sont réparties par {@link FleetAllocator}.
+ * <p>
+ * La priorité d'une commande est le jour où le foyer tomberait en rupture sans
+ * elle : stock au moment de la commande divisé par la consommation moyenne.
+ */
+@Service
+public class FleetPlanningService {
+
+    private static final int DEFAULT_MAX_ADVANCE_DAYS = 2;
+
+    // Rupture retenue pour un foyer qui ne consomme rien
+    private static final int NO_STOCKOUT_DAYS = 3650;
+
+    private final YogurtOptimizationService optimizationService;
+
+    public FleetPlanningService(YogurtOptimizationService optimizationService) {
+        this.optimizationService = optimizationService;
+    }
+
+    public FleetPlan plan(FleetPlanRequestDto request) {
+        validate(request);
+        int maxAdvanceDays = request.getMaxAdvanceDays() != null ? request.getMaxAdvanceDays()
+                : DEFAULT_MAX_ADVANCE_DAYS;
+
+        FleetAllocator allocator = new FleetAllocator();
+        List<OptimizationRequestDto> households = request.getHouseholds();
+        List<String> violations = null;
+        for (int household = 0; household < households.size(); household++) {
+            try {
+                addOrders(allocator, household, households.get(household), maxAdvanceDays);
+            } catch (ValidationException e) {
+                if (violations == null) {
+                    violations = new ArrayList<>();
+                }
+                for (String violation : e.getViolations()) {
+                    violations.add("[" + household + "] " + violation);
+                }
+            }
+        }
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
+
+        allocator.allocate(request.getDailyCapacity(), maxAdvanceDays);
+        return toPlan(allocator);
+    }
+
+    private void addOrders(FleetAllocator allocator, int household, OptimizationRequestDto requestDto,
+            int maxAdvanceDays) {
+        StockSimulationParams params = optimizationService.convertRequestToParams(requestDto);
+        // Seules les commandes comptent : ni pagination ni série quotidienne
+        params.setPageSize(null);
+        params.setCursor(null);
+        params.setGranularity(Granularity.MONTH);
+        SimulationResult result = optimizationService.simulateYogurtStockForYear(params);
+
+        double dailyConsumption = weeklyConsumption(params) / 7.0;
+        int startDay = (int) params.getStartDate().toEpochDay();
+        for (PurchaseRecommendation recommendation : result.getPurchaseRecommendations()) {
+            if (recommendation.getPacksToBuy() == 0) {
+                continue;
+            }
+            int orderDay = (int) recommendation.getOrderDate().toEpochDay();
+            int requestedDay = (int) recommendation.getDeliveryDate().toEpochDay();
+            // Avancer la livraison avance aussi la commande, jamais avant le début de la simulation
+            int earliestDay = Math.max(requestedDay - maxAdvanceDays, startDay + requestedDay - orderDay);
+            int stockoutDay = dailyConsumption == 0 ? requestedDay + NO_STOCKOUT_DAYS
+                    : orderDay + (int) Math.min(NO_STOCKOUT_DAYS,
+                            recommendation.getStockBeforePurchase() / dailyConsumption);
+            allocator.add(household, orderDay, requestedDay, earliestDay, stockoutDay,
+                    recommendation.getPacksToBuy());
+        }
+    }
+
+    private static int weeklyConsumption(StockSimulationParams params) {
+        if (params.getSkus() == null) {
+            return weeklyConsumption(params.getConsumptionProfile());
+        }
+        int total = 0;
+        for (Sku sku : params.getSkus()) {
+            total += weeklyConsumption(sku.getConsumptionProfile());
+        }
+        return total;
+    }
+
+    private static int weeklyConsumption(ConsumptionProfile profile) {
+        int total = 0;
+        for (Integer consumption : profile.getDailyConsumption().values()) {
+            total += consumption;
+        }
+        return total;
+    }
+
+    private static FleetPlan toPlan(FleetAllocator allocator) {
+        int orders = allocator.orderCount();
+        int firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+        for (int order = 0; order < orders; order++) {
+            firstDay = Math.min(firstDay, allocator.orderDay(order));
+            lastDay = Math.max(lastDay, allocator.requestedDay(order));
+        }
+        for (int d = 0; d < allocator.deliveryCount(); d++) {
+            int order = allocator.deliveryOrder(d);
+            // Une commande avancée est passée d'autant plus tôt
+            firstDay = Math.min(firstDay, allocator.deliveryDay(d)
+                    - (allocator.requestedDay(order) - allocator.orderDay(order)));
+            lastDay = Math.max(lastDay, allocator.deliveryDay(d));
+        }
+        int days = orders == 0 ? 0 : lastDay - firstDay + 1;
+
+        long packs = 0;
+        long[] requestedLoad = new long[days];
+        for (int order = 0; order < orders; order++) {
+            packs += allocator.packs(order);
+            requestedLoad[allocator.requestedDay(order) - firstDay] += allocator.packs(order);
+        }
+
+        // Dates partagées entre livraisons : une instance par jour de la période
+        LocalDate[] dates = new LocalDate[days];
+        long[] load = new long[days];
+        int[] deliveries = new int[orders];
+        int[] firstDeliveryDays = new int[orders];
+        int[] lastDeliveryDays = new int[orders];
+        List<FleetDelivery> planned = new ArrayList<>(allocator.deliveryCount());
+        for (int d = 0; d < allocator.deliveryCount(); d++) {
+            int order = allocator.deliveryOrder(d);
+            int day = allocator.deliveryDay(d);
+            int requestedDay = allocator.requestedDay(order);
+            load[day - firstDay] += allocator.deliveryPacks(d);
+            // Livraisons émises dans l'ordre des jours
+            if (deliveries[order]++ == 0) {
+                firstDeliveryDays[order] = day;
+            }
+            lastDeliveryDays[order] = day;
+            planned.add(FleetDelivery.builder()
+                    .household(allocator.household(order))
+                    .orderDate(date(dates, firstDay, day - (requestedDay - allocator.orderDay(order))))
+                    .requestedDeliveryDate(date(dates, firstDay, requestedDay))
+                    .deliveryDate(date(dates, firstDay, day))
+                    .packs(allocator.deliveryPacks(d))
+                    .build());
+        }
+
+        int shiftedOrders = 0;
+        int splitOrders = 0;
+        int lateOrders = 0;
+        int atRiskOrders = 0;
+        int maxDelayDays = 0;
+        for (int order = 0; order < orders; order++) {
+            int requestedDay = allocator.requestedDay(order);
+            if (firstDeliveryDays[order] != requestedDay || lastDeliveryDays[order] != requestedDay) {
+                shiftedOrders++;
+            }
+            if (deliveries[order] > 1) {
+                splitOrders++;
+            }
+            if (lastDeliveryDays[order] > requestedDay) {
+                lateOrders++;
+                maxDelayDays = Math.max(maxDelayDays, lastDeliveryDays[order] - requestedDay);
+            }
+            if (lastDeliveryDays[order] > allocator.stockoutDay(order)) {
+                atRiskOrders++;
+            }
+        }
+        return FleetPlan.builder()
+                .deliveries(planned)
+                .orders(orders)
+                .packs(packs)
+                .shiftedOrders(shiftedOrders)
+                .splitOrders(splitOrders)
+                .lateOrders(lateOrders)
+                .atRiskOrders(atRiskOrders)
+                .maxDelayDays(maxDelayDays)
+                .unconstrainedPeakDailyPacks(max(requestedLoad))
+                .peakDailyPacks(max(load))
+                .build();
+    }
+
+    private static LocalDate date(LocalDate[] dates, int firstDay, int day) {
+        int offset = day - firstDay;
+        if (dates[offset] == null) {
+            dates[offset] = LocalDate.ofEpochDay(day);
+        }
+        return dates[offset];
+    }
+
+    private static long max(long[] values) {
+        long max = 0;
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static void validate(FleetPlanRequestDto request) {
+        if (request == null || request.getHouseholds() == null || request.getHouseholds().isEmpty()) {
+            throw new ValidationException("Au moins un foyer est requis");
+        }
+        if (request.getDailyCapacity() == null || request.getDailyCapacity() < 1) {
+            throw new ValidationException("La capacité quotidienne de livraison doit être d'au moins 1 paquet");
+        }
+        if (request.getMaxAdvanceDays() != null && request.getMaxAdvanceDays() < 0) {
+            throw new ValidationException("L'avance maximale doit être supérieure ou égale à 0");
+        }
+    }
+}
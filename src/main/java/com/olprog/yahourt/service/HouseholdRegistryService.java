@@ -0,0 +1,351 @@
+package com.olprog.yahourt.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.olprog.yahourt.dto.HouseholdRecordDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.ConsumptionProfile;
+import com.olprog.yahourt.model.RegisteredHousehold;
+import com.olprog.yahourt.model.ShoppingListReport;
+import com.olprog.yahourt.model.StockSimulationParams;
+import com.olprog.yahourt.store.HouseholdRegistry;
+
+/**
+ * Foyers enregistrés dans le registre hors tas, et liste de courses de chaque
+ * jour d'achat. La liste est calculée par plages d'identifiants en parallèle,
+ * sur les threads de la voie lourde ({@link WorkloadLanes}), directement sur
+ * les enregistrements : aucun objet n'est créé par foyer, ni pour le calcul
+ * ni pour la restitution en CSV.
+ * <p>
+ * La règle de commande est celle de {@link NextOrderService} appliquée le jour
+ * d'achat, à partir du stock enregistré pour le foyer.
+ * <p>
+ * Désactivé par défaut ({@code yogurt.registry.enabled}) : le fichier est
+ * verrouillé par l'instance qui l'ouvre, seule l'instance qui porte le
+ * registre doit l'activer.
+ */
+@Service
+@ConditionalOnProperty(name = "yogurt.registry.enabled", havingValue = "true")
+public class HouseholdRegistryService implements DisposableBean {
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+    private static final StockSimulationParams DEFAULTS = StockSimulationParams.createDefault();
+    private static final byte[] CSV_HEADER = "household,packs,stock\n".getBytes(StandardCharsets.US_ASCII);
+    // Foyers encodés par prise du verrou, et taille maximale d'une ligne (trois entiers)
+    private static final int CSV_BLOCK_IDS = 4096;
+    private static final int CSV_MAX_LINE = 36;
+
+    private final HouseholdRegistry registry;
+    private final WorkloadLanes workloadLanes;
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    // Écritures et calcul des listes exclusifs ; lectures partagées
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public HouseholdRegistryService(
+            @Value("${yogurt.registry.file:${java.io.tmpdir}/yogurt-registry/households.dat}") Path file,
+            WorkloadLanes workloadLanes,
+            @Value("${yogurt.registry.parallelism:0}") int parallelism) throws IOException {
+        this.registry = new HouseholdRegistry(file);
+        this.workloadLanes = workloadLanes;
+        // Plages parcourues par les threads de la voie lourde, dans sa part de CPU
+        this.parallelism = parallelism > 0 ? parallelism : workloadLanes.bulkParallelism();
+        this.executor = workloadLanes.bulkWorkers();
+    }
+
+    public RegisteredHousehold create(HouseholdRecordDto record) {
+        int[] consumption = new int[7];
+        validate(record, consumption);
+        lock.writeLock().lock();
+        try {
+            int id = registry.create(valueOr(record.getCurrentStock(), DEFAULTS.getInitialStock()),
+                    valueOr(record.getDeliveryDelay(), DEFAULTS.getDeliveryDelay()),
+                    valueOr(record.getPackSize(), DEFAULTS.getPackSize()), purchaseDay(record), consumption);
+            return toHousehold(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Extension du registre des foyers impossible", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return le foyer, ou {@code null} s'il n'est pas enregistré
+     */
+    public RegisteredHousehold find(int id) {
+        lock.readLock().lock();
+        try {
+            return registry.contains(id) ? toHousehold(id) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remplace la configuration du foyer.
+     *
+     * @return le foyer modifié, ou {@code null} s'il n'est pas enregistré
+     */
+    public RegisteredHousehold update(int id, HouseholdRecordDto record) {
+        int[] consumption = new int[7];
+        validate(record, consumption);
+        lock.writeLock().lock();
+        try {
+            boolean updated = registry.update(id, valueOr(record.getCurrentStock(), DEFAULTS.getInitialStock()),
+                    valueOr(record.getDeliveryDelay(), DEFAULTS.getDeliveryDelay()),
+                    valueOr(record.getPackSize(), DEFAULTS.getPackSize()), purchaseDay(record), consumption);
+            return updated ? toHousehold(id) : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean delete(int id) {
+        lock.writeLock().lock();
+        try {
+            return registry.delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return registry.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Liste de courses du jour, pour les foyers dont c'est le jour d'achat ;
+     * lancée chaque matin dans la voie lourde, comme un recalcul à la demande.
+     */
+    @Scheduled(cron = "${yogurt.registry.shopping-list-cron:0 0 5 * * *}")
+    public void generateTodaysShoppingList() {
+        LocalDate today = LocalDate.now();
+        workloadLanes.execute(WorkloadCost.unbounded(), () -> generateShoppingList(today));
+    }
+
+    public ShoppingListReport generateShoppingList(LocalDate date) {
+        if (date == null) {
+            throw new ValidationException("La date de la liste de courses ne peut pas être nulle");
+        }
+        long started = System.nanoTime();
+        int epochDay = (int) date.toEpochDay();
+        int dayOfWeek = SimulationEngine.dayOfWeek(epochDay);
+
+        long[] totals = new long[4];
+        lock.writeLock().lock();
+        try {
+            int capacity = registry.capacity();
+            // Des plages d'au moins une région projetée, pour ne pas morceler un petit registre
+            int parts = Math.max(1, Math.min(parallelism, capacity / (1 << 16)));
+            List<CompletableFuture<long[]>> tasks = new ArrayList<>(parts);
+            for (int i = 0; i < parts; i++) {
+                int from = (int) ((long) capacity * i / parts);
+                int to = (int) ((long) capacity * (i + 1) / parts);
+                tasks.add(CompletableFuture.supplyAsync(() -> scan(from, to, epochDay, dayOfWeek), executor));
+            }
+            for (CompletableFuture<long[]> task : tasks) {
+                long[] partTotals = task.join();
+                for (int t = 0; t < totals.length; t++) {
+                    totals[t] += partTotals[t];
+                }
+            }
+            registry.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        return ShoppingListReport.builder()
+                .date(date)
+                .households((int) totals[0])
+                .orders((int) totals[1])
+                .packs(totals[2])
+                .yogurts(totals[3])
+                .elapsedMillis((System.nanoTime() - started) / 1_000_000)
+                .build();
+    }
+
+    /**
+     * Calcule et enregistre la commande des foyers {@code [from, to)} dont
+     * c'est le jour d'achat.
+     *
+     * @return foyers concernés, commandes, paquets et yaourts
+     */
+    private long[] scan(int from, int to, int epochDay, int dayOfWeek) {
+        int[] weekly = new int[7];
+        long households = 0;
+        long orders = 0;
+        long packs = 0;
+        long yogurts = 0;
+        for (int id = from; id < to; id++) {
+            if (!registry.contains(id) || registry.purchaseDay(id) != dayOfWeek) {
+                continue;
+            }
+            int weeklyTotal = 0;
+            for (int day = 0; day < 7; day++) {
+                weekly[day] = registry.consumption(id, day);
+                weeklyTotal += weekly[day];
+            }
+            int packSize = registry.packSize(id);
+            int projected = SimulationEngine.weeklyProjection(weekly, weeklyTotal, dayOfWeek,
+                    registry.deliveryDelay(id) + 7);
+            int packsToBuy = SimulationEngine.packsToBuy(projected, registry.stock(id), packSize);
+            registry.setList(id, epochDay, packsToBuy);
+
+            households++;
+            if (packsToBuy > 0) {
+                orders++;
+                packs += packsToBuy;
+                yogurts += (long) packsToBuy * packSize;
+            }
+        }
+        return new long[] { households, orders, packs, yogurts };
+    }
+
+    /**
+     * Écrit en CSV ({@code household,packs,stock}) les commandes de la liste
+     * calculée pour ce jour ; vide si la liste n'a pas été calculée.
+     * <p>
+     * Les lignes sont encodées sous le verrou de lecture, par blocs
+     * d'identifiants, puis envoyées hors verrou : un client lent ne bloque ni
+     * les modifications ni le calcul des listes. Chaque ligne est cohérente,
+     * mais un recalcul du même jour pendant l'envoi peut mêler les deux
+     * listes.
+     */
+    public void writeShoppingList(LocalDate date, OutputStream out) throws IOException {
+        int epochDay = (int) date.toEpochDay();
+        byte[] block = new byte[CSV_BLOCK_IDS * CSV_MAX_LINE];
+        out.write(CSV_HEADER);
+        for (int from = 0;; from += CSV_BLOCK_IDS) {
+            int length;
+            lock.readLock().lock();
+            try {
+                int capacity = registry.capacity();
+                if (from >= capacity) {
+                    return;
+                }
+                length = encodeShoppingList(from, Math.min(capacity, from + CSV_BLOCK_IDS), epochDay, block);
+            } finally {
+                lock.readLock().unlock();
+            }
+            out.write(block, 0, length);
+        }
+    }
+
+    private int encodeShoppingList(int from, int to, int epochDay, byte[] block) {
+        int length = 0;
+        for (int id = from; id < to; id++) {
+            if (!registry.contains(id) || registry.listDay(id) != epochDay || registry.listPacks(id) == 0) {
+                continue;
+            }
+            length = appendInt(block, length, id);
+            block[length++] = ',';
+            length = appendInt(block, length, registry.listPacks(id));
+            block[length++] = ',';
+            length = appendInt(block, length, registry.stock(id));
+            block[length++] = '\n';
+        }
+        return length;
+    }
+
+    private static int appendInt(byte[] buffer, int position, int value) {
+        // Valeurs positives ou nulles, validées à l'enregistrement
+        int end = position + (value == 0 ? 1 : (int) Math.log10(value) + 1);
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private RegisteredHousehold toHousehold(int id) {
+        Map<DayOfWeek, Integer> consumption = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DAYS) {
+            consumption.put(day, registry.consumption(id, day.ordinal()));
+        }
+        return RegisteredHousehold.builder()
+                .id(id)
+                .currentStock(registry.stock(id))
+                .deliveryDelay(registry.deliveryDelay(id))
+                .packSize(registry.packSize(id))
+                .purchaseDay(DAYS[registry.purchaseDay(id)])
+                .consumptionProfile(ConsumptionProfile.builder().dailyConsumption(consumption).build())
+                .build();
+    }
+
+    private static void validate(HouseholdRecordDto record, int[] consumption) {
+        if (record == null) {
+            throw new ValidationException("La configuration du foyer ne peut pas être nulle");
+        }
+        List<String> violations = null;
+        String error = WeekDays.fillWeeklyConsumption(record.getDailyConsumption(), consumption);
+        if (error != null) {
+            violations = add(violations, error);
+        }
+        if (record.getCurrentStock() != null && record.getCurrentStock() < 0) {
+            violations = add(violations, "Le stock actuel doit être supérieur ou égal à 0");
+        }
+        if (record.getDeliveryDelay() != null && record.getDeliveryDelay() < 1) {
+            violations = add(violations, "Le délai de livraison doit être d'au moins 1 jour");
+        }
+        if (record.getPackSize() != null && record.getPackSize() < 1) {
+            violations = add(violations, "La taille du paquet doit être d'au moins 1");
+        }
+        if (record.getPurchaseDay() != null && WeekDays.parse(record.getPurchaseDay()) == null) {
+            violations = add(violations, "Jour d'achat invalide: " + record.getPurchaseDay());
+        }
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
+    }
+
+    private static List<String> add(List<String> violations, String violation) {
+        List<String> result = violations != null ? violations : new ArrayList<>(4);
+        result.add(violation);
+        return result;
+    }
+
+    private static int purchaseDay(HouseholdRecordDto record) {
+        return record.getPurchaseDay() == null ? DEFAULTS.getPurchaseDay().ordinal()
+                : WeekDays.parse(record.getPurchaseDay()).ordinal();
+    }
+
+    private static int valueOr(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        lock.writeLock().lock();
+        try {
+            registry.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
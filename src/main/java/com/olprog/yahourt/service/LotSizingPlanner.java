@@ -0,0 +1,127 @@
+package com.olprog.yahourt.service;
+
+import java.util.Arrays;
+
+import com.olprog.yahourt.model.CostModel;
+
+/**
+ * Plan de commandes de coût minimal sur l'horizon (Wagner–Whitin). Chaque
+ * commande possible est une livraison, à un jour d'arrivée donné ; une
+ * commande couvre la demande des livraisons suivantes jusqu'à la prochaine
+ * commande. Le coût d'un tel segment (coût fixe, achat avec remise, stockage)
+ * se calcule en O(1) grâce à deux sommes préfixes de la demande.
+ * <p>
+ * Sans remise sur quantité, le coût d'achat est linéaire et deux propriétés
+ * classiques bornent la recherche : la dernière commande optimale ne recule
+ * jamais quand l'horizon s'allonge, et il est inutile de porter la demande
+ * d'une livraison plus longtemps que ce que coûte une commande. Chaque
+ * livraison n'examine alors qu'un nombre borné de commandes candidates, et le
+ * plan se calcule en temps quasi linéaire. Avec des remises, tous les
+ * segments sont examinés (O(n²) sur une cinquantaine de livraisons par an).
+ * <p>
+ * Le plan suppose des quantités continues ; l'arrondi au paquet est appliqué
+ * en rejouant le plan, le reliquat d'une commande diminuant la suivante.
+ */
+final class LotSizingPlanner {
+
+    private LotSizingPlanner() {
+    }
+
+    /**
+     * @param demand       consommation prévue, par décalage depuis le début
+     * @param initialStock stock au début de l'horizon
+     * @param arrivals     décalages des livraisons possibles, croissants et
+     *                     inférieurs à l'horizon
+     * @return le nombre de paquets à commander pour chaque livraison
+     */
+    static int[] plan(int[] demand, int initialStock, int[] arrivals, int packSize, CostModel costs) {
+        int horizon = demand.length;
+        int slots = arrivals.length;
+
+        // Demande nette du stock initial, consommé en premier, et demande brute
+        long[] net = new long[horizon + 1];
+        long[] netWeighted = new long[horizon + 1];
+        long[] gross = new long[horizon + 1];
+        int remaining = initialStock;
+        for (int t = 0; t < horizon; t++) {
+            int covered = Math.min(remaining, demand[t]);
+            remaining -= covered;
+            net[t + 1] = net[t] + demand[t] - covered;
+            netWeighted[t + 1] = netWeighted[t] + net[t];
+            gross[t + 1] = gross[t] + demand[t];
+        }
+
+        double fixedCost = costs.getFixedOrderCost();
+        double holdingCost = costs.getHoldingCostPerUnitDay();
+        boolean bounded = !costs.hasQuantityDiscounts();
+
+        // best[k] : coût minimal pour couvrir les livraisons 0..k-1 ; start[k] : dernière commande
+        double[] best = new double[slots + 1];
+        int[] start = new int[slots + 1];
+        int lowest = 0;
+        for (int k = 1; k <= slots; k++) {
+            int end = k == slots ? horizon : arrivals[k];
+            long lastDemand = net[end] - net[arrivals[k - 1]];
+            best[k] = Double.POSITIVE_INFINITY;
+            for (int j = k - 1; j >= lowest; j--) {
+                if (bounded && j < k - 1
+                        && holdingCost * lastDemand * (arrivals[k - 1] - arrivals[j]) > fixedCost) {
+                    break;
+                }
+                double cost = best[j] + segmentCost(net, netWeighted, arrivals[j], end, packSize, costs);
+                if (cost < best[k]) {
+                    best[k] = cost;
+                    start[k] = j;
+                }
+            }
+            if (bounded) {
+                lowest = start[k];
+            }
+        }
+
+        // Fin de la couverture de chaque commande retenue, -1 sinon
+        int[] coverageEnd = new int[slots];
+        Arrays.fill(coverageEnd, -1);
+        for (int k = slots; k > 0; k = start[k]) {
+            coverageEnd[start[k]] = k == slots ? horizon : arrivals[k];
+        }
+
+        // Rejeu du plan : chaque commande complète le stock attendu à l'arrivée
+        int[] packs = new int[slots];
+        long stock = initialStock;
+        int next = 0;
+        for (int t = 0; t < horizon; t++) {
+            for (; next < slots && arrivals[next] == t; next++) {
+                if (coverageEnd[next] < 0) {
+                    continue;
+                }
+                long needed = gross[coverageEnd[next]] - gross[t] - stock;
+                if (needed > 0) {
+                    packs[next] = (int) ((needed + packSize - 1) / packSize);
+                    stock += (long) packs[next] * packSize;
+                }
+            }
+            stock -= Math.min(stock, demand[t]);
+        }
+        return packs;
+    }
+
+    /**
+     * Coût d'une commande livrée au jour {@code from} couvrant la demande nette
+     * jusqu'au jour {@code to} exclu ; le stockage est compté sur le stock
+     * après livraison de chaque jour, comme la synthèse de la simulation.
+     */
+    private static double segmentCost(long[] net, long[] netWeighted, int from, int to, int packSize,
+            CostModel costs) {
+        long demand = net[to] - net[from];
+        if (demand == 0) {
+            return 0;
+        }
+        int packs = (int) ((demand + packSize - 1) / packSize);
+        long days = to - from;
+        long ordered = (long) packs * packSize;
+        long heldUnitDays = ordered * days - (netWeighted[to] - netWeighted[from] - days * net[from]);
+        return costs.getFixedOrderCost() + costs.purchaseCost(packs)
+                + costs.getHoldingCostPerUnitDay() * heldUnitDays;
+    }
+}
@@ -0,0 +1,151 @@
+package com.olprog.yahourt.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.olprog.yahourt.dto.InFlightDeliveryDto;
+import com.olprog.yahourt.dto.NextOrderRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Calcule uniquement la prochaine commande d'un foyer, sans simuler l'année :
+ * on avance jusqu'au prochain jour d'achat (au plus 6 jours) puis on applique
+ * la même règle que {@link SimulationEngine}, dont la projection coûte O(7)
+ * quel que soit le délai de livraison.
+ */
+@Service
+public class NextOrderService {
+
+    private static final StockSimulationParams DEFAULTS = StockSimulationParams.createDefault();
+
+    public PurchaseRecommendation recommendNextOrder(NextOrderRequestDto request) {
+        return recommendNextOrders(List.of(request == null ? new NextOrderRequestDto() : request)).get(0);
+    }
+
+    /**
+     * Traite un lot de foyers ; les recommandations sont renvoyées dans l'ordre
+     * des requêtes. Toutes les erreurs de validation du lot sont signalées
+     * ensemble.
+     */
+    public List<PurchaseRecommendation> recommendNextOrders(List<NextOrderRequestDto> requests) {
+        if (requests == null) {
+            throw new ValidationException("La liste des foyers ne peut pas être nulle");
+        }
+
+        List<String> violations = null;
+        List<PurchaseRecommendation> recommendations = new ArrayList<>(requests.size());
+        int[] weekly = new int[7];
+        int today = (int) LocalDate.now().toEpochDay();
+
+        for (int i = 0; i < requests.size(); i++) {
+            NextOrderRequestDto request = requests.get(i) == null ? new NextOrderRequestDto() : requests.get(i);
+            String error = WeekDays.fillWeeklyConsumption(request.getDailyConsumption(), weekly);
+            if (error == null) {
+                error = validate(request);
+            }
+            if (error != null) {
+                if (violations == null) {
+                    violations = new ArrayList<>();
+                }
+                violations.add(requests.size() == 1 ? error : "[" + i + "] " + error);
+                continue;
+            }
+            if (violations != null) {
+                continue;
+            }
+
+            int packSize = valueOr(request.getPackSize(), DEFAULTS.getPackSize());
+            recommendations.add(nextOrder(
+                    request.getAsOf() == null ? today : (int) request.getAsOf().toEpochDay(),
+                    valueOr(request.getCurrentStock(), DEFAULTS.getInitialStock()),
+                    valueOr(request.getDeliveryDelay(), DEFAULTS.getDeliveryDelay()),
+                    packSize,
+                    request.getPurchaseDay() == null ? DEFAULTS.getPurchaseDay().ordinal()
+                            : WeekDays.parse(request.getPurchaseDay()).ordinal(),
+                    weekly,
+                    request.getInFlightDeliveries()));
+        }
+
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
+        return recommendations;
+    }
+
+    static PurchaseRecommendation nextOrder(int asOf, int stock, int deliveryDelay, int packSize, int purchaseDay,
+            int[] weeklyConsumption, List<InFlightDeliveryDto> inFlightDeliveries) {
+        // Avancer jusqu'au prochain jour d'achat, livraisons comprises
+        int day = asOf;
+        int dayOfWeek = SimulationEngine.dayOfWeek(day);
+        stock += arrivals(inFlightDeliveries, day, packSize);
+        while (dayOfWeek != purchaseDay) {
+            stock -= Math.min(stock, weeklyConsumption[dayOfWeek]);
+            day++;
+            dayOfWeek = (dayOfWeek + 1) % 7;
+            stock += arrivals(inFlightDeliveries, day, packSize);
+        }
+
+        int weeklyTotal = 0;
+        for (int consumption : weeklyConsumption) {
+            weeklyTotal += consumption;
+        }
+        // Même règle que la simulation complète : projection sur délai + 7 jours
+        int projectedConsumption = SimulationEngine.weeklyProjection(weeklyConsumption, weeklyTotal, dayOfWeek,
+                deliveryDelay + 7);
+        int packsToBuy = SimulationEngine.packsToBuy(projectedConsumption, stock, packSize);
+
+        return PurchaseRecommendation.builder()
+                .orderDate(LocalDate.ofEpochDay(day))
+                .deliveryDate(LocalDate.ofEpochDay((long) day + deliveryDelay))
+                .packsToBuy(packsToBuy)
+                .stockBeforePurchase(stock)
+                .stockAfterDelivery(stock + packsToBuy * packSize)
+                .build();
+    }
+
+    private static int arrivals(List<InFlightDeliveryDto> inFlightDeliveries, int day, int packSize) {
+        if (inFlightDeliveries == null) {
+            return 0;
+        }
+        int yogurts = 0;
+        for (InFlightDeliveryDto delivery : inFlightDeliveries) {
+            if (delivery.getDeliveryDate().toEpochDay() == day) {
+                yogurts += delivery.getPacks() * packSize;
+            }
+        }
+        return yogurts;
+    }
+
+    private static String validate(NextOrderRequestDto request) {
+        if (request.getCurrentStock() != null && request.getCurrentStock() < 0) {
+            return "Le stock actuel doit être supérieur ou égal à 0";
+        }
+        if (request.getDeliveryDelay() != null && request.getDeliveryDelay() < 1) {
+            return "Le délai de livraison doit être d'au moins 1 jour";
+        }
+        if (request.getPackSize() != null && request.getPackSize() < 1) {
+            return "La taille du paquet doit être d'au moins 1";
+        }
+        if (request.getPurchaseDay() != null && WeekDays.parse(request.getPurchaseDay()) == null) {
+            return "Jour d'achat invalide: " + request.getPurchaseDay();
+        }
+        if (request.getInFlightDeliveries() != null) {
+            for (InFlightDeliveryDto delivery : request.getInFlightDeliveries()) {
+                if (delivery == null || delivery.getDeliveryDate() == null || delivery.getPacks() == null
+                        || delivery.getPacks() < 0) {
+                    return "Livraison en cours invalide: date et nombre de paquets (>= 0) requis";
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int valueOr(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+}
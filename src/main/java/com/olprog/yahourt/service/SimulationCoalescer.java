@@ -0,0 +1,130 @@
+package com.olprog.yahourt.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.StockSimulationParams;
+import com.olprog.yahourt.store.ResultKey;
+import com.olprog.yahourt.store.ResultStore;
+import com.olprog.yahourt.store.SimulationFingerprint;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Regroupe les simulations identiques en cours ("single flight") : la première
+ * requête calcule et sérialise le résultat, les requêtes concurrentes portant
+ * sur les mêmes paramètres normalisés attendent et partagent les mêmes octets.
+ * <p>
+ * Les paramètres sont produits par {@code convertRequestToParams}, qui complète
+ * toujours le profil sur les sept jours : deux requêtes équivalentes donnent
+ * donc des clés égales.
+ * <p>
+ * Le leader consulte d'abord le {@link ResultStore} persistant, partagé avec
+ * les autres instances de l'hôte, avant de lancer la simulation.
+ */
+@Component
+public class SimulationCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulationCoalescer.class);
+
+    private final YogurtOptimizationService optimizationService;
+    private final SimulationResultSerializer serializer;
+    private final ResultStore resultStore;
+    private final ConcurrentMap<StockSimulationParams, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter requests;
+    private final Counter computations;
+    private final Counter coalesced;
+    private final Counter storeHits;
+
+    public SimulationCoalescer(YogurtOptimizationService optimizationService,
+            SimulationResultSerializer serializer,
+            ResultStore resultStore,
+            MeterRegistry meterRegistry) {
+        this.optimizationService = optimizationService;
+        this.serializer = serializer;
+        this.resultStore = resultStore;
+        this.requests = Counter.builder("yogurt.coalescing.requests")
+                .description("Simulations demandées")
+                .register(meterRegistry);
+        this.computations = Counter.builder("yogurt.coalescing.computations")
+                .description("Simulations réellement exécutées")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("yogurt.coalescing.deduplicated")
+                .description("Simulations servies par un calcul déjà en cours")
+                .register(meterRegistry);
+        this.storeHits = Counter.builder("yogurt.result_store.hits")
+                .description("Simulations servies depuis le stockage persistant")
+                .register(meterRegistry);
+        meterRegistry.gauge("yogurt.coalescing.in_flight", inFlight, ConcurrentMap::size);
+    }
+
+    public byte[] simulate(StockSimulationParams params) {
+        requests.increment();
+
+        CompletableFuture<byte[]> candidate = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(params, candidate);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        // Cette requête est le leader : elle calcule pour tout le monde
+        try {
+            candidate.complete(compute(params));
+        } catch (RuntimeException | Error e) {
+            candidate.completeExceptionally(e);
+        } finally {
+            inFlight.remove(params, candidate);
+        }
+        return await(candidate);
+    }
+
+    private byte[] compute(StockSimulationParams params) {
+        ResultKey key = resultStore == ResultStore.NONE ? null : SimulationFingerprint.of(params);
+        if (key != null) {
+            byte[] stored = resultStore.find(key);
+            if (stored != null) {
+                storeHits.increment();
+                return stored;
+            }
+        }
+
+        computations.increment();
+        SimulationResult result = optimizationService.simulateYogurtStockForYear(params);
+        byte[] serialized = serializer.serialize(result);
+
+        if (key != null) {
+            try {
+                resultStore.save(key, serialized);
+            } catch (RuntimeException e) {
+                // Le stockage n'est qu'un cache : la réponse reste valide
+                log.warn("Impossible d'enregistrer le résultat de simulation", e);
+            }
+        }
+        return serialized;
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
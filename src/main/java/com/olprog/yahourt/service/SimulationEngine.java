@@ -0,0 +1,786 @@
+package com.olprog.yahourt.service;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.jfr.SimulationEvent;
+import com.olprog.yahourt.model.CalendarOverrides;
+import com.olprog.yahourt.model.ConsumptionProfile;
+import com.olprog.yahourt.model.CostModel;
+import com.olprog.yahourt.model.DailyStockLevel;
+import com.olprog.yahourt.model.Granularity;
+import com.olprog.yahourt.model.OrderingPolicy;
+import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.SimulationSummary;
+import com.olprog.yahourt.model.Sku;
+import com.olprog.yahourt.model.SkuResult;
+import com.olprog.yahourt.model.StockBucket;
+import com.olprog.yahourt.model.StockSimulationParams;
+import com.olprog.yahourt.store.SimulationFingerprint;
+
+/**
+ * Simulation jour par jour d'une année de stock. Les paramètres sont convertis
+ * une fois pour toutes en valeurs primitives (jours epoch, consommation indexée
+ * par jour de la semaine, livraisons attendues indexées par jour) : la boucle
+ * quotidienne ne fait ni recherche dans une map ni parcours des commandes.
+ * <p>
+ * Plusieurs références peuvent être simulées dans la même boucle : chacune a
+ * son état primitif (stock, consommation, livraisons attendues), tandis que le
+ * calendrier, la date de livraison et la série restituée ne sont calculés
+ * qu'une fois par jour. Une simulation sans référence explicite en compte une.
+ * <p>
+ * Avec une durée de conservation, chaque livraison devient un lot daté, rangé
+ * dans une file circulaire primitive par référence : les lots sont consommés
+ * dans l'ordre d'arrivée (FIFO) et retirés du stock à leur péremption.
+ * <p>
+ * En politique de coût minimal, les commandes ne suivent pas la règle fixe :
+ * elles sont planifiées une fois à la construction par {@link LotSizingPlanner},
+ * puis rejouées par la même boucle pour produire un résultat comparable.
+ * <p>
+ * Chaque jour est transmis à un {@link DailyStockListener}, qui construit les
+ * lignes quotidiennes ou les agrégats par période selon la granularité ; il
+ * reçoit les valeurs cumulées de toutes les références.
+ */
+final class SimulationEngine {
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+
+    private static final int CHECKPOINT_VERSION = 4;
+    private static final int CHECKPOINT_HEADER_SIZE = 68;
+    private static final int CHECKPOINT_SKU_SIZE = 48;
+
+    private final int startDay;
+    private final int horizon;
+    private final int deliveryDelay;
+    private final int purchaseDay;
+
+    // Références : identifiants (null sans référence explicite) et paramètres
+    private final int skuCount;
+    private final String[] skuIds;
+    private final int[] packSizes;
+    private final int[][] weeklyConsumption;
+    private final int[] weeklyTotals;
+
+    // Exceptions au calendrier, triées par jour epoch
+    private final int[] overrideDays;
+    private final int[] overrideValues;
+    private final int[] blockedDays;
+
+    // Yaourts attendus, indexés par décalage depuis le début puis par référence
+    private final int[] incoming;
+
+    // Lots en stock (0 sans durée de conservation) : file circulaire par
+    // référence, de lotCapacity emplacements, triée par date de péremption
+    private final int shelfLife;
+    private final int lotCapacity;
+    private final int[] lotExpiries;
+    private final int[] lotQuantities;
+    private final int[] lotHeads;
+    private final int[] lotCounts;
+
+    // Coûts d'approvisionnement (null sans chiffrage) et, en politique de coût
+    // minimal, paquets planifiés indexés par décalage du jour d'achat
+    private final CostModel costModel;
+    private final int[] plannedPacks;
+
+    // Fenêtre restituée [windowStart, windowEnd) et taille de page, en décalages
+    private final int windowStart;
+    private final int windowEnd;
+    private final int pageSize;
+
+    // État courant
+    private int offset;
+    private int stock;
+    private final int[] skuStocks;
+    private int overrideCursor;
+    private int blockedCursor;
+
+    // Résultat et variables pour la synthèse, toutes références confondues
+    private final List<PurchaseRecommendation> purchaseRecommendations = new ArrayList<>();
+    private int totalPurchases;
+    private int totalYogurtsPurchased;
+    private int totalYogurtsConsumed;
+    private long sumStockLevels;
+    private long totalPacks;
+    private int minStockLevel = Integer.MAX_VALUE;
+    private int maxStockLevel = Integer.MIN_VALUE;
+    private int totalYogurtsExpired;
+    private double purchaseSpend;
+
+    // Mêmes cumuls par référence, renseignés en multi-références uniquement
+    private final List<PurchaseRecommendation>[] skuRecommendations;
+    private final int[] skuPurchases;
+    private final int[] skuPurchased;
+    private final int[] skuConsumed;
+    private final long[] skuSumStockLevels;
+    private final long[] skuPacks;
+    private final int[] skuMinStockLevels;
+    private final int[] skuMaxStockLevels;
+    private final int[] skuExpired;
+
+    @SuppressWarnings("unchecked")
+    private SimulationEngine(StockSimulationParams params) {
+        LocalDate startDate = params.getStartDate();
+        this.startDay = (int) startDate.toEpochDay();
+        this.horizon = (int) (startDate.plusYears(1).toEpochDay() - startDay);
+        this.deliveryDelay = params.getDeliveryDelay();
+        this.purchaseDay = params.getPurchaseDay().ordinal();
+
+        List<Sku> skus = params.getSkus();
+        this.skuCount = skus == null ? 1 : skus.size();
+        this.skuIds = skus == null ? null : new String[skuCount];
+        this.packSizes = new int[skuCount];
+        this.weeklyConsumption = new int[skuCount][7];
+        this.weeklyTotals = new int[skuCount];
+        this.skuStocks = new int[skuCount];
+        for (int s = 0; s < skuCount; s++) {
+            Sku sku = skus == null ? null : skus.get(s);
+            if (sku != null) {
+                skuIds[s] = sku.getId();
+            }
+            packSizes[s] = sku == null ? params.getPackSize() : sku.getPackSize();
+            skuStocks[s] = sku == null ? params.getInitialStock() : sku.getInitialStock();
+            stock += skuStocks[s];
+
+            ConsumptionProfile profile = sku == null ? params.getConsumptionProfile() : sku.getConsumptionProfile();
+            for (DayOfWeek day : DAYS) {
+                weeklyConsumption[s][day.ordinal()] = profile.getConsumptionForDay(day);
+                weeklyTotals[s] += weeklyConsumption[s][day.ordinal()];
+            }
+        }
+
+        this.skuRecommendations = skuIds == null ? null : new List[skuCount];
+        this.skuPurchases = new int[skuCount];
+        this.skuPurchased = new int[skuCount];
+        this.skuConsumed = new int[skuCount];
+        this.skuSumStockLevels = new long[skuCount];
+        this.skuPacks = new long[skuCount];
+        this.skuMinStockLevels = new int[skuCount];
+        this.skuMaxStockLevels = new int[skuCount];
+        this.skuExpired = new int[skuCount];
+        for (int s = 0; s < skuCount; s++) {
+            if (skuRecommendations != null) {
+                skuRecommendations[s] = new ArrayList<>();
+            }
+            skuMinStockLevels[s] = Integer.MAX_VALUE;
+            skuMaxStockLevels[s] = Integer.MIN_VALUE;
+        }
+
+        CalendarOverrides overrides = params.getCalendarOverrides() != null ? params.getCalendarOverrides()
+                : CalendarOverrides.NONE;
+        this.overrideDays = overrides.getConsumptionDays();
+        this.overrideValues = overrides.getConsumptionValues();
+        this.blockedDays = overrides.getBlockedDeliveryDays();
+
+        this.incoming = new int[horizon * skuCount];
+
+        // Au plus une livraison par commande hebdomadaire, plus le stock initial
+        this.shelfLife = params.getShelfLifeDays() == null ? 0 : params.getShelfLifeDays();
+        this.lotCapacity = shelfLife == 0 ? 0 : horizon / 7 + 2;
+        this.lotExpiries = new int[skuCount * lotCapacity];
+        this.lotQuantities = new int[skuCount * lotCapacity];
+        this.lotHeads = new int[skuCount];
+        this.lotCounts = new int[skuCount];
+        if (shelfLife > 0) {
+            for (int s = 0; s < skuCount; s++) {
+                addLot(s, startDay + shelfLife, skuStocks[s]);
+            }
+        }
+
+        this.costModel = params.getCostModel();
+        this.plannedPacks = params.getPolicy() == OrderingPolicy.COST_OPTIMAL ? planOrders(params) : null;
+
+        this.windowStart = params.getWindowStart() == null ? 0
+                : (int) Math.max(0, Math.min(horizon, params.getWindowStart().toEpochDay() - startDay));
+        this.windowEnd = params.getWindowEnd() == null ? horizon
+                : (int) Math.max(0, Math.min(horizon, params.getWindowEnd().toEpochDay() - startDay + 1));
+        this.pageSize = params.getPageSize() == null ? Integer.MAX_VALUE : params.getPageSize();
+
+        if (params.getCursor() != null) {
+            restore(params);
+        }
+    }
+
+    static SimulationResult simulate(StockSimulationParams params) {
+        SimulationEvent event = new SimulationEvent();
+        event.begin();
+        SimulationEngine engine = null;
+        int resumedAt = 0;
+        Granularity granularity = params.getGranularity() != null ? params.getGranularity() : Granularity.DAY;
+        SimulationResult result = null;
+        try {
+            engine = new SimulationEngine(params);
+            resumedAt = engine.offset;
+
+            // Les lignes quotidiennes ne sont construites qu'en granularité jour
+            if (granularity == Granularity.DAY) {
+                DailyStockLevelCollector collector = new DailyStockLevelCollector(Math.max(0,
+                        Math.min(engine.pageSize, engine.windowEnd - Math.max(engine.offset, engine.windowStart))));
+                String nextCursor = engine.run(collector, params, granularity);
+                result = engine.result(collector.getDailyStockLevels(), null, nextCursor);
+            } else {
+                StockBucketAggregator aggregator = new StockBucketAggregator(granularity);
+                String nextCursor = engine.run(aggregator, params, granularity);
+                result = engine.result(null, aggregator.finish(), nextCursor);
+            }
+        } finally {
+            // Enregistré aussi en cas d'échec (curseur invalide, paramètres refusés)
+            event.end();
+            if (event.shouldCommit()) {
+                event.startDate = params.getStartDate() != null ? params.getStartDate().toString() : null;
+                event.granularity = granularity.name();
+                event.resumed = params.getCursor() != null;
+                event.failed = result == null;
+                if (engine != null) {
+                    event.horizon = engine.horizon;
+                    event.daysSimulated = engine.offset - resumedAt;
+                    event.recommendations = engine.purchaseRecommendations.size();
+                }
+                event.commit();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Transmet les jours de la fenêtre au listener fourni, sans construire de
+     * série ; seule la synthèse est renvoyée.
+     */
+    static SimulationSummary simulate(StockSimulationParams params, DailyStockListener listener) {
+        SimulationEngine engine = new SimulationEngine(params);
+        engine.run(listener, params, Granularity.DAY);
+        return engine.result(null, null, null).getSummary();
+    }
+
+    /**
+     * Simule jusqu'à la fin de la fenêtre ou de la page. Une page compte des
+     * jours, des semaines ou des mois selon la granularité : elle ne s'arrête
+     * jamais au milieu d'une période agrégée.
+     *
+     * @return le curseur de la page suivante, ou {@code null} si la fenêtre est
+     *         entièrement restituée
+     */
+    private String run(DailyStockListener listener, StockSimulationParams params, Granularity granularity) {
+        int emitted = 0;
+        int nextPeriodStart = Integer.MIN_VALUE;
+        // Inutile de simuler au-delà de la fenêtre demandée
+        while (offset < windowEnd) {
+            int day = startDay + offset;
+            boolean visible = offset >= windowStart;
+            step(listener, visible);
+            offset++;
+            if (!visible) {
+                continue;
+            }
+
+            if (granularity != Granularity.DAY) {
+                if (day >= nextPeriodStart) {
+                    nextPeriodStart = StockBucketAggregator.nextPeriodStart(granularity, day);
+                }
+                if (day + 1 < nextPeriodStart) {
+                    continue;
+                }
+            }
+            if (++emitted == pageSize && offset < windowEnd) {
+                return checkpoint(params);
+            }
+        }
+        return null;
+    }
+
+    private void step(DailyStockListener listener, boolean visible) {
+        int day = startDay + offset;
+        int dayOfWeek = dayOfWeek(day);
+        int override = overrideFor(day);
+        int base = offset * skuCount;
+
+        // Péremption des lots, puis livraison prévue ce jour
+        int delivered = 0;
+        for (int s = 0; s < skuCount; s++) {
+            int yogurts = incoming[base + s];
+            if (shelfLife > 0) {
+                stock -= expireLots(s, day);
+                addLot(s, day + shelfLife, yogurts);
+            }
+            skuStocks[s] += yogurts;
+            delivered += yogurts;
+            if (skuIds != null) {
+                skuPurchased[s] += yogurts;
+                skuSumStockLevels[s] += skuStocks[s];
+                skuMinStockLevels[s] = Math.min(skuMinStockLevels[s], skuStocks[s]);
+                skuMaxStockLevels[s] = Math.max(skuMaxStockLevels[s], skuStocks[s]);
+            }
+        }
+        boolean isDeliveryDay = delivered > 0;
+        stock += delivered;
+        totalYogurtsPurchased += delivered;
+
+        // Mise à jour des statistiques
+        sumStockLevels += stock;
+        minStockLevel = Math.min(minStockLevel, stock);
+        maxStockLevel = Math.max(maxStockLevel, stock);
+
+        boolean isPurchaseDay = dayOfWeek == purchaseDay;
+        int stockLevel = stock;
+
+        if (isPurchaseDay) {
+            purchase(day, dayOfWeek, visible);
+        }
+
+        // Consommation du jour
+        int dailyConsumption = 0;
+        int consumedToday = 0;
+        for (int s = 0; s < skuCount; s++) {
+            int demand = override >= 0 ? override : weeklyConsumption[s][dayOfWeek];
+            int consumed = Math.min(skuStocks[s], demand);
+            skuStocks[s] -= consumed;
+            if (shelfLife > 0) {
+                consumeLots(s, consumed);
+            }
+            dailyConsumption += demand;
+            consumedToday += consumed;
+            if (skuIds != null) {
+                skuConsumed[s] += consumed;
+            }
+        }
+        stock -= consumedToday;
+        totalYogurtsConsumed += consumedToday;
+
+        if (visible) {
+            listener.onDay(day, stockLevel, isDeliveryDay, isPurchaseDay, dailyConsumption, consumedToday);
+        }
+    }
+
+    private void purchase(int day, int dayOfWeek, boolean visible) {
+        // Date de livraison commune, calculée seulement si une référence est commandée
+        int deliveryDay = -1;
+        int orderPacks = 0;
+        int orderYogurts = 0;
+
+        for (int s = 0; s < skuCount; s++) {
+            int packsToBuy;
+            if (plannedPacks != null) {
+                // Plan de coût minimal : une seule référence, sans péremption
+                packsToBuy = plannedPacks[offset];
+            } else {
+                // Projection sur plus d'une semaine pour éviter les ruptures
+                int projectedConsumption = projectedConsumption(s, day, dayOfWeek, deliveryDelay + 7);
+                int usableStock = shelfLife > 0 ? usableStock(s, day, dayOfWeek) : skuStocks[s];
+                packsToBuy = packsToBuy(projectedConsumption, usableStock, packSizes[s]);
+            }
+            if (packsToBuy == 0) {
+                continue;
+            }
+
+            if (deliveryDay < 0) {
+                deliveryDay = deliveryDayFor(day + deliveryDelay);
+            }
+            int yogurts = packsToBuy * packSizes[s];
+            if (deliveryDay - startDay < horizon) {
+                incoming[(deliveryDay - startDay) * skuCount + s] += yogurts;
+            }
+            orderPacks += packsToBuy;
+            orderYogurts += yogurts;
+
+            if (skuIds != null) {
+                skuPurchases[s]++;
+                skuPacks[s] += packsToBuy;
+                if (visible) {
+                    skuRecommendations[s].add(recommendation(day, deliveryDay, packsToBuy, skuStocks[s], yogurts));
+                }
+            }
+        }
+
+        if (orderPacks > 0) {
+            totalPurchases++;
+            totalPacks += orderPacks;
+            if (costModel != null) {
+                purchaseSpend += costModel.purchaseCost(orderPacks);
+            }
+            if (visible) {
+                purchaseRecommendations.add(recommendation(day, deliveryDay, orderPacks, stock, orderYogurts));
+            }
+        }
+    }
+
+    private static PurchaseRecommendation recommendation(int day, int deliveryDay, int packsToBuy, int stock,
+            int yogurts) {
+        return PurchaseRecommendation.builder()
+                .orderDate(LocalDate.ofEpochDay(day))
+                .deliveryDate(LocalDate.ofEpochDay(deliveryDay))
+                .packsToBuy(packsToBuy)
+                .stockBeforePurchase(stock)
+                .stockAfterDelivery(stock + yogurts)
+                .build();
+    }
+
+    private SimulationResult result(List<DailyStockLevel> dailyStockLevels, List<StockBucket> stockBuckets,
+            String nextCursor) {
+        SimulationSummary summary = summary(totalPurchases, totalYogurtsPurchased, totalYogurtsConsumed,
+                sumStockLevels, totalPacks, minStockLevel, maxStockLevel, totalYogurtsExpired);
+        if (costModel != null) {
+            // Stockage compté sur le stock après livraison de chaque jour simulé
+            summary.setTotalCost(totalPurchases * costModel.getFixedOrderCost() + purchaseSpend
+                    + sumStockLevels * costModel.getHoldingCostPerUnitDay());
+        }
+
+        List<SkuResult> skuResults = null;
+        if (skuIds != null) {
+            skuResults = new ArrayList<>(skuCount);
+            for (int s = 0; s < skuCount; s++) {
+                skuResults.add(SkuResult.builder()
+                        .skuId(skuIds[s])
+                        .purchaseRecommendations(skuRecommendations[s])
+                        .summary(summary(skuPurchases[s], skuPurchased[s], skuConsumed[s], skuSumStockLevels[s],
+                                skuPacks[s], skuMinStockLevels[s], skuMaxStockLevels[s], skuExpired[s]))
+                        .build());
+            }
+        }
+
+        return SimulationResult.builder()
+                .purchaseRecommendations(purchaseRecommendations)
+                .dailyStockLevels(dailyStockLevels)
+                .stockBuckets(stockBuckets)
+                .summary(summary)
+                .skus(skuResults)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private SimulationSummary summary(int purchases, int purchased, int consumed, long sumStock, long packs,
+            int min, int max, int expired) {
+        // La synthèse porte sur les jours simulés depuis le début, pages précédentes comprises
+        int averageStockLevel = offset > 0 ? (int) (sumStock / offset) : 0;
+        double averagePacksToBuy = purchases == 0 ? 0 : (double) packs / purchases;
+
+        return SimulationSummary.builder()
+                .totalPurchases(purchases)
+                .totalYogurtsPurchased(purchased)
+                .totalYogurtsConsumed(consumed)
+                .averageStockLevel(averageStockLevel)
+                .minimumStockLevel(min == Integer.MAX_VALUE ? 0 : min)
+                .maximumStockLevel(max == Integer.MIN_VALUE ? 0 : max)
+                .averagePacksToBuy(averagePacksToBuy)
+                .partial(offset < horizon)
+                .expiredYogurts(expired)
+                .build();
+    }
+
+    /**
+     * Encode l'état du moteur au début du prochain jour à simuler : stocks,
+     * livraisons encore attendues et cumuls de la synthèse. Le curseur porte
+     * l'empreinte du modèle simulé pour refuser une reprise avec d'autres
+     * paramètres.
+     */
+    private String checkpoint(StockSimulationParams params) {
+        int pending = 0;
+        for (int i = offset * skuCount; i < incoming.length; i++) {
+            if (incoming[i] > 0) {
+                pending++;
+            }
+        }
+
+        int lots = 0;
+        for (int s = 0; s < skuCount; s++) {
+            lots += lotCounts[s];
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(
+                CHECKPOINT_HEADER_SIZE + skuCount * CHECKPOINT_SKU_SIZE + lots * 8 + 4 + pending * 8);
+        buffer.putInt(CHECKPOINT_VERSION)
+                .putLong(SimulationFingerprint.ofModel(params).low())
+                .putInt(offset)
+                .putInt(totalPurchases)
+                .putInt(totalYogurtsPurchased)
+                .putInt(totalYogurtsConsumed)
+                .putLong(sumStockLevels)
+                .putLong(totalPacks)
+                .putInt(minStockLevel)
+                .putInt(maxStockLevel)
+                .putInt(totalYogurtsExpired)
+                .putDouble(purchaseSpend)
+                .putInt(skuCount);
+        for (int s = 0; s < skuCount; s++) {
+            buffer.putInt(skuStocks[s])
+                    .putInt(skuPurchases[s])
+                    .putInt(skuPurchased[s])
+                    .putInt(skuConsumed[s])
+                    .putLong(skuSumStockLevels[s])
+                    .putLong(skuPacks[s])
+                    .putInt(skuMinStockLevels[s])
+                    .putInt(skuMaxStockLevels[s])
+                    .putInt(skuExpired[s])
+                    .putInt(lotCounts[s]);
+            for (int i = 0; i < lotCounts[s]; i++) {
+                int slot = lotSlot(s, i);
+                buffer.putInt(lotExpiries[slot]).putInt(lotQuantities[slot]);
+            }
+        }
+        buffer.putInt(pending);
+        for (int i = offset * skuCount; i < incoming.length; i++) {
+            if (incoming[i] > 0) {
+                buffer.putInt(i).putInt(incoming[i]);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    private void restore(StockSimulationParams params) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(params.getCursor()));
+            if (buffer.getInt() != CHECKPOINT_VERSION
+                    || buffer.getLong() != SimulationFingerprint.ofModel(params).low()) {
+                throw invalidCursor();
+            }
+            offset = buffer.getInt();
+            totalPurchases = buffer.getInt();
+            totalYogurtsPurchased = buffer.getInt();
+            totalYogurtsConsumed = buffer.getInt();
+            sumStockLevels = buffer.getLong();
+            totalPacks = buffer.getLong();
+            minStockLevel = buffer.getInt();
+            maxStockLevel = buffer.getInt();
+            totalYogurtsExpired = buffer.getInt();
+            purchaseSpend = buffer.getDouble();
+            if (offset < 0 || offset > horizon || buffer.getInt() != skuCount) {
+                throw invalidCursor();
+            }
+            stock = 0;
+            for (int s = 0; s < skuCount; s++) {
+                skuStocks[s] = buffer.getInt();
+                skuPurchases[s] = buffer.getInt();
+                skuPurchased[s] = buffer.getInt();
+                skuConsumed[s] = buffer.getInt();
+                skuSumStockLevels[s] = buffer.getLong();
+                skuPacks[s] = buffer.getLong();
+                skuMinStockLevels[s] = buffer.getInt();
+                skuMaxStockLevels[s] = buffer.getInt();
+                skuExpired[s] = buffer.getInt();
+                int lots = buffer.getInt();
+                if (skuStocks[s] < 0 || lots < 0 || lots > lotCapacity) {
+                    throw invalidCursor();
+                }
+                // Lots encore en stock au jour repris, triés par péremption, qui forment tout le stock
+                lotCounts[s] = 0;
+                long lotTotal = 0;
+                int previousExpiry = startDay + offset;
+                for (int i = 0; i < lots; i++) {
+                    int expiry = buffer.getInt();
+                    int quantity = buffer.getInt();
+                    if (quantity <= 0 || expiry < previousExpiry) {
+                        throw invalidCursor();
+                    }
+                    addLot(s, expiry, quantity);
+                    lotTotal += quantity;
+                    previousExpiry = expiry;
+                }
+                if (shelfLife > 0 && lotTotal != skuStocks[s]) {
+                    throw invalidCursor();
+                }
+                stock += skuStocks[s];
+            }
+            int pending = buffer.getInt();
+            if (pending < 0 || pending > buffer.remaining() / 8) {
+                throw invalidCursor();
+            }
+            for (int i = 0; i < pending; i++) {
+                int index = buffer.getInt();
+                int yogurts = buffer.getInt();
+                if (index < offset * skuCount || index >= incoming.length || yogurts < 0) {
+                    throw invalidCursor();
+                }
+                incoming[index] = yogurts;
+            }
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static ValidationException invalidCursor() {
+        return new ValidationException("Curseur de pagination invalide ou issu d'autres paramètres");
+    }
+
+    /**
+     * Règle de commande : couvrir la consommation projetée, arrondie au paquet
+     * supérieur.
+     */
+    static int packsToBuy(int projectedConsumption, int currentStock, int packSize) {
+        int neededYogurts = Math.max(0, projectedConsumption - currentStock);
+        return (neededYogurts + packSize - 1) / packSize;
+    }
+
+    /**
+     * Jour de la semaine (ordinal de {@link DayOfWeek}) d'un jour epoch : le
+     * 1er janvier 1970 était un jeudi.
+     */
+    static int dayOfWeek(int epochDay) {
+        return Math.floorMod(epochDay + 3, 7);
+    }
+
+    /**
+     * Consommation imposée par le calendrier pour ce jour, ou -1 si le profil
+     * hebdomadaire s'applique.
+     */
+    private int overrideFor(int day) {
+        // Le curseur reste sur la première exception >= aujourd'hui
+        while (overrideCursor < overrideDays.length && overrideDays[overrideCursor] < day) {
+            overrideCursor++;
+        }
+        if (overrideCursor < overrideDays.length && overrideDays[overrideCursor] == day) {
+            return overrideValues[overrideCursor];
+        }
+        return -1;
+    }
+
+    /**
+     * Consommation prévue par le profil hebdomadaire sur {@code days} jours à
+     * partir d'un jour de la semaine donné, en O(7) quel que soit l'horizon.
+     */
+    static int weeklyProjection(int[] weeklyConsumption, int weeklyTotal, int fromDayOfWeek, int days) {
+        int projected = (days / 7) * weeklyTotal;
+        for (int i = 0, remaining = days % 7; i < remaining; i++) {
+            projected += weeklyConsumption[(fromDayOfWeek + i) % 7];
+        }
+        return projected;
+    }
+
+    private int projectedConsumption(int sku, int fromDay, int fromDayOfWeek, int days) {
+        int[] weekly = weeklyConsumption[sku];
+        int projected = weeklyProjection(weekly, weeklyTotals[sku], fromDayOfWeek, days);
+        // Correction pour les exceptions comprises dans la fenêtre de projection
+        for (int i = overrideCursor; i < overrideDays.length && overrideDays[i] < fromDay + days; i++) {
+            projected += overrideValues[i] - weekly[dayOfWeek(overrideDays[i])];
+        }
+        return projected;
+    }
+
+    private void addLot(int sku, int expiry, int quantity) {
+        if (quantity > 0) {
+            int slot = lotSlot(sku, lotCounts[sku]);
+            lotExpiries[slot] = expiry;
+            lotQuantities[slot] = quantity;
+            lotCounts[sku]++;
+        }
+    }
+
+    private int lotSlot(int sku, int index) {
+        return sku * lotCapacity + (lotHeads[sku] + index) % lotCapacity;
+    }
+
+    /**
+     * Retire du stock les lots périmés au début de ce jour.
+     *
+     * @return le nombre de yaourts jetés
+     */
+    private int expireLots(int sku, int day) {
+        int expired = 0;
+        while (lotCounts[sku] > 0 && lotExpiries[lotSlot(sku, 0)] <= day) {
+            expired += lotQuantities[lotSlot(sku, 0)];
+            removeHeadLot(sku);
+        }
+        if (expired > 0) {
+            skuStocks[sku] -= expired;
+            skuExpired[sku] += expired;
+            totalYogurtsExpired += expired;
+        }
+        return expired;
+    }
+
+    private void consumeLots(int sku, int consumed) {
+        while (consumed > 0 && lotCounts[sku] > 0) {
+            int slot = lotSlot(sku, 0);
+            int taken = Math.min(consumed, lotQuantities[slot]);
+            lotQuantities[slot] -= taken;
+            consumed -= taken;
+            if (lotQuantities[slot] == 0) {
+                removeHeadLot(sku);
+            }
+        }
+    }
+
+    private void removeHeadLot(int sku) {
+        lotHeads[sku] = (lotHeads[sku] + 1) % lotCapacity;
+        lotCounts[sku]--;
+    }
+
+    /**
+     * Stock qui sera consommé avant de périmer, si la consommation suit le
+     * profil : chaque lot, dans l'ordre FIFO, ne compte que pour la part que la
+     * consommation prévue atteint avant sa date de péremption.
+     */
+    private int usableStock(int sku, int day, int dayOfWeek) {
+        int usable = 0;
+        for (int i = 0; i < lotCounts[sku]; i++) {
+            int slot = lotSlot(sku, i);
+            int consumableBeforeExpiry = projectedConsumption(sku, day, dayOfWeek, lotExpiries[slot] - day) - usable;
+            if (consumableBeforeExpiry > 0) {
+                usable += Math.min(lotQuantities[slot], consumableBeforeExpiry);
+            }
+        }
+        return usable;
+    }
+
+    /**
+     * Calcule le plan de coût minimal de l'horizon : demande jour par jour
+     * (exceptions comprises) et livraison de chaque jour d'achat.
+     *
+     * @return les paquets à commander, indexés par décalage du jour d'achat
+     */
+    private int[] planOrders(StockSimulationParams params) {
+        int[] demand = new int[horizon];
+        int cursor = 0;
+        for (int t = 0; t < horizon; t++) {
+            int day = startDay + t;
+            while (cursor < overrideDays.length && overrideDays[cursor] < day) {
+                cursor++;
+            }
+            demand[t] = cursor < overrideDays.length && overrideDays[cursor] == day ? overrideValues[cursor]
+                    : weeklyConsumption[0][dayOfWeek(day)];
+        }
+
+        // Jours d'achat dont la livraison tombe dans l'horizon
+        int firstPurchase = Math.floorMod(purchaseDay - dayOfWeek(startDay), 7);
+        int[] purchases = new int[horizon / 7 + 1];
+        int[] arrivals = new int[purchases.length];
+        int slots = 0;
+        for (int t = firstPurchase; t < horizon; t += 7) {
+            int arrival = deliveryDayFor(startDay + t + deliveryDelay) - startDay;
+            if (arrival >= horizon) {
+                break;
+            }
+            purchases[slots] = t;
+            arrivals[slots++] = arrival;
+        }
+
+        int[] packs = LotSizingPlanner.plan(demand, params.getInitialStock(), Arrays.copyOf(arrivals, slots),
+                params.getPackSize(), costModel);
+        int[] planned = new int[horizon];
+        for (int i = 0; i < slots; i++) {
+            planned[purchases[i]] = packs[i];
+        }
+        return planned;
+    }
+
+    private int deliveryDayFor(int expectedDay) {
+        int today = startDay + offset;
+        while (blockedCursor < blockedDays.length && blockedDays[blockedCursor] < today) {
+            blockedCursor++;
+        }
+        // Report au premier jour sans blocage
+        int deliveryDay = expectedDay;
+        for (int i = blockedCursor; i < blockedDays.length && blockedDays[i] <= deliveryDay; i++) {
+            if (blockedDays[i] == deliveryDay) {
+                deliveryDay++;
+            }
+        }
+        return deliveryDay;
+    }
+}
@@ -0,0 +1,441 @@
+package com.olprog.yahourt.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import com.olprog.yahourt.model.DailyStockLevel;
+import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.SimulationSummary;
+import com.olprog.yahourt.model.SkuResult;
+import com.olprog.yahourt.model.StockBucket;
+
+/**
+ * Écriture JSON dédiée de {@link SimulationResult}, octet pour octet identique
+ * à la sérialisation Jackson (ordre des propriétés fixé par
+ * {@code @JsonPropertyOrder}, mêmes règles d'inclusion des valeurs nulles).
+ * <p>
+ * Les noms de propriétés sont pré-encodés et les dates ISO des années
+ * 1970-2199 sont lues dans une table précalculée : une ligne quotidienne ne
+ * coûte ni réflexion ni formatage de date. Le tampon d'écriture est réutilisé
+ * par thread ; seule la copie finale est allouée.
+ */
+final class SimulationResultJsonWriter {
+
+    private static final int DATE_LENGTH = 10;
+    private static final int FIRST_TABLE_DAY = (int) LocalDate.of(1970, 1, 1).toEpochDay();
+    private static final int LAST_TABLE_DAY = (int) LocalDate.of(2200, 1, 1).toEpochDay();
+    private static final byte[] DATE_TABLE = buildDateTable();
+
+    private static final byte[] RESULT_START = ascii("{\"purchaseRecommendations\":");
+    private static final byte[] DAILY_STOCK_LEVELS = ascii(",\"dailyStockLevels\":");
+    private static final byte[] STOCK_BUCKETS = ascii(",\"stockBuckets\":");
+    private static final byte[] SUMMARY = ascii(",\"summary\":");
+    private static final byte[] SKUS = ascii(",\"skus\":");
+    private static final byte[] NEXT_CURSOR = ascii(",\"nextCursor\":");
+
+    private static final byte[] SKU_ID = ascii("{\"skuId\":");
+    private static final byte[] SKU_PURCHASE_RECOMMENDATIONS = ascii(",\"purchaseRecommendations\":");
+
+    private static final byte[] ORDER_DATE = ascii("{\"orderDate\":");
+    private static final byte[] DELIVERY_DATE = ascii(",\"deliveryDate\":");
+    private static final byte[] PACKS_TO_BUY = ascii(",\"packsToBuy\":");
+    private static final byte[] STOCK_BEFORE_PURCHASE = ascii(",\"stockBeforePurchase\":");
+    private static final byte[] STOCK_AFTER_DELIVERY = ascii(",\"stockAfterDelivery\":");
+
+    private static final byte[] DATE = ascii("{\"date\":");
+    private static final byte[] STOCK_LEVEL = ascii(",\"stockLevel\":");
+    private static final byte[] CONSUMPTION = ascii(",\"consumption\":");
+    private static final byte[] DELIVERY_DAY_TRUE = ascii(",\"deliveryDay\":true");
+    private static final byte[] DELIVERY_DAY_FALSE = ascii(",\"deliveryDay\":false");
+    private static final byte[] PURCHASE_DAY_TRUE = ascii(",\"purchaseDay\":true}");
+    private static final byte[] PURCHASE_DAY_FALSE = ascii(",\"purchaseDay\":false}");
+
+    private static final byte[] PERIOD_START = ascii("{\"periodStart\":");
+    private static final byte[] PERIOD_END = ascii(",\"periodEnd\":");
+    private static final byte[] DAYS = ascii(",\"days\":");
+    private static final byte[] MINIMUM_STOCK_LEVEL = ascii(",\"minimumStockLevel\":");
+    private static final byte[] AVERAGE_STOCK_LEVEL = ascii(",\"averageStockLevel\":");
+    private static final byte[] MAXIMUM_STOCK_LEVEL = ascii(",\"maximumStockLevel\":");
+    private static final byte[] TOTAL_CONSUMPTION = ascii(",\"totalConsumption\":");
+    private static final byte[] DELIVERIES = ascii(",\"deliveries\":");
+    private static final byte[] STOCKOUT_DAYS = ascii(",\"stockoutDays\":");
+
+    private static final byte[] TOTAL_PURCHASES = ascii("{\"totalPurchases\":");
+    private static final byte[] TOTAL_YOGURTS_PURCHASED = ascii(",\"totalYogurtsPurchased\":");
+    private static final byte[] TOTAL_YOGURTS_CONSUMED = ascii(",\"totalYogurtsConsumed\":");
+    private static final byte[] SUMMARY_AVERAGE_STOCK_LEVEL = ascii(",\"averageStockLevel\":");
+    private static final byte[] AVERAGE_PACKS_TO_BUY = ascii(",\"averagePacksToBuy\":");
+    private static final byte[] PARTIAL_TRUE = ascii(",\"partial\":true");
+    private static final byte[] EXPIRED_YOGURTS = ascii(",\"expiredYogurts\":");
+    private static final byte[] TOTAL_COST = ascii(",\"totalCost\":");
+
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+    private static final byte[] MIN_INT = ascii(Integer.toString(Integer.MIN_VALUE));
+
+    private static final ThreadLocal<SimulationResultJsonWriter> WRITERS = ThreadLocal
+            .withInitial(SimulationResultJsonWriter::new);
+    private static final int RETAINED_BUFFER_SIZE = 1 << 20;
+
+    private byte[] buffer = new byte[64 * 1024];
+    private int position;
+
+    private SimulationResultJsonWriter() {
+    }
+
+    static byte[] toBytes(SimulationResult result) {
+        SimulationResultJsonWriter writer = WRITERS.get();
+        writer.write(result);
+        byte[] bytes = Arrays.copyOf(writer.buffer, writer.position);
+        writer.reset();
+        return bytes;
+    }
+
+    static void writeTo(SimulationResult result, OutputStream out) throws IOException {
+        SimulationResultJsonWriter writer = WRITERS.get();
+        writer.write(result);
+        try {
+            out.write(writer.buffer, 0, writer.position);
+        } finally {
+            writer.reset();
+        }
+    }
+
+    private void reset() {
+        position = 0;
+        // Ne pas garder indéfiniment le tampon d'un résultat exceptionnellement gros
+        if (buffer.length > RETAINED_BUFFER_SIZE) {
+            buffer = new byte[64 * 1024];
+        }
+    }
+
+    private void write(SimulationResult result) {
+        if (result == null) {
+            raw(NULL);
+            return;
+        }
+        raw(RESULT_START);
+        writePurchases(result.getPurchaseRecommendations());
+
+        List<DailyStockLevel> levels = result.getDailyStockLevels();
+        if (levels != null) {
+            raw(DAILY_STOCK_LEVELS);
+            raw('[');
+            for (int i = 0; i < levels.size(); i++) {
+                if (i > 0) {
+                    raw(',');
+                }
+                writeLevel(levels.get(i));
+            }
+            raw(']');
+        }
+
+        List<StockBucket> buckets = result.getStockBuckets();
+        if (buckets != null) {
+            raw(STOCK_BUCKETS);
+            raw('[');
+            for (int i = 0; i < buckets.size(); i++) {
+                if (i > 0) {
+                    raw(',');
+                }
+                writeBucket(buckets.get(i));
+            }
+            raw(']');
+        }
+
+        raw(SUMMARY);
+        writeSummary(result.getSummary());
+
+        List<SkuResult> skus = result.getSkus();
+        if (skus != null) {
+            raw(SKUS);
+            raw('[');
+            for (int i = 0; i < skus.size(); i++) {
+                if (i > 0) {
+                    raw(',');
+                }
+                writeSku(skus.get(i));
+            }
+            raw(']');
+        }
+
+        if (result.getNextCursor() != null) {
+            raw(NEXT_CURSOR);
+            writeString(result.getNextCursor());
+        }
+        raw('}');
+    }
+
+    private void writePurchases(List<PurchaseRecommendation> purchases) {
+        if (purchases == null) {
+            raw(NULL);
+            return;
+        }
+        raw('[');
+        for (int i = 0; i < purchases.size(); i++) {
+            if (i > 0) {
+                raw(',');
+            }
+            writePurchase(purchases.get(i));
+        }
+        raw(']');
+    }
+
+    private void writeSku(SkuResult sku) {
+        if (sku == null) {
+            raw(NULL);
+            return;
+        }
+        raw(SKU_ID);
+        writeText(sku.getSkuId());
+        raw(SKU_PURCHASE_RECOMMENDATIONS);
+        writePurchases(sku.getPurchaseRecommendations());
+        raw(SUMMARY);
+        writeSummary(sku.getSummary());
+        raw('}');
+    }
+
+    private void writePurchase(PurchaseRecommendation purchase) {
+        if (purchase == null) {
+            raw(NULL);
+            return;
+        }
+        raw(ORDER_DATE);
+        writeDate(purchase.getOrderDate());
+        raw(DELIVERY_DATE);
+        writeDate(purchase.getDeliveryDate());
+        raw(PACKS_TO_BUY);
+        writeInt(purchase.getPacksToBuy());
+        raw(STOCK_BEFORE_PURCHASE);
+        writeInt(purchase.getStockBeforePurchase());
+        raw(STOCK_AFTER_DELIVERY);
+        writeInt(purchase.getStockAfterDelivery());
+        raw('}');
+    }
+
+    private void writeLevel(DailyStockLevel level) {
+        if (level == null) {
+            raw(NULL);
+            return;
+        }
+        raw(DATE);
+        writeDate(level.getDate());
+        raw(STOCK_LEVEL);
+        writeInt(level.getStockLevel());
+        raw(CONSUMPTION);
+        writeInt(level.getConsumption());
+        raw(level.isDeliveryDay() ? DELIVERY_DAY_TRUE : DELIVERY_DAY_FALSE);
+        raw(level.isPurchaseDay() ? PURCHASE_DAY_TRUE : PURCHASE_DAY_FALSE);
+    }
+
+    private void writeBucket(StockBucket bucket) {
+        if (bucket == null) {
+            raw(NULL);
+            return;
+        }
+        raw(PERIOD_START);
+        writeDate(bucket.getPeriodStart());
+        raw(PERIOD_END);
+        writeDate(bucket.getPeriodEnd());
+        raw(DAYS);
+        writeInt(bucket.getDays());
+        raw(MINIMUM_STOCK_LEVEL);
+        writeInt(bucket.getMinimumStockLevel());
+        raw(AVERAGE_STOCK_LEVEL);
+        writeDouble(bucket.getAverageStockLevel());
+        raw(MAXIMUM_STOCK_LEVEL);
+        writeInt(bucket.getMaximumStockLevel());
+        raw(TOTAL_CONSUMPTION);
+        writeInt(bucket.getTotalConsumption());
+        raw(DELIVERIES);
+        writeInt(bucket.getDeliveries());
+        raw(STOCKOUT_DAYS);
+        writeInt(bucket.getStockoutDays());
+        raw('}');
+    }
+
+    private void writeSummary(SimulationSummary summary) {
+        if (summary == null) {
+            raw(NULL);
+            return;
+        }
+        raw(TOTAL_PURCHASES);
+        writeInt(summary.getTotalPurchases());
+        raw(TOTAL_YOGURTS_PURCHASED);
+        writeInt(summary.getTotalYogurtsPurchased());
+        raw(TOTAL_YOGURTS_CONSUMED);
+        writeInt(summary.getTotalYogurtsConsumed());
+        raw(SUMMARY_AVERAGE_STOCK_LEVEL);
+        writeInt(summary.getAverageStockLevel());
+        raw(MINIMUM_STOCK_LEVEL);
+        writeInt(summary.getMinimumStockLevel());
+        raw(MAXIMUM_STOCK_LEVEL);
+        writeInt(summary.getMaximumStockLevel());
+        raw(AVERAGE_PACKS_TO_BUY);
+        writeDouble(summary.getAveragePacksToBuy());
+        if (summary.isPartial()) {
+            raw(PARTIAL_TRUE);
+        }
+        if (summary.getExpiredYogurts() != 0) {
+            raw(EXPIRED_YOGURTS);
+            writeInt(summary.getExpiredYogurts());
+        }
+        if (summary.getTotalCost() != null) {
+            raw(TOTAL_COST);
+            writeDouble(summary.getTotalCost());
+        }
+        raw('}');
+    }
+
+    private void writeDate(LocalDate date) {
+        if (date == null) {
+            raw(NULL);
+            return;
+        }
+        long epochDay = date.toEpochDay();
+        if (epochDay >= FIRST_TABLE_DAY && epochDay < LAST_TABLE_DAY) {
+            ensure(DATE_LENGTH + 2);
+            buffer[position++] = '"';
+            System.arraycopy(DATE_TABLE, (int) (epochDay - FIRST_TABLE_DAY) * DATE_LENGTH, buffer, position,
+                    DATE_LENGTH);
+            position += DATE_LENGTH;
+            buffer[position++] = '"';
+        } else {
+            writeString(date.toString());
+        }
+    }
+
+    private void writeInt(int value) {
+        if (value == Integer.MIN_VALUE) {
+            raw(MIN_INT);
+            return;
+        }
+        ensure(11);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = digitCount(value);
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private void writeDouble(double value) {
+        // Même représentation que Jackson (Double.toString)
+        raw(ascii(Double.toString(value)));
+    }
+
+    private void writeString(String value) {
+        // Seules des chaînes ASCII sans caractère à échapper passent ici
+        // (curseurs en base64 URL, dates ISO)
+        ensure(value.length() + 2);
+        buffer[position++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+        buffer[position++] = '"';
+    }
+
+    /**
+     * Chaîne quelconque (identifiants saisis par l'utilisateur), échappée comme
+     * Jackson : guillemet, barre oblique inverse et caractères de contrôle ;
+     * le reste est écrit en UTF-8.
+     */
+    private void writeText(String value) {
+        if (value == null) {
+            raw(NULL);
+            return;
+        }
+        raw('"');
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Suite de caractères non ASCII, encodée d'un bloc
+                int end = i + 1;
+                while (end < length && value.charAt(end) >= 0x80) {
+                    end++;
+                }
+                raw(value.substring(i, end).getBytes(StandardCharsets.UTF_8));
+                i = end;
+                continue;
+            }
+            ensure(6);
+            if (c == '"' || c == '\\') {
+                buffer[position++] = '\\';
+                buffer[position++] = (byte) c;
+            } else if (c >= 0x20) {
+                buffer[position++] = (byte) c;
+            } else {
+                buffer[position++] = '\\';
+                switch (c) {
+                    case '\b' -> buffer[position++] = 'b';
+                    case '\t' -> buffer[position++] = 't';
+                    case '\n' -> buffer[position++] = 'n';
+                    case '\f' -> buffer[position++] = 'f';
+                    case '\r' -> buffer[position++] = 'r';
+                    default -> {
+                        buffer[position++] = 'u';
+                        buffer[position++] = '0';
+                        buffer[position++] = '0';
+                        buffer[position++] = HEX[c >> 4];
+                        buffer[position++] = HEX[c & 0xF];
+                    }
+                }
+            }
+            i++;
+        }
+        raw('"');
+    }
+
+    private void raw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void raw(char c) {
+        ensure(1);
+        buffer[position++] = (byte) c;
+    }
+
+    private void ensure(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+
+    private static int digitCount(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static byte[] buildDateTable() {
+        byte[] table = new byte[(LAST_TABLE_DAY - FIRST_TABLE_DAY) * DATE_LENGTH];
+        LocalDate date = LocalDate.ofEpochDay(FIRST_TABLE_DAY);
+        for (int i = 0; i < LAST_TABLE_DAY - FIRST_TABLE_DAY; i++) {
+            byte[] iso = ascii(date.toString());
+            System.arraycopy(iso, 0, table, i * DATE_LENGTH, DATE_LENGTH);
+            date = date.plusDays(1);
+        }
+        return table;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
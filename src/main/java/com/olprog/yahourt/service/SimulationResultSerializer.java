@@ -0,0 +1,33 @@
+package com.olprog.yahourt.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.olprog.yahourt.jfr.SerializationEvent;
+import com.olprog.yahourt.model.SimulationResult;
+
+/**
+ * Sérialise un résultat de simulation en JSON une seule fois, pour que les
+ * octets puissent être partagés entre plusieurs réponses.
+ */
+@Component
+public class SimulationResultSerializer {
+
+    public byte[] serialize(SimulationResult result) {
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        byte[] bytes = SimulationResultJsonWriter.toBytes(result);
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = bytes.length;
+            event.commit();
+        }
+        return bytes;
+    }
+
+    public void writeTo(SimulationResult result, OutputStream out) throws IOException {
+        SimulationResultJsonWriter.writeTo(result, out);
+    }
+}
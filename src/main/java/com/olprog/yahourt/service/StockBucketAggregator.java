@@ -0,0 +1,99 @@
+package com.olprog.yahourt.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.olprog.yahourt.model.Granularity;
+import com.olprog.yahourt.model.StockBucket;
+
+/**
+ * Agrège la série quotidienne par semaine (du lundi au dimanche) ou par mois
+ * calendaire au fil de la simulation : seul un objet par période est créé.
+ */
+final class StockBucketAggregator implements DailyStockListener {
+
+    private final Granularity granularity;
+    private final List<StockBucket> buckets = new ArrayList<>();
+
+    private int periodStart;
+    private int nextPeriodStart = Integer.MIN_VALUE;
+    private int days;
+    private long sumStock;
+    private int minStock;
+    private int maxStock;
+    private int consumption;
+    private int deliveries;
+    private int stockoutDays;
+
+    StockBucketAggregator(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    @Override
+    public void onDay(int epochDay, int stockLevel, boolean deliveryDay, boolean purchaseDay, int consumption,
+            int consumed) {
+        if (epochDay >= nextPeriodStart) {
+            flush();
+            startPeriod(epochDay);
+        }
+        days++;
+        sumStock += stockLevel;
+        minStock = Math.min(minStock, stockLevel);
+        maxStock = Math.max(maxStock, stockLevel);
+        this.consumption += consumed;
+        if (deliveryDay) {
+            deliveries++;
+        }
+        if (consumed < consumption) {
+            stockoutDays++;
+        }
+    }
+
+    List<StockBucket> finish() {
+        flush();
+        return buckets;
+    }
+
+    /**
+     * Premier jour de la période qui suit celle du jour donné.
+     */
+    static int nextPeriodStart(Granularity granularity, int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return (int) (granularity == Granularity.MONTH
+                ? date.with(TemporalAdjusters.firstDayOfNextMonth())
+                : date.with(TemporalAdjusters.next(DayOfWeek.MONDAY))).toEpochDay();
+    }
+
+    private void startPeriod(int epochDay) {
+        periodStart = epochDay;
+        nextPeriodStart = nextPeriodStart(granularity, epochDay);
+        days = 0;
+        sumStock = 0;
+        minStock = Integer.MAX_VALUE;
+        maxStock = Integer.MIN_VALUE;
+        consumption = 0;
+        deliveries = 0;
+        stockoutDays = 0;
+    }
+
+    private void flush() {
+        if (days == 0) {
+            return;
+        }
+        buckets.add(StockBucket.builder()
+                .periodStart(LocalDate.ofEpochDay(periodStart))
+                .periodEnd(LocalDate.ofEpochDay(periodStart + days - 1L))
+                .days(days)
+                .minimumStockLevel(minStock)
+                .averageStockLevel((double) sumStock / days)
+                .maximumStockLevel(maxStock)
+                .totalConsumption(consumption)
+                .deliveries(deliveries)
+                .stockoutDays(stockoutDays)
+                .build());
+        days = 0;
+    }
+}
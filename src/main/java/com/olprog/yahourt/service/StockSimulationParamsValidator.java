@@ -0,0 +1,194 @@
+package com.olprog.yahourt.service;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.CostModel;
+import com.olprog.yahourt.model.OrderingPolicy;
+import com.olprog.yahourt.model.QuantityDiscount;
+import com.olprog.yahourt.model.Sku;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Validation des paramètres de simulation en un seul passage : toutes les
+ * violations sont collectées avant de lever une seule exception. Aucune
+ * allocation n'a lieu lorsque les paramètres sont valides.
+ */
+final class StockSimulationParamsValidator {
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+
+    private StockSimulationParamsValidator() {
+    }
+
+    static void validate(StockSimulationParams params) {
+        if (params == null) {
+            throw new ValidationException("Les paramètres ne peuvent pas être nuls");
+        }
+
+        List<String> violations = null;
+
+        if (params.getStartDate() == null) {
+            violations = add(violations, "La date de début ne peut pas être nulle");
+        }
+
+        if (params.getInitialStock() < 0) {
+            violations = add(violations, "Le stock initial doit être supérieur ou égal à 0");
+        }
+
+        if (params.getDeliveryDelay() < 1) {
+            violations = add(violations, "Le délai de livraison doit être d'au moins 1 jour");
+        }
+
+        if (params.getPackSize() < 1) {
+            violations = add(violations, "La taille du paquet doit être d'au moins 1");
+        }
+
+        if (params.getPurchaseDay() == null) {
+            violations = add(violations, "Le jour d'achat ne peut pas être nul");
+        }
+
+        if (params.getConsumptionProfile() == null || params.getConsumptionProfile().getDailyConsumption() == null) {
+            violations = add(violations, "Le profil de consommation ne peut pas être nul");
+        } else {
+            // Vérifier que tous les jours de la semaine ont une valeur de consommation
+            // valide
+            violations = validateConsumption(violations, params.getConsumptionProfile().getDailyConsumption(), "");
+        }
+
+        if (params.getShelfLifeDays() != null && params.getShelfLifeDays() < 1) {
+            violations = add(violations, "La durée de conservation doit être d'au moins 1 jour");
+        }
+
+        if (params.getSkus() != null) {
+            violations = validateSkus(violations, params);
+        }
+
+        if (params.getCalendarOverrides() != null) {
+            for (int value : params.getCalendarOverrides().getConsumptionValues()) {
+                if (value < 0) {
+                    violations = add(violations,
+                            "Les consommations exceptionnelles doivent être supérieures ou égales à 0");
+                    break;
+                }
+            }
+        }
+
+        if (params.getWindowStart() != null && params.getWindowEnd() != null
+                && params.getWindowEnd().isBefore(params.getWindowStart())) {
+            violations = add(violations, "La fin de la fenêtre doit être postérieure à son début");
+        }
+
+        if (params.getPageSize() != null && params.getPageSize() < 1) {
+            violations = add(violations, "La taille de page doit être d'au moins 1 jour");
+        }
+
+        if (params.getCostModel() != null) {
+            violations = validateCostModel(violations, params.getCostModel());
+        }
+
+        if (params.getPolicy() == OrderingPolicy.COST_OPTIMAL) {
+            if (params.getCostModel() == null) {
+                violations = add(violations, "La politique de coût minimal nécessite un modèle de coûts");
+            }
+            if (params.getSkus() != null) {
+                violations = add(violations, "La politique de coût minimal ne s'applique qu'à une seule référence");
+            }
+            if (params.getShelfLifeDays() != null) {
+                violations = add(violations,
+                        "La politique de coût minimal ne tient pas compte de la durée de conservation");
+            }
+        }
+
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
+    }
+
+    private static List<String> validateSkus(List<String> violations, StockSimulationParams params) {
+        List<Sku> skus = params.getSkus();
+        if (skus.isEmpty()) {
+            return add(violations, "La liste des références ne peut pas être vide");
+        }
+        if (skus.size() > 1 && params.getCalendarOverrides() != null
+                && params.getCalendarOverrides().getConsumptionDays().length > 0) {
+            violations = add(violations,
+                    "Les consommations exceptionnelles ne s'appliquent qu'à une seule référence");
+        }
+
+        for (int i = 0; i < skus.size(); i++) {
+            Sku sku = skus.get(i);
+            String prefix = "[référence " + i + "] ";
+            if (sku == null) {
+                violations = add(violations, prefix + "La référence ne peut pas être nulle");
+                continue;
+            }
+            if (sku.getId() == null || sku.getId().isBlank()) {
+                violations = add(violations, prefix + "L'identifiant de la référence ne peut pas être vide");
+            } else if (isDuplicate(skus, i)) {
+                violations = add(violations, prefix + "Identifiant de référence en double: " + sku.getId());
+            }
+            if (sku.getInitialStock() < 0) {
+                violations = add(violations, prefix + "Le stock initial doit être supérieur ou égal à 0");
+            }
+            if (sku.getPackSize() < 1) {
+                violations = add(violations, prefix + "La taille du paquet doit être d'au moins 1");
+            }
+            if (sku.getConsumptionProfile() == null || sku.getConsumptionProfile().getDailyConsumption() == null) {
+                violations = add(violations, prefix + "Le profil de consommation ne peut pas être nul");
+            } else {
+                violations = validateConsumption(violations, sku.getConsumptionProfile().getDailyConsumption(),
+                        prefix);
+            }
+        }
+        return violations;
+    }
+
+    private static List<String> validateCostModel(List<String> violations, CostModel costModel) {
+        if (!(costModel.getPricePerPack() >= 0) || !(costModel.getFixedOrderCost() >= 0)
+                || !(costModel.getHoldingCostPerUnitDay() >= 0)) {
+            violations = add(violations, "Les coûts doivent être supérieurs ou égaux à 0");
+        }
+        if (costModel.getQuantityDiscounts() != null) {
+            for (QuantityDiscount discount : costModel.getQuantityDiscounts()) {
+                if (discount == null || discount.getMinPacks() < 1 || !(discount.getPricePerPack() >= 0)) {
+                    return add(violations,
+                            "Remise invalide : au moins 1 paquet et un prix supérieur ou égal à 0 requis");
+                }
+            }
+        }
+        return violations;
+    }
+
+    private static boolean isDuplicate(List<Sku> skus, int index) {
+        // Peu de références par foyer : une recherche linéaire évite toute allocation
+        String id = skus.get(index).getId();
+        for (int i = 0; i < index; i++) {
+            if (skus.get(i) != null && id.equals(skus.get(i).getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> validateConsumption(List<String> violations, Map<DayOfWeek, Integer> consumption,
+            String prefix) {
+        for (DayOfWeek day : DAYS) {
+            Integer value = consumption.get(day);
+            if (value != null && value < 0) {
+                violations = add(violations,
+                        prefix + "La consommation pour " + day + " doit être supérieure ou égale à 0");
+            }
+        }
+        return violations;
+    }
+
+    private static List<String> add(List<String> violations, String violation) {
+        List<String> result = violations != null ? violations : new ArrayList<>(4);
+        result.add(violation);
+        return result;
+    }
+}
@@ -0,0 +1,257 @@
+package com.olprog.yahourt.service;
+
+import java.util.Arrays;
+
+/**
+ * Simulation jour par jour de l'entrepôt qui sert les commandes des foyers.
+ * Les commandes sont ajoutées foyer par foyer, puis regroupées par jour par un
+ * tri par dénombrement : chaque jour, l'entrepôt reçoit ses
+ * réapprovisionnements, sert les commandes du jour dans l'ordre des foyers
+ * (partiellement si le stock manque), puis applique sa règle de commande.
+ * <p>
+ * Règle (s, S) revue chaque jour : dès que la position de stock (en stock plus
+ * en commande) passe sous le point de commande {@code s}, l'entrepôt commande
+ * de quoi revenir à {@code S}, arrondi au lot supérieur.
+ * <p>
+ * Tout est gardé dans des tableaux primitifs, par commande et par foyer.
+ */
+final class WarehouseEngine {
+
+    private final int households;
+    private final int deliveryDelay;
+    private final long reorderPoint;
+    private final long orderUpTo;
+    private final int lotSize;
+
+    // Commandes des foyers, dans l'ordre d'ajout
+    private int orderCount;
+    private int[] orderHouseholds = new int[1024];
+    private int[] orderDays = new int[1024];
+    private int[] orderYogurts = new int[1024];
+
+    // Résultats par foyer
+    private final int[] householdOrders;
+    private final int[] householdUnmetOrders;
+    private final long[] householdRequested;
+    private final long[] householdShipped;
+
+    // Résultats par jour, à partir de firstDay
+    private int firstDay;
+    private int days;
+    private long[] stockLevels;
+    private long[] requested;
+    private boolean[] deliveryDays;
+    private boolean[] purchaseDays;
+
+    // Réapprovisionnements : jour de commande, jour de livraison, lots, position avant commande
+    private int replenishmentCount;
+    private int[] replenishmentDays = new int[64];
+    private int[] replenishmentArrivals = new int[64];
+    private int[] replenishmentLots = new int[64];
+    private long[] replenishmentPositions = new long[64];
+
+    private int stockoutDays;
+
+    WarehouseEngine(int households, int deliveryDelay, long reorderPoint, long orderUpTo, int lotSize) {
+        this.households = households;
+        this.deliveryDelay = deliveryDelay;
+        this.reorderPoint = reorderPoint;
+        this.orderUpTo = orderUpTo;
+        this.lotSize = lotSize;
+        this.householdOrders = new int[households];
+        this.householdUnmetOrders = new int[households];
+        this.householdRequested = new long[households];
+        this.householdShipped = new long[households];
+    }
+
+    void addOrder(int household, int epochDay, int yogurts) {
+        if (orderCount == orderDays.length) {
+            int capacity = orderCount * 2;
+            orderHouseholds = Arrays.copyOf(orderHouseholds, capacity);
+            orderDays = Arrays.copyOf(orderDays, capacity);
+            orderYogurts = Arrays.copyOf(orderYogurts, capacity);
+        }
+        orderHouseholds[orderCount] = household;
+        orderDays[orderCount] = epochDay;
+        orderYogurts[orderCount] = yogurts;
+        orderCount++;
+    }
+
+    /**
+     * Simule l'entrepôt du premier au dernier jour de commande des foyers.
+     */
+    void run(long initialStock) {
+        if (orderCount == 0) {
+            stockLevels = new long[0];
+            requested = new long[0];
+            deliveryDays = new boolean[0];
+            purchaseDays = new boolean[0];
+            return;
+        }
+        firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+        for (int i = 0; i < orderCount; i++) {
+            firstDay = Math.min(firstDay, orderDays[i]);
+            lastDay = Math.max(lastDay, orderDays[i]);
+        }
+        days = lastDay - firstDay + 1;
+
+        // Tri stable par jour : les commandes d'un jour restent dans l'ordre des foyers
+        int[] dayStarts = new int[days + 1];
+        for (int i = 0; i < orderCount; i++) {
+            dayStarts[orderDays[i] - firstDay + 1]++;
+        }
+        for (int d = 0; d < days; d++) {
+            dayStarts[d + 1] += dayStarts[d];
+        }
+        int[] byDay = new int[orderCount];
+        int[] cursor = Arrays.copyOf(dayStarts, days);
+        for (int i = 0; i < orderCount; i++) {
+            byDay[cursor[orderDays[i] - firstDay]++] = i;
+        }
+
+        stockLevels = new long[days];
+        requested = new long[days];
+        deliveryDays = new boolean[days];
+        purchaseDays = new boolean[days];
+        long[] incoming = new long[days];
+        long stock = initialStock;
+        long onOrder = 0;
+
+        for (int d = 0; d < days; d++) {
+            if (incoming[d] > 0) {
+                stock += incoming[d];
+                onOrder -= incoming[d];
+                deliveryDays[d] = true;
+            }
+            stockLevels[d] = stock;
+
+            boolean shortDay = false;
+            for (int k = dayStarts[d]; k < dayStarts[d + 1]; k++) {
+                int order = byDay[k];
+                int household = orderHouseholds[order];
+                int yogurts = orderYogurts[order];
+                long shipped = Math.min(stock, yogurts);
+                stock -= shipped;
+                requested[d] += yogurts;
+                householdOrders[household]++;
+                householdRequested[household] += yogurts;
+                householdShipped[household] += shipped;
+                if (shipped < yogurts) {
+                    householdUnmetOrders[household]++;
+                    shortDay = true;
+                }
+            }
+            if (shortDay) {
+                stockoutDays++;
+            }
+
+            long position = stock + onOrder;
+            if (position < reorderPoint) {
+                int lots = (int) ((orderUpTo - position + lotSize - 1) / lotSize);
+                long yogurts = (long) lots * lotSize;
+                onOrder += yogurts;
+                purchaseDays[d] = true;
+                // Une livraison après le dernier jour simulé reste en commande
+                if (d + deliveryDelay < days) {
+                    incoming[d + deliveryDelay] += yogurts;
+                }
+                addReplenishment(firstDay + d, firstDay + d + deliveryDelay, lots, position);
+            }
+        }
+    }
+
+    private void addReplenishment(int day, int arrival, int lots, long position) {
+        if (replenishmentCount == replenishmentDays.length) {
+            int capacity = replenishmentCount * 2;
+            replenishmentDays = Arrays.copyOf(replenishmentDays, capacity);
+            replenishmentArrivals = Arrays.copyOf(replenishmentArrivals, capacity);
+            replenishmentLots = Arrays.copyOf(replenishmentLots, capacity);
+            replenishmentPositions = Arrays.copyOf(replenishmentPositions, capacity);
+        }
+        replenishmentDays[replenishmentCount] = day;
+        replenishmentArrivals[replenishmentCount] = arrival;
+        replenishmentLots[replenishmentCount] = lots;
+        replenishmentPositions[replenishmentCount] = position;
+        replenishmentCount++;
+    }
+
+    int households() {
+        return households;
+    }
+
+    int orderCount() {
+        return orderCount;
+    }
+
+    int firstDay() {
+        return firstDay;
+    }
+
+    int days() {
+        return days;
+    }
+
+    /**
+     * Stock du jour après réception des réapprovisionnements, avant expédition.
+     */
+    long stockLevel(int day) {
+        return stockLevels[day];
+    }
+
+    long requested(int day) {
+        return requested[day];
+    }
+
+    boolean isDeliveryDay(int day) {
+        return deliveryDays[day];
+    }
+
+    boolean isPurchaseDay(int day) {
+        return purchaseDays[day];
+    }
+
+    int stockoutDays() {
+        return stockoutDays;
+    }
+
+    int replenishmentCount() {
+        return replenishmentCount;
+    }
+
+    int replenishmentDay(int replenishment) {
+        return replenishmentDays[replenishment];
+    }
+
+    int replenishmentArrival(int replenishment) {
+        return replenishmentArrivals[replenishment];
+    }
+
+    int replenishmentLots(int replenishment) {
+        return replenishmentLots[replenishment];
+    }
+
+    long replenishmentPosition(int replenishment) {
+        return replenishmentPositions[replenishment];
+    }
+
+    int householdOrders(int household) {
+        return householdOrders[household];
+    }
+
+    int householdUnmetOrders(int household) {
+        return householdUnmetOrders[household];
+    }
+
+    long householdRequested(int household) {
+        return householdRequested[household];
+    }
+
+    long householdShipped(int household) {
+        return householdShipped[household];
+    }
+
+    int lotSize() {
+        return lotSize;
+    }
+}
@@ -0,0 +1,241 @@
+package com.olprog.yahourt.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.stereotype.Service;
+
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.dto.WarehouseSimulationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.DailyStockLevel;
+import com.olprog.yahourt.model.Granularity;
+import com.olprog.yahourt.model.HouseholdSupplyOutcome;
+import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.StockSimulationParams;
+import com.olprog.yahourt.model.WarehouseSimulationResult;
+import com.olprog.yahourt.model.WarehouseSummary;
+
+/**
+ * Simulation à deux niveaux : les foyers sont d'abord simulés en parallèle,
+ * par tranches sur les threads de la voie lourde ({@link WorkloadLanes}),
+ * avec un fournisseur illimité ; leurs commandes, converties en tableaux
+ * primitifs, forment la demande de l'entrepôt, simulé ensuite par
+ * {@link WarehouseEngine}.
+ * <p>
+ * Une commande non servie par l'entrepôt est comptée comme telle pour le
+ * foyer, sans modifier la suite de sa simulation : les commandes des foyers
+ * restent celles de leur règle.
+ */
+@Service
+public class WarehouseSimulationService {
+
+    private static final int DEFAULT_DELIVERY_DELAY = 3;
+    private static final int DEFAULT_LOT_SIZE = 1;
+
+    // Foyers simulés par tâche
+    private static final int CHUNK_SIZE = 512;
+
+    private final YogurtOptimizationService optimizationService;
+    private final ExecutorService executor;
+
+    public WarehouseSimulationService(YogurtOptimizationService optimizationService,
+            WorkloadLanes workloadLanes) {
+        this.optimizationService = optimizationService;
+        // Tranches simulées par les threads de la voie lourde, dans sa part de CPU
+        this.executor = workloadLanes.bulkWorkers();
+    }
+
+    public WarehouseSimulationResult simulate(WarehouseSimulationRequestDto request) {
+        if (request == null || request.getHouseholds() == null || request.getHouseholds().isEmpty()) {
+            throw new ValidationException("Au moins un foyer est requis");
+        }
+        List<OptimizationRequestDto> households = request.getHouseholds();
+        int count = households.size();
+
+        // Commandes de chaque foyer : jour epoch et yaourts
+        int[][] orderDays = new int[count][];
+        int[][] orderYogurts = new int[count][];
+        List<CompletableFuture<List<String>>> tasks = new ArrayList<>();
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(count, from + CHUNK_SIZE);
+            tasks.add(CompletableFuture.supplyAsync(
+                    () -> simulateHouseholds(households, start, end, orderDays, orderYogurts), executor));
+        }
+        List<String> violations = null;
+        for (CompletableFuture<List<String>> task : tasks) {
+            List<String> chunkViolations = task.join();
+            if (chunkViolations != null) {
+                if (violations == null) {
+                    violations = new ArrayList<>();
+                }
+                violations.addAll(chunkViolations);
+            }
+        }
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
+
+        int deliveryDelay = request.getDeliveryDelay() != null ? request.getDeliveryDelay()
+                : DEFAULT_DELIVERY_DELAY;
+        long[] rule = reorderRule(request, deliveryDelay, orderDays, orderYogurts);
+        WarehouseEngine engine = new WarehouseEngine(count, deliveryDelay, rule[0], rule[1],
+                request.getLotSize() != null ? request.getLotSize() : DEFAULT_LOT_SIZE);
+        for (int household = 0; household < count; household++) {
+            for (int i = 0; i < orderDays[household].length; i++) {
+                engine.addOrder(household, orderDays[household][i], orderYogurts[household][i]);
+            }
+        }
+        engine.run(request.getInitialStock() != null ? request.getInitialStock() : rule[1]);
+        return toResult(engine, households, rule[0], rule[1]);
+    }
+
+    private List<String> simulateHouseholds(List<OptimizationRequestDto> households, int from, int to,
+            int[][] orderDays, int[][] orderYogurts) {
+        List<String> violations = null;
+        for (int household = from; household < to; household++) {
+            try {
+                StockSimulationParams params = optimizationService.convertRequestToParams(households.get(household));
+                // Seules les commandes comptent : ni pagination ni série quotidienne
+                params.setPageSize(null);
+                params.setCursor(null);
+                params.setGranularity(Granularity.MONTH);
+                SimulationResult result = optimizationService.simulateYogurtStockForYear(params);
+
+                List<PurchaseRecommendation> purchases = result.getPurchaseRecommendations();
+                int[] days = new int[purchases.size()];
+                int[] yogurts = new int[purchases.size()];
+                int orders = 0;
+                for (PurchaseRecommendation purchase : purchases) {
+                    // Yaourts commandés, toutes références confondues
+                    int ordered = purchase.getStockAfterDelivery() - purchase.getStockBeforePurchase();
+                    if (ordered > 0) {
+                        days[orders] = (int) purchase.getOrderDate().toEpochDay();
+                        yogurts[orders++] = ordered;
+                    }
+                }
+                orderDays[household] = orders == days.length ? days : Arrays.copyOf(days, orders);
+                orderYogurts[household] = orders == yogurts.length ? yogurts
+                        : Arrays.copyOf(yogurts, orders);
+            } catch (ValidationException e) {
+                if (violations == null) {
+                    violations = new ArrayList<>();
+                }
+                for (String violation : e.getViolations()) {
+                    violations.add("[" + household + "] " + violation);
+                }
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * Point de commande et niveau de recomplètement : ceux de la requête, ou
+     * déduits de la demande moyenne des foyers comme la règle des foyers
+     * (couvrir le délai plus une semaine, puis une semaine de plus).
+     */
+    private static long[] reorderRule(WarehouseSimulationRequestDto request, int deliveryDelay, int[][] orderDays,
+            int[][] orderYogurts) {
+        long total = 0;
+        int firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+        for (int household = 0; household < orderDays.length; household++) {
+            for (int i = 0; i < orderDays[household].length; i++) {
+                total += orderYogurts[household][i];
+                firstDay = Math.min(firstDay, orderDays[household][i]);
+                lastDay = Math.max(lastDay, orderDays[household][i]);
+            }
+        }
+        double dailyDemand = total == 0 ? 0 : (double) total / (lastDay - firstDay + 1);
+
+        long reorderPoint = request.getReorderPoint() != null ? request.getReorderPoint()
+                : (long) Math.ceil(dailyDemand * (deliveryDelay + 7));
+        long orderUpTo = request.getOrderUpTo() != null ? request.getOrderUpTo()
+                : reorderPoint + (long) Math.ceil(dailyDemand * 7);
+        if (orderUpTo < reorderPoint) {
+            throw new ValidationException(
+                    "Le niveau de recomplètement doit être supérieur ou égal au point de commande");
+        }
+        return new long[] { reorderPoint, orderUpTo };
+    }
+
+    private static WarehouseSimulationResult toResult(WarehouseEngine engine,
+            List<OptimizationRequestDto> households, long reorderPoint, long orderUpTo) {
+        List<DailyStockLevel> levels = new ArrayList<>(engine.days());
+        long sumStockLevels = 0;
+        long requested = 0;
+        for (int day = 0; day < engine.days(); day++) {
+            sumStockLevels += engine.stockLevel(day);
+            requested += engine.requested(day);
+            levels.add(DailyStockLevel.builder()
+                    .date(LocalDate.ofEpochDay((long) engine.firstDay() + day))
+                    .stockLevel(saturate(engine.stockLevel(day)))
+                    .isDeliveryDay(engine.isDeliveryDay(day))
+                    .isPurchaseDay(engine.isPurchaseDay(day))
+                    .consumption(saturate(engine.requested(day)))
+                    .build());
+        }
+
+        List<PurchaseRecommendation> replenishments = new ArrayList<>(engine.replenishmentCount());
+        for (int r = 0; r < engine.replenishmentCount(); r++) {
+            long position = engine.replenishmentPosition(r);
+            // Position de stock (en stock et en commande) avant et après la commande
+            replenishments.add(PurchaseRecommendation.builder()
+                    .orderDate(LocalDate.ofEpochDay(engine.replenishmentDay(r)))
+                    .deliveryDate(LocalDate.ofEpochDay(engine.replenishmentArrival(r)))
+                    .packsToBuy(engine.replenishmentLots(r))
+                    .stockBeforePurchase(saturate(position))
+                    .stockAfterDelivery(saturate(position + (long) engine.replenishmentLots(r) * engine.lotSize()))
+                    .build());
+        }
+
+        List<HouseholdSupplyOutcome> outcomes = new ArrayList<>(engine.households());
+        int unmetOrders = 0;
+        long shipped = 0;
+        for (int household = 0; household < engine.households(); household++) {
+            OptimizationRequestDto dto = households.get(household);
+            unmetOrders += engine.householdUnmetOrders(household);
+            shipped += engine.householdShipped(household);
+            outcomes.add(HouseholdSupplyOutcome.builder()
+                    .household(household)
+                    .householdId(dto == null ? null : dto.getHouseholdId())
+                    .orders(engine.householdOrders(household))
+                    .unmetOrders(engine.householdUnmetOrders(household))
+                    .requestedYogurts(engine.householdRequested(household))
+                    .shippedYogurts(engine.householdShipped(household))
+                    .build());
+        }
+
+        WarehouseSummary summary = WarehouseSummary.builder()
+                .households(engine.households())
+                .householdOrders(engine.orderCount())
+                .unmetOrders(unmetOrders)
+                .requestedYogurts(requested)
+                .shippedYogurts(shipped)
+                .unmetYogurts(requested - shipped)
+                .fillRate(requested == 0 ? 1 : (double) shipped / requested)
+                .stockoutDays(engine.stockoutDays())
+                .averageStockLevel(engine.days() == 0 ? 0 : sumStockLevels / engine.days())
+                .replenishments(engine.replenishmentCount())
+                .reorderPoint(reorderPoint)
+                .orderUpTo(orderUpTo)
+                .build();
+
+        return WarehouseSimulationResult.builder()
+                .dailyStockLevels(levels)
+                .replenishments(replenishments)
+                .summary(summary)
+                .households(outcomes)
+                .build();
+    }
+
+    private static int saturate(long value) {
+        return (int) Math.min(Integer.MAX_VALUE, value);
+    }
+}
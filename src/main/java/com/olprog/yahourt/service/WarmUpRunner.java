@@ -0,0 +1,163 @@
+package com.olprog.yahourt.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.dto.SkuDto;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Préchauffe le JIT avant que l'instance ne reçoive du trafic : conversion,
+ * simulation et sérialisation sont exécutées sur un échantillon de paramètres
+ * représentatif, par séries, jusqu'à ce que le temps moyen par appel se
+ * stabilise.
+ * <p>
+ * Spring Boot ne passe l'état de disponibilité à {@code ACCEPTING_TRAFFIC}
+ * qu'après l'exécution des {@link ApplicationRunner} : le préchauffage,
+ * synchrone, retarde donc d'autant la sonde de disponibilité
+ * ({@code /actuator/health/readiness}) sans toucher à la sonde de vie.
+ * <p>
+ * Le préchauffage ne passe ni par le regroupement des requêtes ni par le
+ * stockage des résultats, pour ne fausser ni leurs métriques ni leur contenu.
+ */
+@Component
+@ConditionalOnProperty(name = "yogurt.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    // Séries consécutives comparées pour juger la stabilité
+    private static final int STABLE_BATCHES = 3;
+
+    private final YogurtOptimizationService optimizationService;
+    private final SimulationResultSerializer serializer;
+    private final int batchSize;
+    private final int minIterations;
+    private final double tolerance;
+    private final Duration maxDuration;
+
+    private volatile long durationNanos;
+    private volatile long iterations;
+    private volatile boolean stable;
+
+    public WarmUpRunner(YogurtOptimizationService optimizationService,
+            SimulationResultSerializer serializer,
+            MeterRegistry meterRegistry,
+            @Value("${yogurt.warmup.batch-size:50}") int batchSize,
+            @Value("${yogurt.warmup.min-iterations:1000}") int minIterations,
+            @Value("${yogurt.warmup.tolerance:0.1}") double tolerance,
+            @Value("${yogurt.warmup.max-duration:PT20S}") Duration maxDuration) {
+        this.optimizationService = optimizationService;
+        this.serializer = serializer;
+        this.batchSize = Math.max(1, batchSize);
+        this.minIterations = minIterations;
+        this.tolerance = tolerance;
+        this.maxDuration = maxDuration;
+        TimeGauge.builder("yogurt.warmup.duration", this, TimeUnit.NANOSECONDS, runner -> runner.durationNanos)
+                .description("Durée du préchauffage au démarrage")
+                .register(meterRegistry);
+        Gauge.builder("yogurt.warmup.iterations", this, runner -> runner.iterations)
+                .description("Appels exécutés pendant le préchauffage")
+                .register(meterRegistry);
+        Gauge.builder("yogurt.warmup.stable", this, runner -> runner.stable ? 1 : 0)
+                .description("1 si le temps par appel s'est stabilisé avant la durée maximale")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    void warmUp() {
+        List<OptimizationRequestDto> mix = representativeMix();
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+        double[] recent = new double[STABLE_BATCHES];
+        long count = 0;
+        int batches = 0;
+        long checksum = 0;
+
+        while (System.nanoTime() < deadline) {
+            long batchStarted = System.nanoTime();
+            for (int i = 0; i < batchSize; i++) {
+                checksum += callOnce(mix.get((int) (count++ % mix.size())));
+            }
+            recent[batches++ % STABLE_BATCHES] = (double) (System.nanoTime() - batchStarted) / batchSize;
+            iterations = count;
+            durationNanos = System.nanoTime() - started;
+
+            if (count >= minIterations && batches >= STABLE_BATCHES && isStable(recent)) {
+                stable = true;
+                break;
+            }
+        }
+
+        log.info("Préchauffage {} en {} ms, {} appels, {} µs par appel (contrôle {})",
+                stable ? "stabilisé" : "interrompu à la durée maximale",
+                TimeUnit.NANOSECONDS.toMillis(durationNanos), count,
+                Math.round(recent[(batches + STABLE_BATCHES - 1) % STABLE_BATCHES] / 1000), checksum);
+    }
+
+    private boolean isStable(double[] recent) {
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (double nanosPerCall : recent) {
+            min = Math.min(min, nanosPerCall);
+            max = Math.max(max, nanosPerCall);
+        }
+        return (max - min) / min <= tolerance;
+    }
+
+    // Même chemin que /optimize, hors regroupement et stockage
+    private long callOnce(OptimizationRequestDto request) {
+        StockSimulationParams params = optimizationService.convertRequestToParams(request);
+        SimulationResult result = optimizationService.simulateYogurtStockForYear(params);
+        return serializer.serialize(result).length;
+    }
+
+    /**
+     * Requêtes couvrant les principales branches du moteur et de la
+     * sérialisation : valeurs par défaut, granularités, fenêtre et pagination,
+     * calendrier, péremption et plusieurs références.
+     */
+    static List<OptimizationRequestDto> representativeMix() {
+        LocalDate today = LocalDate.now();
+        return List.of(
+                new OptimizationRequestDto(),
+                OptimizationRequestDto.builder().initialStock(12).deliveryDelay(3).packSize(6).build(),
+                OptimizationRequestDto.builder()
+                        .dailyConsumption(Map.of("MONDAY", 1, "SATURDAY", 6, "SUNDAY", 5))
+                        .packSize(4)
+                        .build(),
+                OptimizationRequestDto.builder().granularity("week").build(),
+                OptimizationRequestDto.builder().granularity("month").deliveryDelay(5).build(),
+                OptimizationRequestDto.builder().from(today.plusDays(30)).to(today.plusDays(120)).pageSize(31).build(),
+                OptimizationRequestDto.builder()
+                        .consumptionOverrides(Map.of(today.plusDays(10), 0, today.plusDays(11), 0))
+                        .blockedDeliveryDates(List.of(today.plusDays(4), today.plusDays(11)))
+                        .build(),
+                OptimizationRequestDto.builder().shelfLifeDays(10).packSize(12).build(),
+                OptimizationRequestDto.builder()
+                        .skus(List.of(SkuDto.builder().id("nature").packSize(4).build(),
+                                SkuDto.builder().id("fruits").packSize(6).initialStock(6).build()))
+                        .build());
+    }
+}
@@ -0,0 +1,68 @@
+package com.olprog.yahourt.service;
+
+import java.time.DayOfWeek;
+import java.util.Map;
+
+import com.olprog.yahourt.model.ConsumptionProfile;
+
+/**
+ * Lecture des jours de la semaine saisis par les clients ({@code "monday"},
+ * {@code "MONDAY"}...), commune à tous les services.
+ */
+final class WeekDays {
+
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+    private static final int[] DEFAULT_WEEKLY_CONSUMPTION = new int[7];
+
+    static {
+        ConsumptionProfile profile = ConsumptionProfile.createDefault();
+        for (DayOfWeek day : DAYS) {
+            DEFAULT_WEEKLY_CONSUMPTION[day.ordinal()] = profile.getConsumptionForDay(day);
+        }
+    }
+
+    private WeekDays() {
+    }
+
+    /**
+     * Sans exception sur le chemin d'erreur : comparaison directe avec les noms.
+     *
+     * @return le jour, ou {@code null} si le nom est absent ou inconnu
+     */
+    static DayOfWeek parse(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (DayOfWeek day : DAYS) {
+            if (day.name().equalsIgnoreCase(name)) {
+                return day;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remplit {@code weekly} (indexé par {@link DayOfWeek#ordinal()}) avec la
+     * consommation saisie, les jours absents reprenant le profil par défaut.
+     *
+     * @return le message d'erreur de la première entrée invalide, ou
+     *         {@code null}
+     */
+    static String fillWeeklyConsumption(Map<String, Integer> dailyConsumption, int[] weekly) {
+        System.arraycopy(DEFAULT_WEEKLY_CONSUMPTION, 0, weekly, 0, 7);
+        if (dailyConsumption == null) {
+            return null;
+        }
+        for (Map.Entry<String, Integer> entry : dailyConsumption.entrySet()) {
+            DayOfWeek day = parse(entry.getKey());
+            if (day == null) {
+                return "Jour de la semaine invalide: " + entry.getKey();
+            }
+            if (entry.getValue() == null || entry.getValue() < 0) {
+                return "La consommation pour " + day + " doit être supérieure ou égale à 0";
+            }
+            weekly[day.ordinal()] = entry.getValue();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.olprog.yahourt.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import com.olprog.yahourt.dto.NextOrderRequestDto;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Coût estimé d'une requête, en jours simulés (horizon × scénarios × références),
+ * calculé sur le DTO avant toute conversion ou simulation.
+ */
+public final class WorkloadCost {
+
+    static final int YEAR_DAYS = 366;
+    private static final int DEFAULT_DELIVERY_DELAY = StockSimulationParams.createDefault().getDeliveryDelay();
+
+    private WorkloadCost() {
+    }
+
+    public static long of(OptimizationRequestDto request) {
+        if (request == null) {
+            return YEAR_DAYS;
+        }
+        long days = YEAR_DAYS;
+        // La simulation s'arrête à la fin de la fenêtre demandée
+        if (request.getTo() != null) {
+            days = Math.max(1, Math.min(days, ChronoUnit.DAYS.between(LocalDate.now(), request.getTo()) + 1));
+        }
+        int skus = request.getSkus() == null || request.getSkus().isEmpty() ? 1 : request.getSkus().size();
+        return days * skus;
+    }
+
+    public static long of(List<OptimizationRequestDto> scenarios) {
+        if (scenarios == null) {
+            return 0;
+        }
+        long cost = 0;
+        for (OptimizationRequestDto scenario : scenarios) {
+            cost += of(scenario);
+        }
+        return cost;
+    }
+
+    /**
+     * Prochaines commandes : chaque foyer projette sa consommation sur son
+     * délai de livraison plus une semaine.
+     */
+    public static long ofNextOrders(List<NextOrderRequestDto> requests) {
+        if (requests == null) {
+            return 0;
+        }
+        long cost = 0;
+        for (NextOrderRequestDto request : requests) {
+            Integer delay = request == null ? null : request.getDeliveryDelay();
+            cost += 7 + (delay != null ? Math.max(1, delay) : DEFAULT_DELIVERY_DELAY);
+        }
+        return cost;
+    }
+
+    /**
+     * Traitement de taille inconnue d'avance (flux) : toujours classé lourd.
+     */
+    public static long unbounded() {
+        return Long.MAX_VALUE;
+    }
+}
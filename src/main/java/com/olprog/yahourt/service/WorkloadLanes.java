@@ -0,0 +1,196 @@
+package com.olprog.yahourt.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.olprog.yahourt.exception.LaneRejectedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Voies d'exécution séparées (cloisons) : les appels interactifs et les
+ * traitements lourds ont chacun leur pool de threads et leur file bornée, pour
+ * qu'un lot ou un export ne retarde pas {@code /optimize}.
+ * <p>
+ * Une requête est classée avant de s'exécuter d'après son coût estimé
+ * ({@link WorkloadCost}, en jours simulés). La part de CPU d'une voie est son
+ * nombre de threads, en fraction des processeurs disponibles. Une file pleine
+ * refuse la requête ({@link LaneRejectedException}, 503) au lieu de
+ * l'accumuler.
+ * <p>
+ * Les traitements lourds qui se parallélisent (import, entrepôt, liste de
+ * courses) répartissent leurs tranches sur {@link #bulkWorkers()}, un pool
+ * partagé du même nombre de threads que la voie lourde : quel que soit le
+ * nombre de requêtes en cours, leur calcul parallèle reste dans la part de la
+ * voie. Les threads de la voie ne font alors qu'attendre leurs tranches.
+ * <p>
+ * Les threads lourds ont une priorité minimale, qui n'est qu'une indication :
+ * sous Linux, la JVM l'ignore sauf avec {@code -XX:ThreadPriorityPolicy=1}
+ * (réservé à root). L'isolation repose sur le nombre de threads, pas sur la
+ * priorité.
+ * <p>
+ * Les tâches ne doivent pas elles-mêmes passer par une voie : une tâche qui
+ * attendrait une autre tâche de sa voie pourrait la bloquer. Les tranches
+ * soumises à {@link #bulkWorkers()} ne doivent pas non plus attendre d'autres
+ * tranches.
+ */
+@Component
+public class WorkloadLanes implements DisposableBean {
+
+    public enum Lane {
+        INTERACTIVE, BULK
+    }
+
+    private final long bulkThreshold;
+    private final LaneExecutor interactive;
+    private final LaneExecutor bulk;
+    private final int bulkThreads;
+    private final ExecutorService bulkWorkers;
+
+    public WorkloadLanes(MeterRegistry meterRegistry,
+            @Value("${yogurt.lanes.bulk-threshold:5000}") long bulkThreshold,
+            @Value("${yogurt.lanes.interactive.cpu-share:0.75}") double interactiveShare,
+            @Value("${yogurt.lanes.interactive.queue-capacity:256}") int interactiveQueue,
+            @Value("${yogurt.lanes.bulk.cpu-share:0.25}") double bulkShare,
+            @Value("${yogurt.lanes.bulk.queue-capacity:16}") int bulkQueue) {
+        this.bulkThreshold = bulkThreshold;
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.interactive = new LaneExecutor(Lane.INTERACTIVE, threads(processors, interactiveShare),
+                interactiveQueue, Thread.NORM_PRIORITY, meterRegistry);
+        this.bulkThreads = threads(processors, bulkShare);
+        this.bulk = new LaneExecutor(Lane.BULK, bulkThreads, bulkQueue, Thread.MIN_PRIORITY, meterRegistry);
+        // File non bornée : elle ne contient que les tranches des requêtes déjà admises
+        AtomicInteger index = new AtomicInteger();
+        this.bulkWorkers = Executors.newFixedThreadPool(bulkThreads, runnable -> {
+            Thread thread = new Thread(runnable, "yogurt-bulk-worker-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    private static int threads(int processors, double share) {
+        return Math.max(1, (int) Math.round(processors * share));
+    }
+
+    public Lane classify(long estimatedCost) {
+        return estimatedCost >= bulkThreshold ? Lane.BULK : Lane.INTERACTIVE;
+    }
+
+    /**
+     * Exécute la tâche dans la voie correspondant à son coût et attend son
+     * résultat ; ses exceptions sont relancées telles quelles.
+     */
+    public <T> T execute(long estimatedCost, Callable<T> task) {
+        return (classify(estimatedCost) == Lane.BULK ? bulk : interactive).execute(task);
+    }
+
+    /**
+     * Pool partagé par les traitements lourds pour leurs tranches parallèles.
+     */
+    public ExecutorService bulkWorkers() {
+        return bulkWorkers;
+    }
+
+    /**
+     * Nombre de threads de {@link #bulkWorkers()} : au-delà, découper un
+     * traitement en plus de tranches n'accélère rien.
+     */
+    public int bulkParallelism() {
+        return bulkThreads;
+    }
+
+    @Override
+    public void destroy() {
+        interactive.executor.shutdownNow();
+        bulk.executor.shutdownNow();
+        bulkWorkers.shutdownNow();
+    }
+
+    private static final class LaneExecutor {
+
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final Timer waitTime;
+        private final Counter rejected;
+
+        LaneExecutor(Lane lane, int threads, int queueCapacity, int priority, MeterRegistry meterRegistry) {
+            this.name = lane.name().toLowerCase();
+            AtomicInteger index = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                        Thread thread = new Thread(runnable, "yogurt-" + name + "-" + index.incrementAndGet());
+                        thread.setDaemon(true);
+                        thread.setPriority(priority);
+                        return thread;
+                    });
+            this.waitTime = Timer.builder("yogurt.lane.wait")
+                    .description("Attente en file avant exécution")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("yogurt.lane.rejected")
+                    .description("Requêtes refusées, file pleine")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            Gauge.builder("yogurt.lane.queue_depth", executor, pool -> pool.getQueue().size())
+                    .description("Requêtes en attente dans la voie")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+            Gauge.builder("yogurt.lane.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .description("Requêtes en cours dans la voie")
+                    .tag("lane", name)
+                    .register(meterRegistry);
+        }
+
+        <T> T execute(Callable<T> task) {
+            long queuedAt = System.nanoTime();
+            FutureTask<T> future = new FutureTask<>(() -> {
+                waitTime.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+            try {
+                executor.execute(future);
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                throw new LaneRejectedException("Voie " + name + " saturée, réessayez plus tard");
+            }
+
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Attente interrompue", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                if (cause instanceof IOException io) {
+                    throw new UncheckedIOException(io);
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+}
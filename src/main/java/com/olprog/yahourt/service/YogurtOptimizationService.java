@@ -7,21 +7,53 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.dto.SkuDto;
 import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.jfr.ParamsConversionEvent;
+import com.olprog.yahourt.model.CalendarOverrides;
 import com.olprog.yahourt.model.ConsumptionProfile;
-import com.olprog.yahourt.model.DailyStockLevel;
-import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.model.Granularity;
+import com.olprog.yahourt.model.OrderingPolicy;
 import com.olprog.yahourt.model.SimulationResult;
 import com.olprog.yahourt.model.SimulationSummary;
+import com.olprog.yahourt.model.Sku;
 import com.olprog.yahourt.model.StockSimulationParams;
 
 @Service
 public class YogurtOptimizationService {
 
+    private final ConsumptionProfileLearner profileLearner;
+
+    public YogurtOptimizationService() {
+        this(new ConsumptionProfileLearner(ConsumptionProfileLearner.DEFAULT_ALPHA));
+    }
+
+    @Autowired
+    public YogurtOptimizationService(ConsumptionProfileLearner profileLearner) {
+        this.profileLearner = profileLearner;
+    }
+
     public StockSimulationParams convertRequestToParams(OptimizationRequestDto requestDto) {
+        ParamsConversionEvent event = new ParamsConversionEvent();
+        event.begin();
+        try {
+            StockSimulationParams params = toParams(requestDto);
+            event.valid = true;
+            return params;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.defaultRequest = requestDto == null;
+                event.commit();
+            }
+        }
+    }
+
+    private StockSimulationParams toParams(OptimizationRequestDto requestDto) {
         // Commencer avec les paramètres par défaut
         StockSimulationParams params = StockSimulationParams.createDefault();
 
@@ -39,29 +71,41 @@ public class YogurtOptimizationService {
                 params.setPackSize(requestDto.getPackSize());
             }
 
-            if (requestDto.getDailyConsumption() != null && !requestDto.getDailyConsumption().isEmpty()) {
-                Map<DayOfWeek, Integer> consumptionMap = new EnumMap<>(DayOfWeek.class);
-
-                for (Map.Entry<String, Integer> entry : requestDto.getDailyConsumption().entrySet()) {
-                    try {
-                        DayOfWeek dayOfWeek = DayOfWeek.valueOf(entry.getKey().toUpperCase());
-                        consumptionMap.put(dayOfWeek, entry.getValue());
-                    } catch (IllegalArgumentException e) {
-                        throw new ValidationException("Jour de la semaine invalide: " + entry.getKey());
-                    }
+            // Profil appris du foyer, que la consommation saisie peut encore corriger
+            if (requestDto.getHouseholdId() != null) {
+                ConsumptionProfile learned = profileLearner.learnedProfile(requestDto.getHouseholdId(),
+                        params.getConsumptionProfile());
+                if (learned != null) {
+                    params.setConsumptionProfile(learned);
                 }
+            }
 
-                // Compléter avec les valeurs par défaut pour les jours non spécifiés
-                for (DayOfWeek day : DayOfWeek.values()) {
-                    if (!consumptionMap.containsKey(day)) {
-                        consumptionMap.put(day, params.getConsumptionProfile().getConsumptionForDay(day));
-                    }
-                }
+            if (requestDto.getDailyConsumption() != null && !requestDto.getDailyConsumption().isEmpty()) {
+                params.setConsumptionProfile(
+                        convertConsumptionProfile(requestDto.getDailyConsumption(), params.getConsumptionProfile()));
+            }
 
-                ConsumptionProfile customProfile = ConsumptionProfile.builder()
-                        .dailyConsumption(consumptionMap)
-                        .build();
-                params.setConsumptionProfile(customProfile);
+            if (requestDto.getConsumptionOverrides() != null || requestDto.getBlockedDeliveryDates() != null) {
+                params.setCalendarOverrides(convertCalendarOverrides(requestDto));
+            }
+
+            if (requestDto.getGranularity() != null) {
+                params.setGranularity(parseGranularity(requestDto.getGranularity()));
+            }
+
+            params.setWindowStart(requestDto.getFrom());
+            params.setWindowEnd(requestDto.getTo());
+            params.setPageSize(requestDto.getPageSize());
+            params.setCursor(requestDto.getCursor());
+            params.setShelfLifeDays(requestDto.getShelfLifeDays());
+
+            if (requestDto.getSkus() != null) {
+                params.setSkus(convertSkus(requestDto.getSkus(), params));
+            }
+
+            params.setCostModel(requestDto.getCostModel());
+            if (requestDto.getPolicy() != null) {
+                params.setPolicy(parsePolicy(requestDto.getPolicy()));
             }
         }
 
@@ -72,165 +116,123 @@ public class YogurtOptimizationService {
         // Validation des paramètres
         validateParameters(params);
 
-        // Date de début
-        LocalDate currentDate = params.getStartDate();
-        // Date de fin (un an plus tard)
-        LocalDate endDate = currentDate.plusYears(1);
-
-        // Résultat
-        List<PurchaseRecommendation> purchaseRecommendations = new ArrayList<>();
-        List<DailyStockLevel> dailyStockLevels = new ArrayList<>();
-
-        // Stock initial
-        int currentStock = params.getInitialStock();
-
-        // Variables pour la synthèse
-        int totalYogurtsPurchased = 0;
-        int totalYogurtsConsumed = 0;
-        int sumStockLevels = 0;
-        int minStockLevel = Integer.MAX_VALUE;
-        int maxStockLevel = Integer.MIN_VALUE;
-
-        // Simulation jour par jour
-        while (currentDate.isBefore(endDate)) {
-            DayOfWeek dayOfWeek = currentDate.getDayOfWeek();
-            int dailyConsumption = params.getConsumptionProfile().getConsumptionForDay(dayOfWeek);
-
-            // Vérifier si c'est un jour de livraison
-            boolean isDeliveryDay = false;
-
-            // Rechercher si une commande doit être livrée ce jour
-            for (PurchaseRecommendation pr : purchaseRecommendations) {
-                if (pr.getDeliveryDate().equals(currentDate)) {
-                    int yogurtsDelivered = pr.getPacksToBuy() * params.getPackSize();
-                    currentStock += yogurtsDelivered;
-                    totalYogurtsPurchased += yogurtsDelivered;
-                    isDeliveryDay = true;
-                    break;
-                }
-            }
+        // Simulation jour par jour sur un an
+        return SimulationEngine.simulate(params);
+    }
 
-            // Mise à jour des statistiques
-            sumStockLevels += currentStock;
-            minStockLevel = Math.min(minStockLevel, currentStock);
-            maxStockLevel = Math.max(maxStockLevel, currentStock);
-
-            // Enregistrement du niveau de stock quotidien
-            DailyStockLevel stockLevel = DailyStockLevel.builder()
-                    .date(currentDate)
-                    .stockLevel(currentStock)
-                    .isDeliveryDay(isDeliveryDay)
-                    .isPurchaseDay(dayOfWeek == params.getPurchaseDay())
-                    .consumption(dailyConsumption)
-                    .build();
-            dailyStockLevels.add(stockLevel);
-
-            // Si c'est le jour d'achat (dimanche par défaut), calculer la quantité à
-            // acheter
-            if (dayOfWeek == params.getPurchaseDay()) {
-                // Calculer combien de yaourts seront consommés jusqu'à la prochaine livraison
-                // (+ marge)
-                int daysUntilNextDelivery = params.getDeliveryDelay();
-                // Projection sur plus d'une semaine pour éviter les ruptures
-                int daysToProject = daysUntilNextDelivery + 7;
-
-                int projectedConsumption = 0;
-                LocalDate projectedDate = currentDate;
-
-                // Calculer la consommation projetée
-                for (int i = 0; i < daysToProject; i++) {
-                    DayOfWeek projectedDay = projectedDate.getDayOfWeek();
-                    projectedConsumption += params.getConsumptionProfile().getConsumptionForDay(projectedDay);
-                    projectedDate = projectedDate.plusDays(1);
-                }
+    /**
+     * Simule l'année en transmettant chaque jour au listener, par exemple pour
+     * un export qui ne doit pas garder la série en mémoire.
+     */
+    public SimulationSummary simulateYogurtStockForYear(StockSimulationParams params, DailyStockListener listener) {
+        validateParameters(params);
+        return SimulationEngine.simulate(params, listener);
+    }
+
+    private static ConsumptionProfile convertConsumptionProfile(Map<String, Integer> dailyConsumption,
+            ConsumptionProfile defaults) {
+        Map<DayOfWeek, Integer> consumptionMap = new EnumMap<>(DayOfWeek.class);
+        List<String> invalidDays = null;
 
-                // Calculer le nombre de paquets à acheter
-                int neededYogurts = Math.max(0, projectedConsumption - currentStock);
-                // Arrondir au paquet supérieur
-                int packsToBuy = (int) Math.ceil((double) neededYogurts / params.getPackSize());
-
-                if (packsToBuy > 0) {
-                    PurchaseRecommendation recommendation = PurchaseRecommendation.builder()
-                            .orderDate(currentDate)
-                            .deliveryDate(currentDate.plusDays(params.getDeliveryDelay()))
-                            .packsToBuy(packsToBuy)
-                            .stockBeforePurchase(currentStock)
-                            .stockAfterDelivery(currentStock + packsToBuy * params.getPackSize())
-                            .build();
-                    purchaseRecommendations.add(recommendation);
+        for (Map.Entry<String, Integer> entry : dailyConsumption.entrySet()) {
+            DayOfWeek dayOfWeek = WeekDays.parse(entry.getKey());
+            if (dayOfWeek == null) {
+                if (invalidDays == null) {
+                    invalidDays = new ArrayList<>();
                 }
+                invalidDays.add("Jour de la semaine invalide: " + entry.getKey());
+            } else {
+                consumptionMap.put(dayOfWeek, entry.getValue());
             }
+        }
 
-            // Consommation du jour
-            int consumedToday = Math.min(currentStock, dailyConsumption);
-            currentStock -= consumedToday;
-            totalYogurtsConsumed += consumedToday;
-
-            // Passer au jour suivant
-            currentDate = currentDate.plusDays(1);
+        if (invalidDays != null) {
+            throw new ValidationException(invalidDays);
         }
 
-        // Calcul des statistiques pour la synthèse
-        int totalDays = dailyStockLevels.size();
-        int averageStockLevel = totalDays > 0 ? sumStockLevels / totalDays : 0;
-        double averagePacksToBuy = purchaseRecommendations.isEmpty() ? 0
-                : purchaseRecommendations.stream().mapToInt(PurchaseRecommendation::getPacksToBuy).average().orElse(0);
-
-        // Créer la synthèse
-        SimulationSummary summary = SimulationSummary.builder()
-                .totalPurchases(purchaseRecommendations.size())
-                .totalYogurtsPurchased(totalYogurtsPurchased)
-                .totalYogurtsConsumed(totalYogurtsConsumed)
-                .averageStockLevel(averageStockLevel)
-                .minimumStockLevel(minStockLevel == Integer.MAX_VALUE ? 0 : minStockLevel)
-                .maximumStockLevel(maxStockLevel == Integer.MIN_VALUE ? 0 : maxStockLevel)
-                .averagePacksToBuy(averagePacksToBuy)
-                .build();
+        // Compléter avec les valeurs par défaut pour les jours non spécifiés
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (!consumptionMap.containsKey(day)) {
+                consumptionMap.put(day, defaults.getConsumptionForDay(day));
+            }
+        }
 
-        // Construire et retourner le résultat
-        return SimulationResult.builder()
-                .purchaseRecommendations(purchaseRecommendations)
-                .dailyStockLevels(dailyStockLevels)
-                .summary(summary)
+        return ConsumptionProfile.builder()
+                .dailyConsumption(consumptionMap)
                 .build();
     }
 
-    private void validateParameters(StockSimulationParams params) {
-        if (params == null) {
-            throw new ValidationException("Les paramètres ne peuvent pas être nuls");
-        }
-
-        if (params.getStartDate() == null) {
-            throw new ValidationException("La date de début ne peut pas être nulle");
-        }
-
-        if (params.getInitialStock() < 0) {
-            throw new ValidationException("Le stock initial doit être supérieur ou égal à 0");
+    private static List<Sku> convertSkus(List<SkuDto> skuDtos, StockSimulationParams params) {
+        // Les champs absents d'une référence reprennent les valeurs générales de la requête
+        List<Sku> skus = new ArrayList<>(skuDtos.size());
+        for (SkuDto skuDto : skuDtos) {
+            if (skuDto == null) {
+                skus.add(null);
+                continue;
+            }
+            ConsumptionProfile profile = params.getConsumptionProfile();
+            if (skuDto.getDailyConsumption() != null && !skuDto.getDailyConsumption().isEmpty()) {
+                profile = convertConsumptionProfile(skuDto.getDailyConsumption(), profile);
+            }
+            skus.add(Sku.builder()
+                    .id(skuDto.getId())
+                    .initialStock(skuDto.getInitialStock() != null ? skuDto.getInitialStock()
+                            : params.getInitialStock())
+                    .packSize(skuDto.getPackSize() != null ? skuDto.getPackSize() : params.getPackSize())
+                    .consumptionProfile(profile)
+                    .build());
         }
+        return skus;
+    }
 
-        if (params.getDeliveryDelay() < 1) {
-            throw new ValidationException("Le délai de livraison doit être d'au moins 1 jour");
+    private static CalendarOverrides convertCalendarOverrides(OptimizationRequestDto requestDto) {
+        List<String> violations = null;
+        if (requestDto.getConsumptionOverrides() != null) {
+            for (Map.Entry<LocalDate, Integer> entry : requestDto.getConsumptionOverrides().entrySet()) {
+                if (entry.getKey() == null || entry.getValue() == null || entry.getValue() < 0) {
+                    if (violations == null) {
+                        violations = new ArrayList<>();
+                    }
+                    violations.add("Consommation exceptionnelle invalide pour " + entry.getKey());
+                }
+            }
         }
-
-        if (params.getPackSize() < 1) {
-            throw new ValidationException("La taille du paquet doit être d'au moins 1");
+        if (requestDto.getBlockedDeliveryDates() != null) {
+            for (LocalDate date : requestDto.getBlockedDeliveryDates()) {
+                if (date == null) {
+                    if (violations == null) {
+                        violations = new ArrayList<>();
+                    }
+                    violations.add("Les dates sans livraison ne peuvent pas être nulles");
+                    break;
+                }
+            }
         }
-
-        if (params.getPurchaseDay() == null) {
-            throw new ValidationException("Le jour d'achat ne peut pas être nul");
+        if (violations != null) {
+            throw new ValidationException(violations);
         }
+        return CalendarOverrides.of(requestDto.getConsumptionOverrides(), requestDto.getBlockedDeliveryDates());
+    }
 
-        if (params.getConsumptionProfile() == null || params.getConsumptionProfile().getDailyConsumption() == null) {
-            throw new ValidationException("Le profil de consommation ne peut pas être nul");
+    private static Granularity parseGranularity(String name) {
+        for (Granularity granularity : Granularity.values()) {
+            if (granularity.name().equalsIgnoreCase(name)) {
+                return granularity;
+            }
         }
+        throw new ValidationException("Granularité invalide: " + name + " (day, week ou month)");
+    }
 
-        // Vérifier que tous les jours de la semaine ont une valeur de consommation
-        // valide
-        for (DayOfWeek day : DayOfWeek.values()) {
-            int consumption = params.getConsumptionProfile().getConsumptionForDay(day);
-            if (consumption < 0) {
-                throw new ValidationException("La consommation pour " + day + " doit être supérieure ou égale à 0");
+    private static OrderingPolicy parsePolicy(String name) {
+        for (OrderingPolicy policy : OrderingPolicy.values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
             }
         }
+        throw new ValidationException("Politique de commande invalide: " + name + " (rule ou cost_optimal)");
+    }
+
+    private void validateParameters(StockSimulationParams params) {
+        StockSimulationParamsValidator.validate(params);
     }
 }
@@ -0,0 +1,273 @@
+package com.olprog.yahourt.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Registre des foyers hors du tas : chaque foyer occupe un enregistrement de
+ * taille fixe dans un fichier projeté en mémoire, si bien que des millions de
+ * foyers ne coûtent ni objets ni pauses du ramasse-miettes, et survivent aux
+ * redémarrages.
+ * <p>
+ * Le fichier commence par un en-tête (magic, version, nombre
+ * d'enregistrements alloués, nombre de foyers, tête de la liste des
+ * emplacements libres), suivi des enregistrements de {@value #RECORD_SIZE}
+ * octets : état, emplacement libre suivant, stock, délai, taille du paquet,
+ * jour d'achat, consommation des 7 jours, puis la dernière liste de courses
+ * calculée (jour et paquets). Il est projeté par régions de
+ * {@value #REGION_RECORDS} enregistrements, ajoutées quand le registre grandit.
+ * <p>
+ * L'identifiant d'un foyer est le numéro de son enregistrement ; celui d'un
+ * foyer supprimé est réutilisé. Le registre n'est pas synchronisé : les
+ * écritures doivent être sérialisées par l'appelant, et ne pas avoir lieu
+ * pendant une lecture. Le fichier est verrouillé tant qu'il est ouvert : un
+ * seul processus à la fois peut l'utiliser, les autres échouent à
+ * l'ouverture.
+ */
+public class HouseholdRegistry implements Closeable {
+
+  public static final int NO_LIST = Integer.MIN_VALUE;
+
+  private static final int MAGIC = 0x59474852;
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int HEADER_SIZE = 64;
+  private static final int HEADER_MAGIC = 0;
+  private static final int HEADER_VERSION = 4;
+  private static final int HEADER_ALLOCATED = 8;
+  private static final int HEADER_SIZE_FIELD = 12;
+  private static final int HEADER_FREE_HEAD = 16;
+
+  static final int RECORD_SIZE = 64;
+  private static final int RECORD_STATE = 0;
+  private static final int RECORD_NEXT_FREE = 4;
+  private static final int RECORD_STOCK = 8;
+  private static final int RECORD_DELIVERY_DELAY = 12;
+  private static final int RECORD_PACK_SIZE = 16;
+  private static final int RECORD_PURCHASE_DAY = 20;
+  private static final int RECORD_CONSUMPTION = 24;
+  private static final int RECORD_LIST_DAY = 52;
+  private static final int RECORD_LIST_PACKS = 56;
+
+  private static final int STATE_FREE = 0;
+  private static final int STATE_USED = 1;
+
+  static final int REGION_RECORDS = 1 << 16;
+  private static final int REGION_SHIFT = 16;
+  private static final long REGION_BYTES = (long) REGION_RECORDS * RECORD_SIZE;
+
+  private final FileChannel channel;
+  private final FileLock fileLock;
+  private final MappedByteBuffer header;
+  private MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+  public HouseholdRegistry(Path file) throws IOException {
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.fileLock = lock(channel, file);
+    try {
+      this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+      if (header.getInt(HEADER_MAGIC) == 0) {
+        header.putInt(HEADER_VERSION, FORMAT_VERSION);
+        header.putInt(HEADER_ALLOCATED, 0);
+        header.putInt(HEADER_SIZE_FIELD, 0);
+        header.putInt(HEADER_FREE_HEAD, -1);
+        // Le magic est écrit en dernier : un en-tête sans magic est réinitialisé
+        header.putInt(HEADER_MAGIC, MAGIC);
+      } else if (header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_VERSION) != FORMAT_VERSION) {
+        throw new IOException("Registre des foyers incompatible : " + file);
+      }
+      ensureCapacity(header.getInt(HEADER_ALLOCATED));
+    } catch (IOException | RuntimeException e) {
+      // Libère aussi le verrou : le fichier reste ouvrable une fois corrigé
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Verrou exclusif sur tout le fichier, gardé jusqu'à la fermeture : le
+   * registre ne synchronise pas ses écritures, un second processus (ou une
+   * seconde instance) qui l'ouvrirait le corromprait.
+   */
+  private static FileLock lock(FileChannel channel, Path file) throws IOException {
+    FileLock lock;
+    try {
+      lock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      lock = null;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    if (lock == null) {
+      channel.close();
+      throw new IOException("Registre des foyers déjà ouvert par un autre processus : " + file);
+    }
+    return lock;
+  }
+
+  /**
+   * Nombre d'enregistrements alloués : les identifiants valides sont dans
+   * {@code [0, capacity())}, foyers supprimés compris.
+   */
+  public int capacity() {
+    return header.getInt(HEADER_ALLOCATED);
+  }
+
+  public int size() {
+    return header.getInt(HEADER_SIZE_FIELD);
+  }
+
+  /**
+   * @param consumption consommation indexée par ordinal de jour de la semaine
+   * @return l'identifiant du foyer
+   */
+  public int create(int stock, int deliveryDelay, int packSize, int purchaseDay, int[] consumption)
+      throws IOException {
+    int id = header.getInt(HEADER_FREE_HEAD);
+    if (id >= 0) {
+      header.putInt(HEADER_FREE_HEAD, region(id).getInt(position(id) + RECORD_NEXT_FREE));
+    } else {
+      id = capacity();
+      ensureCapacity(id + 1);
+      header.putInt(HEADER_ALLOCATED, id + 1);
+    }
+    write(id, stock, deliveryDelay, packSize, purchaseDay, consumption);
+    region(id).putInt(position(id) + RECORD_STATE, STATE_USED);
+    header.putInt(HEADER_SIZE_FIELD, size() + 1);
+    return id;
+  }
+
+  public boolean update(int id, int stock, int deliveryDelay, int packSize, int purchaseDay, int[] consumption) {
+    if (!contains(id)) {
+      return false;
+    }
+    write(id, stock, deliveryDelay, packSize, purchaseDay, consumption);
+    return true;
+  }
+
+  public boolean delete(int id) {
+    if (!contains(id)) {
+      return false;
+    }
+    MappedByteBuffer region = region(id);
+    int position = position(id);
+    region.putInt(position + RECORD_STATE, STATE_FREE);
+    region.putInt(position + RECORD_NEXT_FREE, header.getInt(HEADER_FREE_HEAD));
+    header.putInt(HEADER_FREE_HEAD, id);
+    header.putInt(HEADER_SIZE_FIELD, size() - 1);
+    return true;
+  }
+
+  public boolean contains(int id) {
+    return id >= 0 && id < capacity() && region(id).getInt(position(id) + RECORD_STATE) == STATE_USED;
+  }
+
+  public int stock(int id) {
+    return region(id).getInt(position(id) + RECORD_STOCK);
+  }
+
+  public int deliveryDelay(int id) {
+    return region(id).getInt(position(id) + RECORD_DELIVERY_DELAY);
+  }
+
+  public int packSize(int id) {
+    return region(id).getInt(position(id) + RECORD_PACK_SIZE);
+  }
+
+  public int purchaseDay(int id) {
+    return region(id).getInt(position(id) + RECORD_PURCHASE_DAY);
+  }
+
+  public int consumption(int id, int dayOfWeek) {
+    return region(id).getInt(position(id) + RECORD_CONSUMPTION + dayOfWeek * 4);
+  }
+
+  /**
+   * Jour epoch de la dernière liste de courses calculée pour ce foyer, ou
+   * {@link #NO_LIST}.
+   */
+  public int listDay(int id) {
+    return region(id).getInt(position(id) + RECORD_LIST_DAY);
+  }
+
+  public int listPacks(int id) {
+    return region(id).getInt(position(id) + RECORD_LIST_PACKS);
+  }
+
+  /**
+   * Enregistre la liste de courses du foyer ; des appels concurrents sur des
+   * foyers distincts sont possibles.
+   */
+  public void setList(int id, int epochDay, int packs) {
+    MappedByteBuffer region = region(id);
+    int position = position(id);
+    region.putInt(position + RECORD_LIST_DAY, epochDay);
+    region.putInt(position + RECORD_LIST_PACKS, packs);
+  }
+
+  /**
+   * Écrit les pages modifiées sur disque.
+   */
+  public void force() {
+    header.force();
+    for (MappedByteBuffer region : regions) {
+      region.force();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    force();
+    regions = new MappedByteBuffer[0];
+    fileLock.release();
+    channel.close();
+  }
+
+  private void write(int id, int stock, int deliveryDelay, int packSize, int purchaseDay, int[] consumption) {
+    MappedByteBuffer region = region(id);
+    int position = position(id);
+    region.putInt(position + RECORD_STOCK, stock);
+    region.putInt(position + RECORD_DELIVERY_DELAY, deliveryDelay);
+    region.putInt(position + RECORD_PACK_SIZE, packSize);
+    region.putInt(position + RECORD_PURCHASE_DAY, purchaseDay);
+    for (int day = 0; day < 7; day++) {
+      region.putInt(position + RECORD_CONSUMPTION + day * 4, consumption[day]);
+    }
+    // Toute modification invalide la liste de courses déjà calculée
+    region.putInt(position + RECORD_LIST_DAY, NO_LIST);
+    region.putInt(position + RECORD_LIST_PACKS, 0);
+  }
+
+  private void ensureCapacity(int records) throws IOException {
+    int needed = (records + REGION_RECORDS - 1) >>> REGION_SHIFT;
+    if (needed <= regions.length) {
+      return;
+    }
+    MappedByteBuffer[] grown = Arrays.copyOf(regions, needed);
+    for (int r = regions.length; r < needed; r++) {
+      grown[r] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + r * REGION_BYTES, REGION_BYTES);
+    }
+    regions = grown;
+  }
+
+  private MappedByteBuffer region(int id) {
+    return regions[id >>> REGION_SHIFT];
+  }
+
+  private static int position(int id) {
+    return (id & (REGION_RECORDS - 1)) * RECORD_SIZE;
+  }
+}
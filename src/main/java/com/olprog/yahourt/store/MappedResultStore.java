@@ -0,0 +1,372 @@
+package com.olprog.yahourt.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Stockage de résultats sérialisés dans des segments de fichiers projetés en
+ * mémoire, partageable entre plusieurs JVM d'un même hôte et persistant entre
+ * redémarrages.
+ * <p>
+ * Organisation du répertoire :
+ * <ul>
+ * <li>{@code index.dat} : un en-tête (segment actif, position d'écriture, plus
+ * ancien segment conservé) suivi d'une table à adressage ouvert de
+ * {@code slots} emplacements (clé 128 bits, segment, position, longueur) ;</li>
+ * <li>{@code segment-NNNNNNNN.dat} : des enregistrements ajoutés les uns après
+ * les autres (magic, clé, longueur, CRC32C, contenu).</li>
+ * </ul>
+ * Les écritures sont sérialisées par un verrou de fichier sur l'en-tête de
+ * l'index (entre processus) et par un moniteur par répertoire (dans la JVM).
+ * Les lectures ne prennent aucun verrou : chaque enregistrement répète sa clé
+ * et son CRC, si bien qu'un emplacement lu pendant une écriture concurrente
+ * donne au pire un défaut de cache. Quand le nombre de segments dépasse la
+ * limite, les plus anciens sont supprimés et les emplacements qui y renvoient
+ * sont libérés ; chaque processus abandonne ses projections des segments
+ * supprimés dès qu'il voit avancer le plus ancien segment conservé.
+ */
+public class MappedResultStore implements ResultStore, Closeable {
+
+  private static final int INDEX_MAGIC = 0x59475249;
+  private static final int RECORD_MAGIC = 0x59475252;
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int HEADER_SIZE = 64;
+  private static final int HEADER_MAGIC = 0;
+  private static final int HEADER_VERSION = 4;
+  private static final int HEADER_SLOTS = 8;
+  private static final int HEADER_SEGMENT_SIZE = 12;
+  private static final int HEADER_ACTIVE_SEGMENT = 16;
+  private static final int HEADER_WRITE_POSITION = 20;
+  private static final int HEADER_OLDEST_SEGMENT = 24;
+
+  private static final int SLOT_SIZE = 32;
+  private static final int SLOT_HIGH = 0;
+  private static final int SLOT_LOW = 8;
+  private static final int SLOT_SEGMENT = 16;
+  private static final int SLOT_OFFSET = 20;
+  private static final int SLOT_LENGTH = 24;
+
+  private static final int RECORD_HEADER_SIZE = 28;
+  private static final int MAX_PROBES = 16;
+
+  private static final ConcurrentMap<Path, Object> WRITE_MONITORS = new ConcurrentHashMap<>();
+
+  private final Path directory;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final int slotMask;
+  private final Object writeMonitor;
+  private final FileChannel indexChannel;
+  private final MappedByteBuffer index;
+  private final ConcurrentMap<Integer, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+
+  // Segments dont les projections ont déjà été abandonnées : tous ceux en dessous
+  private volatile int releasedBelow;
+
+  /**
+   * @param segmentSize taille d'un segment en octets, ignorée si l'index existe
+   *                    déjà
+   * @param maxSize     taille maximale des segments conservés sur disque, en
+   *                    octets ; le nombre de segments en découle, d'après la
+   *                    taille de segment de l'index
+   * @param slots       nombre d'emplacements de l'index (arrondi à une puissance
+   *                    de deux), ignoré si l'index existe déjà
+   */
+  public MappedResultStore(Path directory, int segmentSize, long maxSize, int slots) throws IOException {
+    if (segmentSize <= RECORD_HEADER_SIZE || maxSize < 1 || slots < 1) {
+      throw new IllegalArgumentException("Configuration du stockage de résultats invalide");
+    }
+    Files.createDirectories(directory);
+    this.directory = directory.toRealPath();
+    this.writeMonitor = WRITE_MONITORS.computeIfAbsent(this.directory, path -> new Object());
+
+    Path indexPath = this.directory.resolve("index.dat");
+    this.indexChannel = FileChannel.open(indexPath,
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+    int storedSlots;
+    int storedSegmentSize;
+    synchronized (writeMonitor) {
+      try (FileLock lock = indexChannel.lock(0, HEADER_SIZE, false)) {
+        if (!isInitialized(indexChannel)) {
+          storedSlots = Integer.highestOneBit(slots) == slots ? slots : Integer.highestOneBit(slots) << 1;
+          storedSegmentSize = segmentSize;
+          MappedByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+              HEADER_SIZE + (long) storedSlots * SLOT_SIZE);
+          header.putInt(HEADER_VERSION, FORMAT_VERSION);
+          header.putInt(HEADER_SLOTS, storedSlots);
+          header.putInt(HEADER_SEGMENT_SIZE, storedSegmentSize);
+          header.putInt(HEADER_ACTIVE_SEGMENT, 0);
+          header.putInt(HEADER_WRITE_POSITION, 0);
+          header.putInt(HEADER_OLDEST_SEGMENT, 0);
+          // Le magic est écrit en dernier : un index sans magic est réinitialisé
+          header.putInt(HEADER_MAGIC, INDEX_MAGIC);
+          header.force();
+        } else {
+          MappedByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+          if (header.getInt(HEADER_MAGIC) != INDEX_MAGIC || header.getInt(HEADER_VERSION) != FORMAT_VERSION) {
+            throw new IOException("Index de résultats incompatible : " + indexPath);
+          }
+          storedSlots = header.getInt(HEADER_SLOTS);
+          storedSegmentSize = header.getInt(HEADER_SEGMENT_SIZE);
+        }
+      }
+    }
+
+    // La géométrie est celle de l'index existant, partagée par tous les processus
+    this.segmentSize = storedSegmentSize;
+    this.maxSegments = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxSize / storedSegmentSize));
+    this.slotMask = storedSlots - 1;
+    this.index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) storedSlots * SLOT_SIZE);
+  }
+
+  private static boolean isInitialized(FileChannel channel) throws IOException {
+    if (channel.size() < HEADER_SIZE) {
+      return false;
+    }
+    ByteBuffer magic = ByteBuffer.allocate(4);
+    channel.read(magic, HEADER_MAGIC);
+    return magic.getInt(0) != 0;
+  }
+
+  @Override
+  public byte[] find(ResultKey key) {
+    // Même sans correspondance, les segments supprimés ailleurs sont abandonnés ici
+    oldestSegment();
+    int home = slotOf(key);
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      int slot = slotPosition(home + probe);
+      if (index.getLong(slot + SLOT_HIGH) == key.high() && index.getLong(slot + SLOT_LOW) == key.low()) {
+        byte[] payload = readRecord(key, index.getInt(slot + SLOT_SEGMENT), index.getInt(slot + SLOT_OFFSET),
+            index.getInt(slot + SLOT_LENGTH));
+        if (payload != null) {
+          return payload;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void save(ResultKey key, byte[] payload) {
+    int recordSize = RECORD_HEADER_SIZE + payload.length;
+    if (recordSize > segmentSize) {
+      // Trop volumineux pour un segment : on ne le conserve pas
+      return;
+    }
+
+    synchronized (writeMonitor) {
+      try (FileLock lock = indexChannel.lock(0, HEADER_SIZE, false)) {
+        int active = index.getInt(HEADER_ACTIVE_SEGMENT);
+        int position = index.getInt(HEADER_WRITE_POSITION);
+        if (position + recordSize > segmentSize) {
+          active++;
+          position = 0;
+          index.putInt(HEADER_ACTIVE_SEGMENT, active);
+          index.putInt(HEADER_WRITE_POSITION, 0);
+          compactLocked(active);
+        }
+
+        MappedByteBuffer segment = segment(active, true);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        segment.putInt(position, RECORD_MAGIC);
+        segment.putLong(position + 4, key.high());
+        segment.putLong(position + 12, key.low());
+        segment.putInt(position + 20, payload.length);
+        segment.putInt(position + 24, (int) crc.getValue());
+        segment.put(position + RECORD_HEADER_SIZE, payload);
+
+        publish(key, active, position, payload.length);
+        // Alignement sur 8 octets pour les accès aux en-têtes d'enregistrement
+        index.putInt(HEADER_WRITE_POSITION, (position + recordSize + 7) & ~7);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Supprime les segments au-delà de la limite de taille et libère les
+   * emplacements d'index qui y renvoyaient.
+   */
+  public void compact() {
+    synchronized (writeMonitor) {
+      try (FileLock lock = indexChannel.lock(0, HEADER_SIZE, false)) {
+        compactLocked(index.getInt(HEADER_ACTIVE_SEGMENT));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    segments.clear();
+    indexChannel.close();
+  }
+
+  private void compactLocked(int active) throws IOException {
+    int oldest = index.getInt(HEADER_OLDEST_SEGMENT);
+    if (active - oldest + 1 <= maxSegments) {
+      return;
+    }
+    while (active - oldest + 1 > maxSegments) {
+      segments.remove(oldest);
+      try {
+        Files.deleteIfExists(segmentPath(oldest));
+      } catch (IOException e) {
+        // Encore projeté ailleurs (Windows) : les emplacements sont libérés quand même
+      }
+      oldest++;
+    }
+    index.putInt(HEADER_OLDEST_SEGMENT, oldest);
+
+    for (int i = 0; i <= slotMask; i++) {
+      int slot = slotPosition(i);
+      if (!isEmpty(slot) && index.getInt(slot + SLOT_SEGMENT) < oldest) {
+        clear(slot);
+      }
+    }
+  }
+
+  private void publish(ResultKey key, int segment, int offset, int length) {
+    int home = slotOf(key);
+    int oldest = index.getInt(HEADER_OLDEST_SEGMENT);
+    int target = -1;
+    int victim = slotPosition(home);
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      int slot = slotPosition(home + probe);
+      if (index.getLong(slot + SLOT_HIGH) == key.high() && index.getLong(slot + SLOT_LOW) == key.low()) {
+        target = slot;
+        break;
+      }
+      if (target < 0 && (isEmpty(slot) || index.getInt(slot + SLOT_SEGMENT) < oldest)) {
+        target = slot;
+      }
+      if (index.getInt(slot + SLOT_SEGMENT) < index.getInt(victim + SLOT_SEGMENT)) {
+        victim = slot;
+      }
+    }
+    if (target < 0) {
+      // Sonde pleine : on évince l'entrée la plus ancienne
+      target = victim;
+    }
+
+    // La clé est effacée pendant la mise à jour pour qu'aucun lecteur n'associe
+    // l'ancienne clé à la nouvelle position
+    clear(target);
+    index.putInt(target + SLOT_SEGMENT, segment);
+    index.putInt(target + SLOT_OFFSET, offset);
+    index.putInt(target + SLOT_LENGTH, length);
+    index.putLong(target + SLOT_LOW, key.low());
+    index.putLong(target + SLOT_HIGH, key.high());
+  }
+
+  private byte[] readRecord(ResultKey key, int segmentId, int offset, int length) {
+    if (offset < 0 || length < 0 || (long) offset + RECORD_HEADER_SIZE + length > segmentSize) {
+      return null;
+    }
+    MappedByteBuffer segment;
+    try {
+      segment = segment(segmentId, false);
+    } catch (IOException e) {
+      return null;
+    }
+    if (segment == null
+        || segment.getInt(offset) != RECORD_MAGIC
+        || segment.getLong(offset + 4) != key.high()
+        || segment.getLong(offset + 12) != key.low()
+        || segment.getInt(offset + 20) != length) {
+      return null;
+    }
+
+    byte[] payload = new byte[length];
+    segment.get(offset + RECORD_HEADER_SIZE, payload);
+    CRC32C crc = new CRC32C();
+    crc.update(payload);
+    return (int) crc.getValue() == segment.getInt(offset + 24) ? payload : null;
+  }
+
+  private MappedByteBuffer segment(int id, boolean create) throws IOException {
+    if (id < oldestSegment()) {
+      return null;
+    }
+    MappedByteBuffer mapped = segments.get(id);
+    if (mapped != null) {
+      return mapped;
+    }
+    Path path = segmentPath(id);
+    if (!create && !Files.exists(path)) {
+      return null;
+    }
+    try (FileChannel channel = create
+        ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+        : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      if (channel.size() < segmentSize) {
+        if (!create) {
+          return null;
+        }
+        channel.write(ByteBuffer.wrap(new byte[1]), segmentSize - 1L);
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+    MappedByteBuffer existing = segments.putIfAbsent(id, mapped);
+    return existing != null ? existing : mapped;
+  }
+
+  /**
+   * Plus ancien segment conservé. Les projections des segments supprimés,
+   * éventuellement par un autre processus, sont abandonnées : elles sont
+   * libérées au prochain passage du ramasse-miettes, et avec elles l'espace
+   * disque des fichiers supprimés.
+   */
+  private int oldestSegment() {
+    int oldest = index.getInt(HEADER_OLDEST_SEGMENT);
+    if (oldest > releasedBelow) {
+      segments.keySet().removeIf(id -> id < oldest);
+      releasedBelow = oldest;
+    }
+    return oldest;
+  }
+
+  int mappedSegments() {
+    return segments.size();
+  }
+
+  private Path segmentPath(int id) {
+    return directory.resolve(String.format("segment-%08d.dat", id));
+  }
+
+  private int slotOf(ResultKey key) {
+    return (int) (key.low() ^ (key.low() >>> 32));
+  }
+
+  private int slotPosition(int slot) {
+    return HEADER_SIZE + (slot & slotMask) * SLOT_SIZE;
+  }
+
+  private boolean isEmpty(int slot) {
+    return index.getLong(slot + SLOT_HIGH) == 0 && index.getLong(slot + SLOT_LOW) == 0;
+  }
+
+  private void clear(int slot) {
+    index.putLong(slot + SLOT_HIGH, 0);
+    index.putLong(slot + SLOT_LOW, 0);
+  }
+}
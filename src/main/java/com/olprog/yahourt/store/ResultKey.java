@@ -0,0 +1,14 @@
+package com.olprog.yahourt.store;
+
+/**
+ * Empreinte 128 bits, stable d'un processus à l'autre, des paramètres d'une
+ * simulation. La valeur (0, 0) est réservée aux emplacements vides de l'index.
+ */
+public record ResultKey(long high, long low) {
+
+  public ResultKey {
+    if (high == 0 && low == 0) {
+      low = 1;
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.olprog.yahourt.store;
+
+/**
+ * Stockage des résultats de simulation déjà sérialisés, indexés par l'empreinte
+ * de leurs paramètres.
+ */
+public interface ResultStore {
+
+  ResultStore NONE = new ResultStore() {
+    @Override
+    public byte[] find(ResultKey key) {
+      return null;
+    }
+
+    @Override
+    public void save(ResultKey key, byte[] payload) {
+      // Stockage désactivé
+    }
+  };
+
+  /**
+   * @return les octets stockés pour cette clé, ou {@code null} si absents
+   */
+  byte[] find(ResultKey key);
+
+  void save(ResultKey key, byte[] payload);
+}
@@ -0,0 +1,162 @@
+package com.olprog.yahourt.store;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+
+import com.olprog.yahourt.model.CalendarOverrides;
+import com.olprog.yahourt.model.ConsumptionProfile;
+import com.olprog.yahourt.model.CostModel;
+import com.olprog.yahourt.model.QuantityDiscount;
+import com.olprog.yahourt.model.Sku;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Calcule une empreinte canonique des paramètres de simulation. Contrairement
+ * à {@code hashCode()}, elle ne dépend pas de l'identité des objets (les enums
+ * notamment) et reste donc identique entre JVM et entre redémarrages.
+ * <p>
+ * Tout champ ajouté à {@link StockSimulationParams} doit être encodé ici, et
+ * {@link #ENGINE_VERSION} incrémentée dès que le moteur de simulation change de
+ * comportement, pour ne pas servir de résultats périmés.
+ */
+public final class SimulationFingerprint {
+
+  // 2 : références, lots périssables (expiredYogurts), résultats partiels et coût total
+  static final long ENGINE_VERSION = 2;
+
+  private static final DayOfWeek[] DAYS = DayOfWeek.values();
+  private static final long ABSENT = Long.MIN_VALUE;
+  private static final long SHELF_LIFE_TAG = 0x5348454C46L;
+  private static final long COST_MODEL_TAG = 0x434F5354L;
+  private static final long POLICY_TAG = 0x504F4C4943L;
+
+  private long high = 0x9E3779B97F4A7C15L;
+  private long low = 0xC2B2AE3D27D4EB4FL;
+
+  private SimulationFingerprint() {
+  }
+
+  public static ResultKey of(StockSimulationParams params) {
+    SimulationFingerprint fingerprint = new SimulationFingerprint();
+    fingerprint.addModel(params);
+
+    // Options de restitution : même modèle, réponses différentes
+    fingerprint.add(params.getGranularity() == null ? ABSENT : params.getGranularity().ordinal());
+    fingerprint.add(params.getWindowStart() == null ? ABSENT : params.getWindowStart().toEpochDay());
+    fingerprint.add(params.getWindowEnd() == null ? ABSENT : params.getWindowEnd().toEpochDay());
+    fingerprint.add(params.getPageSize() == null ? ABSENT : params.getPageSize());
+    fingerprint.add(params.getCursor());
+    return fingerprint.toKey();
+  }
+
+  /**
+   * Empreinte du seul modèle simulé (sans granularité, fenêtre ni pagination).
+   */
+  public static ResultKey ofModel(StockSimulationParams params) {
+    SimulationFingerprint fingerprint = new SimulationFingerprint();
+    fingerprint.addModel(params);
+    return fingerprint.toKey();
+  }
+
+  private void addModel(StockSimulationParams params) {
+    add(ENGINE_VERSION);
+    add(params.getStartDate() == null ? ABSENT : params.getStartDate().toEpochDay());
+    add(params.getInitialStock());
+    add(params.getDeliveryDelay());
+    add(params.getPackSize());
+    add(params.getPurchaseDay() == null ? ABSENT : params.getPurchaseDay().ordinal());
+
+    add(params.getConsumptionProfile());
+
+    CalendarOverrides overrides = params.getCalendarOverrides() == null ? CalendarOverrides.NONE
+        : params.getCalendarOverrides();
+    add(overrides.getConsumptionDays());
+    add(overrides.getConsumptionValues());
+    add(overrides.getBlockedDeliveryDays());
+
+    // Champs facultatifs absents de l'empreinte, pour garder les clés existantes
+    if (params.getShelfLifeDays() != null) {
+      add(SHELF_LIFE_TAG);
+      add(params.getShelfLifeDays());
+    }
+    List<Sku> skus = params.getSkus();
+    if (skus != null) {
+      add(skus.size());
+      for (Sku sku : skus) {
+        if (sku == null) {
+          add(ABSENT);
+          continue;
+        }
+        add(sku.getId());
+        add(sku.getInitialStock());
+        add(sku.getPackSize());
+        add(sku.getConsumptionProfile());
+      }
+    }
+    CostModel costModel = params.getCostModel();
+    if (costModel != null) {
+      add(COST_MODEL_TAG);
+      add(Double.doubleToLongBits(costModel.getPricePerPack()));
+      add(Double.doubleToLongBits(costModel.getFixedOrderCost()));
+      add(Double.doubleToLongBits(costModel.getHoldingCostPerUnitDay()));
+      List<QuantityDiscount> discounts = costModel.getQuantityDiscounts();
+      add(discounts == null ? ABSENT : discounts.size());
+      if (discounts != null) {
+        for (QuantityDiscount discount : discounts) {
+          add(discount == null ? ABSENT : discount.getMinPacks());
+          add(discount == null ? ABSENT : Double.doubleToLongBits(discount.getPricePerPack()));
+        }
+      }
+    }
+    if (params.getPolicy() != null) {
+      add(POLICY_TAG);
+      add(params.getPolicy().ordinal());
+    }
+  }
+
+  private void add(ConsumptionProfile profile) {
+    Map<DayOfWeek, Integer> consumption = profile == null ? null : profile.getDailyConsumption();
+    for (DayOfWeek day : DAYS) {
+      Integer value = consumption == null ? null : consumption.get(day);
+      add(value == null ? ABSENT : value);
+    }
+  }
+
+  private void add(long value) {
+    high = mix(high ^ value) * 31 + value;
+    low = mix(low + value) ^ Long.rotateLeft(value, 17);
+  }
+
+  private void add(int[] values) {
+    add(values.length);
+    for (int value : values) {
+      add(value);
+    }
+  }
+
+  private void add(String value) {
+    if (value == null) {
+      add(ABSENT);
+      return;
+    }
+    add(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      add(value.charAt(i));
+    }
+  }
+
+  private ResultKey toKey() {
+    return new ResultKey(mix(high ^ low), mix(low + high * 0x9E3779B97F4A7C15L));
+  }
+
+  private static long mix(long value) {
+    // Finaliseur de MurmurHash3 (fmix64)
+    value ^= value >>> 33;
+    value *= 0xFF51AFD7ED558CCDL;
+    value ^= value >>> 33;
+    value *= 0xC4CEB9FE1A85EC53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
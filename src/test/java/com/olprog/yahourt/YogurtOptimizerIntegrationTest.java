@@ -7,15 +7,19 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
@@ -27,6 +31,16 @@ import com.olprog.yahourt.model.SimulationResult;
 @AutoConfigureMockMvc
 public class YogurtOptimizerIntegrationTest {
 
+  // Registre activé dans un fichier propre au test, jamais dans le répertoire temporaire partagé
+  @TempDir
+  static Path registryDirectory;
+
+  @DynamicPropertySource
+  static void registryProperties(DynamicPropertyRegistry registry) {
+    registry.add("yogurt.registry.enabled", () -> "true");
+    registry.add("yogurt.registry.file", () -> registryDirectory.resolve("households.dat").toString());
+  }
+
   @Autowired
   private MockMvc mockMvc;
 
@@ -107,6 +121,15 @@ public class YogurtOptimizerIntegrationTest {
         .forEach(level -> assertTrue(level.getStockLevel() >= 0, "Le stock ne devrait jamais être négatif"));
   }
 
+  @Test
+  @DisplayName("Test d'intégration: Devrait enregistrer un foyer dans le registre activé")
+  void shouldRegisterHousehold() throws Exception {
+    mockMvc.perform(post("/api/yogurt/registry/households")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{}"))
+        .andExpect(status().isCreated());
+  }
+
   @Test
   @DisplayName("Test d'intégration: Devrait rejeter des paramètres invalides")
   void shouldRejectInvalidParams() throws Exception {
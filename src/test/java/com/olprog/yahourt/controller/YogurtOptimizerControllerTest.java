@@ -18,17 +18,26 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olprog.yahourt.config.ResultStoreConfig;
 import com.olprog.yahourt.dto.OptimizationRequestDto;
 import com.olprog.yahourt.model.SimulationResult;
 import com.olprog.yahourt.model.StockSimulationParams;
+import com.olprog.yahourt.service.SimulationCoalescer;
+import com.olprog.yahourt.service.SimulationResultSerializer;
+import com.olprog.yahourt.service.WorkloadLanes;
 import com.olprog.yahourt.service.YogurtOptimizationService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @WebMvcTest(YogurtOptimizerController.class)
+@Import({ SimulationCoalescer.class, SimulationResultSerializer.class, ResultStoreConfig.class,
+    SimpleMeterRegistry.class, WorkloadLanes.class })
 public class YogurtOptimizerControllerTest {
 
   @Autowired
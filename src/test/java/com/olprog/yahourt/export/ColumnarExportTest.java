@@ -0,0 +1,170 @@
+package com.olprog.yahourt.export;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.olprog.yahourt.dto.ExportRequestDto;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.dto.SkuDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.DailyStockLevel;
+import com.olprog.yahourt.model.ExportReport;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.SimulationSummary;
+import com.olprog.yahourt.service.ColumnarExportService;
+import com.olprog.yahourt.service.YogurtOptimizationService;
+
+public class ColumnarExportTest {
+
+  @TempDir
+  Path directory;
+
+  private final YogurtOptimizationService optimizationService = new YogurtOptimizationService();
+
+  private static List<OptimizationRequestDto> households() {
+    return List.of(
+        new OptimizationRequestDto(),
+        OptimizationRequestDto.builder()
+            .skus(List.of(
+                SkuDto.builder().id("nature").initialStock(6).packSize(4).build(),
+                SkuDto.builder().id("fraise").packSize(6)
+                    .dailyConsumption(Map.of("SATURDAY", 3, "SUNDAY", 3)).build()))
+            .build(),
+        OptimizationRequestDto.builder()
+            .from(LocalDate.now().plusDays(60))
+            .to(LocalDate.now().plusDays(90))
+            .packSize(12)
+            .shelfLifeDays(5)
+            .pageSize(7)
+            .build());
+  }
+
+  @Test
+  @DisplayName("Devrait relire bloc par bloc les mêmes jours et synthèses que la simulation en mémoire")
+  void shouldRoundTripDaysAndSummaries() throws IOException {
+    List<OptimizationRequestDto> households = households();
+    ColumnarExportService exportService = new ColumnarExportService(optimizationService, directory, 100);
+
+    ExportReport report = exportService.export(new ExportRequestDto("run.yogc", households));
+
+    List<List<DailyStockLevel>> expectedDays = new ArrayList<>();
+    List<SimulationSummary> expectedSummaries = new ArrayList<>();
+    long expectedRows = 0;
+    for (OptimizationRequestDto household : households) {
+      var params = optimizationService.convertRequestToParams(household);
+      params.setPageSize(null);
+      SimulationResult result = optimizationService.simulateYogurtStockForYear(params);
+      expectedDays.add(result.getDailyStockLevels());
+      expectedSummaries.add(result.getSummary());
+      expectedRows += result.getDailyStockLevels().size();
+    }
+    assertEquals(3, report.getHouseholds());
+    assertEquals(expectedRows, report.getDayRows());
+    assertEquals(Files.size(directory.resolve("run.yogc")), report.getBytes());
+
+    int dayChunks = 0;
+    long rows = 0;
+    int[] positions = new int[households.size()];
+    try (ColumnarExportReader reader = new ColumnarExportReader(directory.resolve("run.yogc"))) {
+      assertEquals(100, reader.chunkRows());
+      while (reader.next()) {
+        if (reader.type() == ColumnarFormat.DAYS) {
+          dayChunks++;
+          for (int row = 0; row < reader.rows(); row++) {
+            int household = reader.household(row);
+            DailyStockLevel expected = expectedDays.get(household).get(positions[household]++);
+            assertEquals(expected.getDate().toEpochDay(), reader.epochDay(row));
+            assertEquals(expected.getStockLevel(), reader.stockLevel(row));
+            assertEquals(expected.getConsumption(), reader.consumption(row));
+            assertEquals(expected.isDeliveryDay(), reader.deliveryDay(row));
+            assertEquals(expected.isPurchaseDay(), reader.purchaseDay(row));
+            rows++;
+          }
+        } else {
+          assertEquals(ColumnarFormat.SUMMARIES, reader.type());
+          assertEquals(3, reader.rows());
+          for (int row = 0; row < reader.rows(); row++) {
+            SimulationSummary expected = expectedSummaries.get(reader.summaryInt(0, row));
+            assertEquals(expected.getTotalPurchases(), reader.summaryInt(1, row));
+            assertEquals(expected.getTotalYogurtsPurchased(), reader.summaryInt(2, row));
+            assertEquals(expected.getTotalYogurtsConsumed(), reader.summaryInt(3, row));
+            assertEquals(expected.getAverageStockLevel(), reader.summaryInt(4, row));
+            assertEquals(expected.getMinimumStockLevel(), reader.summaryInt(5, row));
+            assertEquals(expected.getMaximumStockLevel(), reader.summaryInt(6, row));
+            assertEquals(expected.getExpiredYogurts(), reader.summaryInt(7, row));
+            assertEquals(expected.getAveragePacksToBuy(), reader.averagePacksToBuy(row));
+            assertEquals(expected.isPartial(), reader.partial(row));
+          }
+        }
+      }
+      assertFalse(reader.next());
+    }
+    assertEquals(expectedRows, rows);
+    assertEquals((expectedRows + 99) / 100, dayChunks);
+  }
+
+  @Test
+  @DisplayName("Devrait refuser un export invalide sans laisser de fichier et détecter un export tronqué")
+  void shouldRejectInvalidAndTruncatedExports() throws IOException {
+    ColumnarExportService exportService = new ColumnarExportService(optimizationService, directory, 100);
+    List<OptimizationRequestDto> households = List.of(new OptimizationRequestDto(),
+        OptimizationRequestDto.builder().packSize(0).build());
+
+    ValidationException exception = assertThrows(ValidationException.class,
+        () -> exportService.export(new ExportRequestDto("bad.yogc", households)));
+    assertTrue(exception.getViolations().get(0).startsWith("[1] "));
+    assertFalse(Files.exists(directory.resolve("bad.yogc")));
+    assertThrows(ValidationException.class,
+        () -> exportService.export(new ExportRequestDto("../evil", households.subList(0, 1))));
+
+    Path file = directory.resolve("ok.yogc");
+    exportService.export(new ExportRequestDto("ok.yogc", households.subList(0, 1)));
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - ColumnarFormat.CHUNK_HEADER_SIZE);
+    }
+    try (ColumnarExportReader reader = new ColumnarExportReader(file)) {
+      assertThrows(IOException.class, () -> {
+        while (reader.next()) {
+          // parcours jusqu'au bloc de fin manquant
+        }
+      });
+    }
+  }
+
+  @Test
+  @DisplayName("Devrait refuser d'écraser un export existant et ne jamais supprimer celui d'une autre requête")
+  void shouldNeverOverwriteOrDeleteExistingExport() throws IOException {
+    ColumnarExportService exportService = new ColumnarExportService(optimizationService, directory, 100);
+    List<OptimizationRequestDto> households = List.of(new OptimizationRequestDto());
+    exportService.export(new ExportRequestDto("shared.yogc", households));
+    byte[] published = Files.readAllBytes(directory.resolve("shared.yogc"));
+
+    assertThrows(ValidationException.class,
+        () -> exportService.export(new ExportRequestDto("shared.yogc", households)));
+    assertThrows(ValidationException.class, () -> exportService.export(new ExportRequestDto("shared.yogc",
+        List.of(OptimizationRequestDto.builder().packSize(0).build()))));
+
+    assertArrayEquals(published, Files.readAllBytes(directory.resolve("shared.yogc")));
+    try (var files = Files.list(directory)) {
+      // Aucun fichier temporaire laissé derrière
+      assertEquals(List.of(directory.resolve("shared.yogc")), files.toList());
+    }
+  }
+}
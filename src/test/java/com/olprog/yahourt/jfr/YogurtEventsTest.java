@@ -0,0 +1,135 @@
+package com.olprog.yahourt.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.StockSimulationParams;
+import com.olprog.yahourt.service.SimulationResultSerializer;
+import com.olprog.yahourt.service.YogurtOptimizationService;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class YogurtEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Devrait enregistrer avec le profil JFC livré, seuils compris")
+    void shouldRecordWithShippedProfile() throws Exception {
+        Configuration configuration = shippedConfiguration();
+        assertEquals("Yogurt", configuration.getLabel());
+
+        YogurtOptimizationService service = new YogurtOptimizationService();
+        Path file = tempDir.resolve("yogurt.jfr");
+        try (Recording recording = new Recording(configuration)) {
+            recording.start();
+            simulate(service);
+            System.gc();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        // Seuil nul : chaque simulation est enregistrée
+        RecordedEvent simulation = single(events, "com.olprog.yahourt.Simulation");
+        assertEquals(simulation.getInt("horizon"), simulation.getInt("daysSimulated"));
+        assertTrue(simulation.getInt("recommendations") > 0);
+        assertEquals("DAY", simulation.getString("granularity"));
+        assertFalse(simulation.getBoolean("failed"));
+        // Seuil de 1 ms : seules les conversions et sérialisations lentes sont gardées
+        for (String name : List.of("com.olprog.yahourt.ParamsConversion", "com.olprog.yahourt.Serialization")) {
+            events.stream()
+                    .filter(event -> event.getEventType().getName().equals(name))
+                    .forEach(event -> assertTrue(event.getDuration().compareTo(Duration.ofMillis(1)) >= 0, name));
+        }
+        // Événements JDK activés par le profil
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("jdk.GarbageCollection")));
+    }
+
+    @Test
+    @DisplayName("Devrait renseigner les champs des événements du domaine, sans seuil")
+    void shouldFillDomainEventFields() throws Exception {
+        YogurtOptimizationService service = new YogurtOptimizationService();
+        Path file = tempDir.resolve("fields.jfr");
+        try (Recording recording = new Recording(shippedConfiguration())) {
+            // Seuils du profil levés pour garder les événements rapides
+            recording.enable(ParamsConversionEvent.class).withoutThreshold();
+            recording.enable(SerializationEvent.class).withoutThreshold();
+            recording.start();
+            simulate(service);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent conversion = single(events, "com.olprog.yahourt.ParamsConversion");
+        assertTrue(conversion.getBoolean("valid"));
+        assertFalse(conversion.getBoolean("defaultRequest"));
+        assertTrue(single(events, "com.olprog.yahourt.Serialization").getLong("bytes") > 0);
+        assertTrue(Files.size(file) > 0);
+    }
+
+    @Test
+    @DisplayName("Devrait enregistrer aussi les simulations en échec")
+    void shouldRecordFailedSimulation() throws Exception {
+        YogurtOptimizationService service = new YogurtOptimizationService();
+        Path file = tempDir.resolve("failed.jfr");
+        try (Recording recording = new Recording(shippedConfiguration())) {
+            recording.start();
+
+            OptimizationRequestDto dto = new OptimizationRequestDto();
+            dto.setCursor("pas-un-curseur");
+            StockSimulationParams params = service.convertRequestToParams(dto);
+            assertThrows(ValidationException.class, () -> service.simulateYogurtStockForYear(params));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordedEvent simulation = single(RecordingFile.readAllEvents(file), "com.olprog.yahourt.Simulation");
+        assertTrue(simulation.getBoolean("failed"));
+        assertTrue(simulation.getBoolean("resumed"));
+    }
+
+    private Configuration shippedConfiguration() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                getClass().getResourceAsStream("/jfr/yogurt.jfc"), StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+
+    private static void simulate(YogurtOptimizationService service) {
+        StockSimulationParams params = service.convertRequestToParams(new OptimizationRequestDto());
+        SimulationResult result = service.simulateYogurtStockForYear(params);
+        new SimulationResultSerializer().serialize(result);
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,118 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.model.Granularity;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+/**
+ * Vérifie que les chemins critiques n'allouent pas plus que les budgets de
+ * {@code allocation-budgets.properties}, mesurés avec le compteur d'octets
+ * alloués du thread courant après chauffe du JIT (meilleur de plusieurs tours).
+ */
+@JsonTest
+public class AllocationBudgetTest {
+
+    private static final int WARMUP_ITERATIONS = 5_000;
+    private static final int MEASURED_ROUNDS = 10;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    private static final byte[] REQUEST_BODY = ("{\"initialStock\":4,\"deliveryDelay\":3,\"packSize\":6,"
+            + "\"purchaseDay\":\"thursday\",\"dailyConsumption\":{\"MONDAY\":2,\"TUESDAY\":3,\"WEDNESDAY\":1,"
+            + "\"THURSDAY\":0,\"FRIDAY\":4,\"SATURDAY\":5,\"SUNDAY\":5},"
+            + "\"consumptionOverrides\":{\"2025-12-25\":8},\"blockedDeliveryDates\":[\"2025-05-01\"]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+    private static Properties budgets;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final YogurtOptimizationService optimizationService = new YogurtOptimizationService();
+
+    // Empêche le JIT d'éliminer les appels mesurés
+    private long sink;
+
+    @BeforeAll
+    static void loadBudgets() throws Exception {
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            budgets.load(in);
+        }
+    }
+
+    @Test
+    @DisplayName("La simulation complète (jour par jour) doit respecter son budget d'allocation")
+    void fullSimulationShouldStayWithinBudget() throws Exception {
+        StockSimulationParams params = bind();
+        assertWithinBudget("simulate.full",
+                () -> sink += optimizationService.simulateYogurtStockForYear(params).getDailyStockLevels().size());
+    }
+
+    @Test
+    @DisplayName("La simulation en synthèse mensuelle doit respecter son budget d'allocation")
+    void summarySimulationShouldStayWithinBudget() throws Exception {
+        StockSimulationParams params = bind();
+        params.setGranularity(Granularity.MONTH);
+        assertWithinBudget("simulate.summary",
+                () -> sink += optimizationService.simulateYogurtStockForYear(params).getStockBuckets().size());
+    }
+
+    @Test
+    @DisplayName("La liaison de la requête doit respecter son budget d'allocation")
+    void requestBindingShouldStayWithinBudget() throws Exception {
+        assertWithinBudget("request.binding", () -> sink += bind().getPackSize());
+    }
+
+    private StockSimulationParams bind() throws Exception {
+        return optimizationService.convertRequestToParams(
+                objectMapper.readValue(REQUEST_BODY, OptimizationRequestDto.class));
+    }
+
+    private void assertWithinBudget(String path, Operation operation) throws Exception {
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(),
+                "Compteur d'allocation par thread indisponible sur cette JVM");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+
+        // Le minimum des tours écarte le bruit des recompilations du JIT
+        long threadId = Thread.currentThread().getId();
+        long perCall = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                operation.run();
+            }
+            perCall = Math.min(perCall,
+                    (threadMXBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_ITERATIONS);
+        }
+
+        long budget = Long.parseLong(budgets.getProperty(path));
+        System.out.printf("Allocation %s : %d octets par appel (budget %d)%n", path, perCall, budget);
+        assertTrue(perCall <= budget, path + " alloue " + perCall + " octets par appel, budget " + budget);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+}
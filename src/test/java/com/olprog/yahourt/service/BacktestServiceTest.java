@@ -0,0 +1,121 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.olprog.yahourt.dto.BacktestRequestDto;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.BacktestReport;
+import com.olprog.yahourt.model.SimulationSummary;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+public class BacktestServiceTest {
+
+    private final YogurtOptimizationService optimizationService = new YogurtOptimizationService();
+    private final BacktestService backtestService = new BacktestService(optimizationService);
+
+    private static BacktestRequestDto request(LocalDate startDate) {
+        return BacktestRequestDto.builder()
+                .startDate(startDate)
+                .initialStock(5)
+                .deliveryDelay(3)
+                .packSize(6)
+                .purchaseDay("wednesday")
+                .dailyConsumption(Map.of("SATURDAY", 6, "MONDAY", 1))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Devrait reproduire la simulation quand la consommation réelle suit le profil")
+    void shouldMatchSimulationWhenSeriesFollowsProfile() {
+        LocalDate start = LocalDate.of(2024, 3, 1);
+        BacktestRequestDto request = request(start);
+        StockSimulationParams params = optimizationService.convertRequestToParams(null);
+        params.setStartDate(start);
+        params.setInitialStock(5);
+        params.setDeliveryDelay(3);
+        params.setPackSize(6);
+        params.setPurchaseDay(DayOfWeek.WEDNESDAY);
+        params.setConsumptionProfile(optimizationService.convertRequestToParams(OptimizationRequestDto.builder()
+                .dailyConsumption(request.getDailyConsumption())
+                .build()).getConsumptionProfile());
+        SimulationSummary summary = optimizationService.simulateYogurtStockForYear(params).getSummary();
+
+        int days = (int) (start.plusYears(1).toEpochDay() - start.toEpochDay());
+        int[] series = new int[days];
+        for (int i = 0; i < days; i++) {
+            series[i] = params.getConsumptionProfile().getConsumptionForDay(start.plusDays(i).getDayOfWeek());
+        }
+        request.setActualConsumption(series);
+        BacktestReport report = backtestService.backtest(request);
+
+        assertEquals(days, report.getDays());
+        assertEquals(summary.getTotalPurchases(), report.getTotalPurchases());
+        assertEquals(summary.getTotalYogurtsPurchased(), report.getTotalYogurtsPurchased());
+        assertEquals(summary.getTotalYogurtsConsumed(), report.getTotalConsumed());
+        assertEquals(summary.getAverageStockLevel(), report.getAverageStockLevel());
+        assertEquals(summary.getMinimumStockLevel(), report.getMinimumStockLevel());
+        assertEquals(summary.getMaximumStockLevel(), report.getMaximumStockLevel());
+    }
+
+    @Test
+    @DisplayName("Devrait signaler ruptures et surstock sur une série réelle transmise en flux")
+    void shouldReportStockoutsAndExcessFromStream() throws IOException {
+        // Semaine 1 : pic de consommation ; semaines suivantes : rien n'est consommé
+        StringBuilder series = new StringBuilder("20,20, 20\n20\r\n");
+        for (int i = 0; i < 60; i++) {
+            series.append("0\n");
+        }
+        BacktestReport report = backtestService.backtest(request(LocalDate.of(2025, 1, 1)),
+                new ByteArrayInputStream(series.toString().getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(64, report.getDays());
+        assertEquals(80, report.getTotalDemand());
+        // Mercredi : 5 paquets de 6 livrés samedi ; ruptures mercredi, jeudi et vendredi
+        assertEquals(3, report.getStockoutDays());
+        assertEquals(80 - 5 - 20, report.getUnmetDemand());
+        assertTrue(report.getServiceLevel() < 0.5);
+        // Le mercredi suivant, 4 paquets pour couvrir le profil, puis plus rien n'est consommé
+        assertEquals(2, report.getTotalPurchases());
+        assertEquals(34, report.getFinalStock());
+        assertEquals(34, report.getMaximumExcessStock());
+    }
+
+    @Test
+    @DisplayName("Devrait garder une mémoire bornée sur une série de plusieurs décennies")
+    void shouldStreamLongSeries() throws IOException {
+        int days = 50 * 366;
+        InputStream series = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                // "3\n" répété : jamais plus d'un tampon de lecture en mémoire
+                if (position >= days * 2) {
+                    return -1;
+                }
+                return position++ % 2 == 0 ? '3' : '\n';
+            }
+        };
+
+        BacktestReport report = backtestService.backtest(request(LocalDate.of(1970, 1, 1)), series);
+
+        assertEquals(days, report.getDays());
+        assertEquals(3L * days, report.getTotalDemand());
+        assertThrows(ValidationException.class, () -> backtestService.backtest(request(LocalDate.of(2025, 1, 1)),
+                new ByteArrayInputStream("1,-2".getBytes(StandardCharsets.US_ASCII))));
+    }
+}
@@ -0,0 +1,163 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BatchCoordinatorTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+    private final BatchShardExecutor shardExecutor = new BatchShardExecutor(new YogurtOptimizationService(),
+            new SimulationResultSerializer(), objectMapper);
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final WorkloadLanes lanes = new WorkloadLanes(new SimpleMeterRegistry(), 5000, 0.5, 8, 0.5, 4);
+
+    @AfterEach
+    void tearDown() {
+        servers.forEach(server -> server.stop(0));
+        lanes.destroy();
+    }
+
+    @Test
+    @DisplayName("Devrait répartir les shards entre workers, relancer les échecs et fusionner dans l'ordre")
+    void shouldDispatchRetryAndMergeInOrder() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger served = new AtomicInteger();
+        String failing = startWorker(failures, true);
+        String healthy = startWorker(served, false);
+        List<OptimizationRequestDto> scenarios = scenarios(11);
+
+        JsonNode results = run(coordinator(List.of(failing, healthy), 3), scenarios);
+
+        assertEquals(objectMapper.readTree(shardExecutor.execute(scenarios)), results);
+        assertEquals(11, results.size());
+        assertTrue(results.get(4).has("error"));
+        // 4 shards : ceux envoyés d'abord au worker en panne sont relancés sur l'autre
+        assertEquals(2, failures.get());
+        assertEquals(4, served.get());
+    }
+
+    @Test
+    @DisplayName("Devrait exécuter localement un shard dont toutes les tentatives échouent")
+    void shouldFallBackToLocalExecution() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        String failing = startWorker(failures, true);
+        List<OptimizationRequestDto> scenarios = scenarios(5);
+
+        JsonNode results = run(coordinator(List.of(failing, "http://localhost:1"), 3), scenarios);
+
+        assertEquals(objectMapper.readTree(shardExecutor.execute(scenarios)), results);
+        assertTrue(failures.get() >= 3);
+    }
+
+    @Test
+    @DisplayName("Sans worker, devrait exécuter les shards localement")
+    void shouldRunLocallyWithoutWorkers() throws Exception {
+        List<OptimizationRequestDto> scenarios = scenarios(7);
+
+        assertEquals(objectMapper.readTree(shardExecutor.execute(scenarios)),
+                run(coordinator(List.of(), 3), scenarios));
+        assertEquals(0, run(coordinator(List.of(), 3), List.of()).size());
+    }
+
+    @Test
+    @DisplayName("Devrait signaler en erreur les scénarios d'un shard en échec sans tronquer le tableau")
+    void shouldReportFailedShardAsErrors() throws Exception {
+        List<OptimizationRequestDto> scenarios = scenarios(7);
+        BatchShardExecutor brokenExecutor = new BatchShardExecutor(new YogurtOptimizationService(),
+                new SimulationResultSerializer(), objectMapper) {
+            @Override
+            public byte[] execute(List<OptimizationRequestDto> slice) {
+                if (slice.get(0) == scenarios.get(3)) {
+                    throw new IllegalStateException("panne");
+                }
+                return super.execute(slice);
+            }
+        };
+        BatchCoordinator coordinator = new BatchCoordinator(brokenExecutor, objectMapper, lanes, List.of(), 3, 3,
+                2, Duration.ofSeconds(30));
+
+        JsonNode results = run(coordinator, scenarios);
+        JsonNode expected = objectMapper.readTree(shardExecutor.execute(scenarios));
+
+        assertEquals(7, results.size());
+        for (int i = 0; i < 7; i++) {
+            if (i >= 3 && i < 6) {
+                assertTrue(results.get(i).has("error"));
+            } else {
+                assertEquals(expected.get(i), results.get(i));
+            }
+        }
+    }
+
+    private JsonNode run(BatchCoordinator coordinator, List<OptimizationRequestDto> scenarios) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        coordinator.run(scenarios, out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private BatchCoordinator coordinator(List<String> workers, int maxAttempts) {
+        return new BatchCoordinator(shardExecutor, objectMapper, lanes, workers, 3, maxAttempts, 2,
+                Duration.ofSeconds(30));
+    }
+
+    private String startWorker(AtomicInteger requests, boolean failing) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(BatchCoordinator.SHARD_PATH, exchange -> {
+            requests.incrementAndGet();
+            byte[] response;
+            int status;
+            if (failing) {
+                exchange.getRequestBody().readAllBytes();
+                response = new byte[0];
+                status = 503;
+            } else {
+                List<OptimizationRequestDto> shard = objectMapper.readValue(exchange.getRequestBody(),
+                        new TypeReference<List<OptimizationRequestDto>>() {
+                        });
+                response = shardExecutor.execute(shard);
+                status = 200;
+            }
+            exchange.sendResponseHeaders(status, response.length == 0 ? -1 : response.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    private static List<OptimizationRequestDto> scenarios(int count) {
+        List<OptimizationRequestDto> scenarios = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            scenarios.add(OptimizationRequestDto.builder()
+                    .initialStock(i)
+                    .packSize(i == 4 ? 0 : 1 + i % 6)
+                    .granularity("month")
+                    .build());
+        }
+        return scenarios;
+    }
+}
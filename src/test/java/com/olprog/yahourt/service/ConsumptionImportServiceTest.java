@@ -0,0 +1,115 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.olprog.yahourt.model.ConsumptionImportReport;
+import com.olprog.yahourt.model.HouseholdConsumptionProfile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ConsumptionImportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final WorkloadLanes lanes = new WorkloadLanes(new SimpleMeterRegistry(), 5000, 0.5, 8, 0.5, 4);
+    private final ConsumptionImportService importService = new ConsumptionImportService(lanes, 4);
+
+    @AfterEach
+    void shutdown() {
+        lanes.destroy();
+    }
+
+    @Test
+    @DisplayName("Devrait calculer moyennes et variances par jour de la semaine, plages lues en parallèle")
+    void shouldAggregateLargeHistoryInParallel() throws IOException {
+        String[] households = { "foyer-é", "b", "c-42" };
+        long[][] counts = new long[households.length][7];
+        double[][] sums = new double[households.length][7];
+        double[][] sumsOfSquares = new double[households.length][7];
+        Random random = new Random(7);
+        LocalDate start = LocalDate.of(1999, 1, 1);
+
+        Path csv = directory.resolve("history.csv");
+        long rows = 0;
+        try (Writer writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("household,date,consumption\r\n");
+            // Plus de 1 Mo : le fichier est découpé en plusieurs plages
+            for (int day = 0; day < 60_000; day++) {
+                LocalDate date = start.plusDays(day);
+                for (int h = 0; h < households.length; h++) {
+                    int consumption = random.nextInt(3 + h * 2);
+                    writer.write(households[h] + "," + date + "," + consumption + (day % 2 == 0 ? "\n" : "\r\n"));
+                    int dayOfWeek = date.getDayOfWeek().ordinal();
+                    counts[h][dayOfWeek]++;
+                    sums[h][dayOfWeek] += consumption;
+                    sumsOfSquares[h][dayOfWeek] += (double) consumption * consumption;
+                    rows++;
+                }
+            }
+            writer.write("b,2025-02-30,3\n");
+            writer.write("b,2025-01-01,-3\n");
+            writer.write(",2025-01-01,3\n");
+            writer.write("b,2025-01-01,3");
+        }
+        counts[1][LocalDate.of(2025, 1, 1).getDayOfWeek().ordinal()]++;
+        sums[1][LocalDate.of(2025, 1, 1).getDayOfWeek().ordinal()] += 3;
+        sumsOfSquares[1][LocalDate.of(2025, 1, 1).getDayOfWeek().ordinal()] += 9;
+        rows++;
+
+        ConsumptionImportReport report = importService.importHistory(csv, true);
+
+        assertEquals(rows, report.getRows());
+        assertEquals(3, report.getRejectedRows());
+        assertTrue(report.getRowsPerSecond() > 0);
+        List<HouseholdConsumptionProfile> profiles = report.getProfiles();
+        assertEquals(List.of("b", "c-42", "foyer-é"),
+                profiles.stream().map(HouseholdConsumptionProfile::getHouseholdId).toList());
+        for (HouseholdConsumptionProfile profile : profiles) {
+            int h = List.of(households).indexOf(profile.getHouseholdId());
+            for (DayOfWeek day : DayOfWeek.values()) {
+                int d = day.ordinal();
+                double mean = sums[h][d] / counts[h][d];
+                double variance = (sumsOfSquares[h][d] - counts[h][d] * mean * mean) / (counts[h][d] - 1);
+                assertEquals(counts[h][d], profile.getDays().get(day));
+                assertEquals(mean, profile.getMean().get(day), 1e-9);
+                assertEquals(variance, profile.getVariance().get(day), 1e-6);
+                assertEquals(Math.round(mean), profile.getConsumptionProfile().getConsumptionForDay(day));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait importer un flux sans en-tête, sans variance par défaut")
+    void shouldImportStreamWithoutHeader() {
+        byte[] csv = ("h1,2025-01-06,4\nh1,2025-01-13,2\nh1,2025-01-07,5\n").getBytes(StandardCharsets.UTF_8);
+
+        ConsumptionImportReport report = importService.importHistory(new ByteArrayInputStream(csv), false);
+
+        assertEquals(3, report.getRows());
+        HouseholdConsumptionProfile profile = report.getProfiles().get(0);
+        assertEquals(3, profile.getConsumptionProfile().getConsumptionForDay(DayOfWeek.MONDAY));
+        assertEquals(5, profile.getConsumptionProfile().getConsumptionForDay(DayOfWeek.TUESDAY));
+        assertEquals(0, profile.getConsumptionProfile().getConsumptionForDay(DayOfWeek.SUNDAY));
+        assertEquals(2L, profile.getDays().get(DayOfWeek.MONDAY));
+        assertNull(profile.getVariance());
+    }
+}
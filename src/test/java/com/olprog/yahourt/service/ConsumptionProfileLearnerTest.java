@@ -0,0 +1,111 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.olprog.yahourt.dto.ConsumptionEventDto;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.ConsumptionProfile;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+public class ConsumptionProfileLearnerTest {
+
+    private final ConsumptionProfileLearner profileLearner = new ConsumptionProfileLearner(0.5);
+
+    @Test
+    @DisplayName("Devrait lisser la consommation par jour de la semaine et garder les défauts ailleurs")
+    void shouldUpdateExponentialAverage() {
+        LocalDate monday = LocalDate.of(2025, 1, 6);
+        // 4, puis 4 + 0.5 * (8 - 4) = 6, puis 6 + 0.5 * (1 - 6) = 3.5 -> 4
+        profileLearner.record(List.of(
+                new ConsumptionEventDto("h1", monday, 4),
+                new ConsumptionEventDto("h1", monday.plusDays(7), 8),
+                new ConsumptionEventDto("h1", monday.plusDays(14), 1),
+                new ConsumptionEventDto("h1", monday.plusDays(1), 0)));
+
+        ConsumptionProfile profile = profileLearner.learnedProfile("h1", ConsumptionProfile.createDefault());
+
+        assertEquals(4, profile.getConsumptionForDay(DayOfWeek.MONDAY));
+        assertEquals(0, profile.getConsumptionForDay(DayOfWeek.TUESDAY));
+        assertEquals(4, profile.getConsumptionForDay(DayOfWeek.SUNDAY));
+        assertNull(profileLearner.learnedProfile("inconnu", ConsumptionProfile.createDefault()));
+    }
+
+    @Test
+    @DisplayName("Devrait borner le nombre de foyers suivis en oubliant les moins récemment mis à jour")
+    void shouldEvictLeastRecentlyUpdatedHouseholds() {
+        ConsumptionProfileLearner learner = new ConsumptionProfileLearner(0.5, 100);
+        learner.record("ancien", 0, 3);
+        for (int i = 0; i < 1_000; i++) {
+            learner.record("foyer-" + i, 0, 1);
+            // Le foyer "actif" reste parmi les plus récents
+            learner.record("actif", 0, 2);
+        }
+
+        assertTrue(learner.trackedHouseholds() <= 100);
+        assertNull(learner.learnedProfile("ancien", ConsumptionProfile.createDefault()));
+        assertEquals(2, learner.learnedProfile("actif", ConsumptionProfile.createDefault())
+                .getConsumptionForDay(DayOfWeek.MONDAY));
+        assertEquals(1, learner.learnedProfile("foyer-999", ConsumptionProfile.createDefault())
+                .getConsumptionForDay(DayOfWeek.MONDAY));
+    }
+
+    @Test
+    @DisplayName("Ne devrait perdre aucune mise à jour concurrente d'un même foyer")
+    void shouldNotLoseConcurrentUpdates() {
+        ConsumptionProfileLearner learner = new ConsumptionProfileLearner(1e-4);
+        List<CompletableFuture<Void>> writers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            writers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    learner.record("partagé", 0, 100);
+                }
+            }));
+        }
+        learner.record("partagé", 0, 0);
+        writers.forEach(CompletableFuture::join);
+
+        // Chaque relevé à 100 rapproche la moyenne de 100 : perdu, il laisserait un écart mesurable
+        double expected = 100 * (1 - Math.pow(1 - 1e-4, 400_000));
+        int learned = learner.learnedProfile("partagé", ConsumptionProfile.createDefault())
+                .getConsumptionForDay(DayOfWeek.MONDAY);
+        assertTrue(Math.abs(learned - expected) <= 2, "Moyenne " + learned + ", attendue " + expected);
+    }
+
+    @Test
+    @DisplayName("Devrait utiliser le profil appris dans la conversion, la consommation saisie restant prioritaire")
+    void shouldUseLearnedProfileInConversion() {
+        YogurtOptimizationService service = new YogurtOptimizationService(profileLearner);
+        profileLearner.record(List.of(new ConsumptionEventDto("h2", LocalDate.of(2025, 1, 7), 9),
+                new ConsumptionEventDto("h2", LocalDate.of(2025, 1, 8), 7)));
+
+        StockSimulationParams params = service.convertRequestToParams(OptimizationRequestDto.builder()
+                .householdId("h2")
+                .dailyConsumption(Map.of("WEDNESDAY", 1))
+                .build());
+
+        assertEquals(9, params.getConsumptionProfile().getConsumptionForDay(DayOfWeek.TUESDAY));
+        assertEquals(1, params.getConsumptionProfile().getConsumptionForDay(DayOfWeek.WEDNESDAY));
+        assertEquals(3, params.getConsumptionProfile().getConsumptionForDay(DayOfWeek.MONDAY));
+        assertEquals(ConsumptionProfile.createDefault(), service.convertRequestToParams(
+                OptimizationRequestDto.builder().householdId("inconnu").build()).getConsumptionProfile());
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> profileLearner.record(
+                List.of(new ConsumptionEventDto("h2", null, 1), new ConsumptionEventDto(" ", LocalDate.now(), -1))));
+        assertEquals(2, exception.getViolations().size());
+        assertTrue(exception.getViolations().get(1).startsWith("[1] "));
+    }
+}
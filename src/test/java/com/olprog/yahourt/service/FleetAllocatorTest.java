@@ -0,0 +1,115 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.olprog.yahourt.dto.FleetPlanRequestDto;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.model.FleetDelivery;
+import com.olprog.yahourt.model.FleetPlan;
+
+public class FleetAllocatorTest {
+
+    @Test
+    @DisplayName("Devrait servir d'abord la commande la plus proche de la rupture et partager la suivante")
+    void shouldServeClosestStockoutFirstAndSplit() {
+        FleetAllocator allocator = new FleetAllocator();
+        allocator.add(0, 8, 10, 10, 30, 5);
+        allocator.add(1, 8, 10, 10, 12, 5);
+        allocator.add(2, 8, 10, 10, 20, 5);
+
+        allocator.allocate(8, 0);
+
+        // Jour 10 : foyer 1 (rupture 12) puis 3 paquets du foyer 2 ; jour 11 : le reste
+        assertDelivery(allocator, 0, 1, 10, 5);
+        assertDelivery(allocator, 1, 2, 10, 3);
+        assertDelivery(allocator, 2, 2, 11, 2);
+        assertDelivery(allocator, 3, 0, 11, 5);
+        assertEquals(4, allocator.deliveryCount());
+    }
+
+    @Test
+    @DisplayName("Devrait avancer une commande sur un jour libre quand son jour débordera")
+    void shouldAdvanceIntoSpareCapacity() {
+        FleetAllocator allocator = new FleetAllocator();
+        allocator.add(0, 5, 9, 9, 40, 2);
+        allocator.add(1, 6, 10, 8, 15, 6);
+        allocator.add(2, 6, 10, 8, 25, 6);
+
+        allocator.allocate(6, 2);
+
+        // Le jour 10 déborde de 6 paquets, dont 4 tiennent dans la capacité libre du jour 9 :
+        // seuls 2 paquets du foyer le plus exposé sont avancés au jour 8
+        assertDelivery(allocator, 0, 1, 8, 2);
+        assertDelivery(allocator, 1, 0, 9, 2);
+        assertDelivery(allocator, 2, 1, 9, 4);
+        assertDelivery(allocator, 3, 2, 10, 6);
+        assertEquals(4, allocator.deliveryCount());
+    }
+
+    @Test
+    @DisplayName("Devrait répartir un million de commandes en temps linéaire sans dépasser la capacité")
+    void shouldAllocateMillionOrders() {
+        FleetAllocator allocator = new FleetAllocator();
+        Random random = new Random(43);
+        long packs = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            // Commandes du dimanche, livrées deux jours plus tard
+            int orderDay = 20_000 + 7 * random.nextInt(52);
+            int orderPacks = 1 + random.nextInt(8);
+            allocator.add(i / 50, orderDay, orderDay + 2, orderDay, orderDay + random.nextInt(14), orderPacks);
+            packs += orderPacks;
+        }
+
+        allocator.allocate(40_000, 2);
+
+        long delivered = 0;
+        long[] load = new long[2000];
+        for (int d = 0; d < allocator.deliveryCount(); d++) {
+            delivered += allocator.deliveryPacks(d);
+            load[allocator.deliveryDay(d) - 19_000] += allocator.deliveryPacks(d);
+        }
+        assertEquals(packs, delivered);
+        for (long dayLoad : load) {
+            assertTrue(dayLoad <= 40_000);
+        }
+        // Complexité linéaire (hors tas) : un nombre d'itérations proportionnel aux commandes
+        // et livraisons, vérifié sans chronomètre pour ne pas dépendre de la charge de la machine
+        long bound = 2L * (allocator.orderCount() + allocator.deliveryCount());
+        assertTrue(allocator.steps() <= bound, allocator.steps() + " itérations pour " + bound);
+    }
+
+    @Test
+    @DisplayName("Devrait planifier une flotte simulée sous la capacité du fournisseur")
+    void shouldPlanSimulatedFleet() {
+        FleetPlanningService service = new FleetPlanningService(new YogurtOptimizationService());
+        List<OptimizationRequestDto> households = List.of(new OptimizationRequestDto(),
+                OptimizationRequestDto.builder().initialStock(30).build(),
+                OptimizationRequestDto.builder().packSize(4).deliveryDelay(3).build());
+
+        FleetPlan unconstrained = service.plan(new FleetPlanRequestDto(households, 1000, 2));
+        FleetPlan plan = service.plan(new FleetPlanRequestDto(households, 20, 2));
+
+        assertEquals(0, unconstrained.getShiftedOrders());
+        assertEquals(unconstrained.getPacks(), plan.getPacks());
+        assertEquals(plan.getPacks(), plan.getDeliveries().stream().mapToLong(FleetDelivery::getPacks).sum());
+        assertTrue(plan.getUnconstrainedPeakDailyPacks() > 20);
+        assertTrue(plan.getPeakDailyPacks() <= 20);
+        assertTrue(plan.getShiftedOrders() > 0);
+        for (FleetDelivery delivery : plan.getDeliveries()) {
+            assertTrue(!delivery.getDeliveryDate().isBefore(delivery.getRequestedDeliveryDate().minusDays(2)));
+        }
+    }
+
+    private static void assertDelivery(FleetAllocator allocator, int delivery, int household, int day, int packs) {
+        assertEquals(household, allocator.household(allocator.deliveryOrder(delivery)), "foyer #" + delivery);
+        assertEquals(day, allocator.deliveryDay(delivery), "jour #" + delivery);
+        assertEquals(packs, allocator.deliveryPacks(delivery), "paquets #" + delivery);
+    }
+}
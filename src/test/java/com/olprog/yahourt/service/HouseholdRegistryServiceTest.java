@@ -0,0 +1,200 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.olprog.yahourt.dto.HouseholdRecordDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.RegisteredHousehold;
+import com.olprog.yahourt.model.ShoppingListReport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class HouseholdRegistryServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final WorkloadLanes lanes = new WorkloadLanes(new SimpleMeterRegistry(), 5000, 0.5, 8, 0.5, 4);
+
+    @AfterEach
+    void shutdown() {
+        lanes.destroy();
+    }
+
+    @Test
+    @DisplayName("Devrait créer, modifier et supprimer un foyer, et le retrouver après réouverture")
+    void shouldPersistHouseholdsAcrossReopen() throws Exception {
+        Path file = directory.resolve("households.dat");
+        HouseholdRegistryService service = new HouseholdRegistryService(file, lanes, 2);
+        RegisteredHousehold first = service.create(HouseholdRecordDto.builder().currentStock(3)
+                .purchaseDay("friday").dailyConsumption(Map.of("MONDAY", 9)).build());
+        RegisteredHousehold second = service.create(new HouseholdRecordDto());
+
+        assertEquals(0, first.getId());
+        assertEquals(DayOfWeek.FRIDAY, first.getPurchaseDay());
+        assertEquals(9, first.getConsumptionProfile().getConsumptionForDay(DayOfWeek.MONDAY));
+        assertEquals(4, first.getConsumptionProfile().getConsumptionForDay(DayOfWeek.SUNDAY));
+
+        RegisteredHousehold updated = service.update(1, HouseholdRecordDto.builder().packSize(6).build());
+        assertEquals(6, updated.getPackSize());
+        assertTrue(service.delete(0));
+        assertFalse(service.delete(0));
+        assertNull(service.find(0));
+        assertNull(service.update(7, new HouseholdRecordDto()));
+        assertThrows(ValidationException.class,
+                () -> service.create(HouseholdRecordDto.builder().purchaseDay("JEUDI").packSize(0).build()));
+        service.destroy();
+
+        HouseholdRegistryService reopened = new HouseholdRegistryService(file, lanes, 2);
+        assertEquals(1, reopened.size());
+        assertEquals(updated, reopened.find(second.getId()));
+        // L'emplacement libéré est réutilisé
+        assertEquals(0, reopened.create(new HouseholdRecordDto()).getId());
+        reopened.destroy();
+    }
+
+    @Test
+    @DisplayName("Devrait refuser d'ouvrir un registre déjà ouvert, puis l'ouvrir une fois libéré")
+    void shouldLockRegistryFile() throws Exception {
+        Path file = directory.resolve("households.dat");
+        HouseholdRegistryService service = new HouseholdRegistryService(file, lanes, 2);
+        service.create(new HouseholdRecordDto());
+
+        assertThrows(IOException.class, () -> new HouseholdRegistryService(file, lanes, 2));
+        assertEquals(1, service.size());
+        service.destroy();
+
+        HouseholdRegistryService reopened = new HouseholdRegistryService(file, lanes, 2);
+        assertEquals(1, reopened.size());
+        reopened.destroy();
+    }
+
+    @Test
+    @DisplayName("Devrait envoyer la liste de courses sans bloquer les modifications")
+    void shouldStreamShoppingListOutsideLock() throws Exception {
+        HouseholdRegistryService service = new HouseholdRegistryService(directory.resolve("households.dat"),
+                lanes, 2);
+        int households = 10_000;
+        for (int i = 0; i < households; i++) {
+            service.create(HouseholdRecordDto.builder().currentStock(0).purchaseDay("WEDNESDAY").build());
+        }
+        LocalDate date = LocalDate.of(2025, 3, 5);
+        service.generateShoppingList(date);
+
+        // Client lent : chaque envoi attend une création faite par un autre thread
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        try {
+            service.writeShoppingList(date, new OutputStream() {
+                @Override
+                public void write(int b) {
+                    csv.write(b);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) {
+                    csv.write(bytes, offset, length);
+                    try {
+                        writer.submit(() -> service.create(new HouseholdRecordDto())).get(10, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new AssertionError("Création bloquée pendant l'envoi", e);
+                    }
+                }
+            });
+        } finally {
+            writer.shutdownNow();
+        }
+        // Les foyers créés pendant l'envoi n'ont pas de liste
+        assertEquals(households + 1, csv.toString(StandardCharsets.US_ASCII).split("\n").length);
+        service.destroy();
+    }
+
+    @Test
+    @DisplayName("Devrait calculer en parallèle la même commande que le service de prochaine commande")
+    void shouldMatchNextOrderForEveryHousehold() throws Exception {
+        HouseholdRegistryService service = new HouseholdRegistryService(directory.resolve("households.dat"),
+                lanes, 4);
+        Random random = new Random(47);
+        int households = 200_000;
+        int[][] weekly = new int[households][7];
+        int[] stocks = new int[households];
+        int[] delays = new int[households];
+        int[] packSizes = new int[households];
+        int[] purchaseDays = new int[households];
+        for (int i = 0; i < households; i++) {
+            Map<String, Integer> consumption = new HashMap<>();
+            for (DayOfWeek day : DayOfWeek.values()) {
+                weekly[i][day.ordinal()] = random.nextInt(5);
+                consumption.put(day.name(), weekly[i][day.ordinal()]);
+            }
+            stocks[i] = random.nextInt(40);
+            delays[i] = 1 + random.nextInt(10);
+            packSizes[i] = 1 + random.nextInt(12);
+            purchaseDays[i] = random.nextInt(7);
+            service.create(HouseholdRecordDto.builder().currentStock(stocks[i]).deliveryDelay(delays[i])
+                    .packSize(packSizes[i]).purchaseDay(DayOfWeek.values()[purchaseDays[i]].name())
+                    .dailyConsumption(consumption).build());
+        }
+
+        // Mercredi
+        LocalDate date = LocalDate.of(2025, 3, 5);
+        ShoppingListReport report = service.generateShoppingList(date);
+
+        int expectedHouseholds = 0;
+        int expectedOrders = 0;
+        long expectedPacks = 0;
+        StringBuilder expectedCsv = new StringBuilder("household,packs,stock\n");
+        for (int i = 0; i < households; i++) {
+            if (purchaseDays[i] != DayOfWeek.WEDNESDAY.ordinal()) {
+                continue;
+            }
+            expectedHouseholds++;
+            int packs = NextOrderService.nextOrder((int) date.toEpochDay(), stocks[i], delays[i], packSizes[i],
+                    purchaseDays[i], weekly[i], null).getPacksToBuy();
+            if (packs > 0) {
+                expectedOrders++;
+                expectedPacks += packs;
+                expectedCsv.append(i).append(',').append(packs).append(',').append(stocks[i]).append('\n');
+            }
+        }
+        assertEquals(expectedHouseholds, report.getHouseholds());
+        assertEquals(expectedOrders, report.getOrders());
+        assertEquals(expectedPacks, report.getPacks());
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        service.writeShoppingList(date, csv);
+        assertEquals(expectedCsv.toString(), csv.toString(StandardCharsets.US_ASCII));
+
+        // Une modification invalide la liste déjà calculée pour ce foyer
+        String firstOrder = expectedCsv.substring(expectedCsv.indexOf("\n") + 1, expectedCsv.indexOf(",", 22));
+        service.update(Integer.parseInt(firstOrder), new HouseholdRecordDto());
+        csv.reset();
+        service.writeShoppingList(date, csv);
+        // En-tête compris : une ligne de commande en moins
+        assertEquals(expectedOrders, csv.toString(StandardCharsets.US_ASCII).split("\n").length);
+        service.destroy();
+    }
+}
@@ -0,0 +1,174 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.CostModel;
+import com.olprog.yahourt.model.OrderingPolicy;
+import com.olprog.yahourt.model.QuantityDiscount;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.Sku;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+public class LotSizingPlannerTest {
+
+    private static final int HORIZON = 63;
+
+    @Test
+    @DisplayName("Devrait trouver le plan de coût minimal parmi toutes les combinaisons de commandes")
+    void shouldMatchExhaustiveSearch() {
+        Random random = new Random(46);
+        int[] arrivals = { 3, 10, 17, 24, 31, 38, 45, 52, 59 };
+        for (int round = 0; round < 40; round++) {
+            int[] demand = new int[HORIZON];
+            for (int t = 0; t < HORIZON; t++) {
+                demand[t] = random.nextInt(7);
+            }
+            int initialStock = random.nextInt(20);
+            CostModel costs = CostModel.builder()
+                    .pricePerPack(1 + random.nextInt(3))
+                    .fixedOrderCost(random.nextInt(40))
+                    .holdingCostPerUnitDay(0.05 * (1 + random.nextInt(4)))
+                    .quantityDiscounts(round % 2 == 0 ? null
+                            : List.of(new QuantityDiscount(20, 0.5), new QuantityDiscount(40, 0.25)))
+                    .build();
+
+            int[] packs = LotSizingPlanner.plan(demand, initialStock, arrivals, 1, costs);
+
+            double expected = Double.POSITIVE_INFINITY;
+            for (int orders = 0; orders < 1 << arrivals.length; orders++) {
+                expected = Math.min(expected, cost(demand, initialStock, arrivals, fill(demand, initialStock,
+                        arrivals, orders), costs));
+            }
+            assertEquals(expected, cost(demand, initialStock, arrivals, packs, costs), 1e-9, "Tirage " + round);
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait coûter moins cher que la règle fixe, sans rupture supplémentaire")
+    void shouldCostLessThanFixedRule() {
+        CostModel costs = CostModel.builder().pricePerPack(1.2).fixedOrderCost(6).holdingCostPerUnitDay(0.02).build();
+        StockSimulationParams rule = StockSimulationParams.createDefault();
+        rule.setCostModel(costs);
+        StockSimulationParams optimal = StockSimulationParams.createDefault();
+        optimal.setCostModel(costs);
+        optimal.setPolicy(OrderingPolicy.COST_OPTIMAL);
+
+        YogurtOptimizationService service = new YogurtOptimizationService();
+        SimulationResult ruleResult = service.simulateYogurtStockForYear(rule);
+        SimulationResult optimalResult = service.simulateYogurtStockForYear(optimal);
+
+        assertNotNull(ruleResult.getSummary().getTotalCost());
+        assertTrue(optimalResult.getSummary().getTotalCost() < ruleResult.getSummary().getTotalCost());
+        assertTrue(optimalResult.getSummary().getTotalPurchases() < ruleResult.getSummary().getTotalPurchases());
+        assertTrue(optimalResult.getSummary().getTotalYogurtsConsumed()
+                >= ruleResult.getSummary().getTotalYogurtsConsumed());
+        assertEquals(ruleResult.getDailyStockLevels().size(), optimalResult.getDailyStockLevels().size());
+        // Sans modèle de coûts, la synthèse n'est pas chiffrée
+        assertEquals(null, service.simulateYogurtStockForYear(StockSimulationParams.createDefault())
+                .getSummary().getTotalCost());
+    }
+
+    @Test
+    @DisplayName("Devrait regrouper les commandes pour atteindre une remise, et refuser un plan multi-références")
+    void shouldGroupOrdersForDiscountAndRejectSkus() {
+        int[] demand = new int[HORIZON];
+        Arrays.fill(demand, 2);
+        int[] arrivals = { 0, 7, 14, 21, 28, 35, 42, 49, 56 };
+        CostModel plain = CostModel.builder().pricePerPack(1).fixedOrderCost(0.5).holdingCostPerUnitDay(0.01).build();
+        CostModel discounted = CostModel.builder().pricePerPack(1).fixedOrderCost(0.5).holdingCostPerUnitDay(0.01)
+                .quantityDiscounts(List.of(new QuantityDiscount(30, 0.5))).build();
+
+        // Commande chaque semaine sans remise ; avec remise, une commande de 5 semaines
+        // (35 paquets) au milieu, les extrémités restant moins chères à la semaine
+        int[] weekly = LotSizingPlanner.plan(demand, 0, arrivals, 2, plain);
+        int[] grouped = LotSizingPlanner.plan(demand, 0, arrivals, 2, discounted);
+        assertEquals(9, countOrders(weekly));
+        assertEquals("[7, 7, 35, 0, 0, 0, 0, 7, 7]", Arrays.toString(grouped));
+
+        StockSimulationParams params = StockSimulationParams.createDefault();
+        params.setPolicy(OrderingPolicy.COST_OPTIMAL);
+        params.setSkus(List.of(Sku.builder().id("nature").initialStock(0).packSize(4)
+                .consumptionProfile(params.getConsumptionProfile()).build()));
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> new YogurtOptimizationService().simulateYogurtStockForYear(params));
+        assertEquals(2, exception.getViolations().size());
+    }
+
+    /**
+     * Paquets commandés aux seules livraisons de {@code orders} (masque), chacun
+     * couvrant la demande jusqu'à la commande suivante.
+     */
+    private static int[] fill(int[] demand, int initialStock, int[] arrivals, int orders) {
+        int[] packs = new int[arrivals.length];
+        int stock = initialStock;
+        int next = 0;
+        for (int t = 0; t < demand.length; t++) {
+            if (next < arrivals.length && arrivals[next] == t) {
+                if ((orders & 1 << next) != 0) {
+                    int end = demand.length;
+                    for (int k = next + 1; k < arrivals.length; k++) {
+                        if ((orders & 1 << k) != 0) {
+                            end = arrivals[k];
+                            break;
+                        }
+                    }
+                    int needed = -stock;
+                    for (int u = t; u < end; u++) {
+                        needed += demand[u];
+                    }
+                    packs[next] = Math.max(0, needed);
+                    stock += packs[next];
+                }
+                next++;
+            }
+            stock -= Math.min(stock, demand[t]);
+        }
+        return packs;
+    }
+
+    /**
+     * Coût d'un plan ; une rupture après la première livraison le rend
+     * inacceptable.
+     */
+    private static double cost(int[] demand, int initialStock, int[] arrivals, int[] packs, CostModel costs) {
+        double cost = 0;
+        int stock = initialStock;
+        int next = 0;
+        for (int t = 0; t < demand.length; t++) {
+            if (next < arrivals.length && arrivals[next] == t) {
+                if (packs[next] > 0) {
+                    cost += costs.getFixedOrderCost() + costs.purchaseCost(packs[next]);
+                    stock += packs[next];
+                }
+                next++;
+            }
+            cost += stock * costs.getHoldingCostPerUnitDay();
+            if (t >= arrivals[0] && stock < demand[t]) {
+                return Double.POSITIVE_INFINITY;
+            }
+            stock -= Math.min(stock, demand[t]);
+        }
+        return cost;
+    }
+
+    private static int countOrders(int[] packs) {
+        int orders = 0;
+        for (int p : packs) {
+            if (p > 0) {
+                orders++;
+            }
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,128 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.olprog.yahourt.dto.InFlightDeliveryDto;
+import com.olprog.yahourt.dto.NextOrderRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.ConsumptionProfile;
+import com.olprog.yahourt.model.DailyStockLevel;
+import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.StockSimulationParams;
+
+public class NextOrderServiceTest {
+
+    private final NextOrderService nextOrderService = new NextOrderService();
+
+    @Test
+    @DisplayName("Devrait donner la même commande que la simulation complète, quel que soit le jour de départ")
+    void shouldMatchFullSimulation() {
+        Map<DayOfWeek, Integer> consumption = new EnumMap<>(DayOfWeek.class);
+        Map<String, Integer> dailyConsumption = new HashMap<>();
+        int[] values = { 2, 5, 1, 0, 4, 6, 3 };
+        for (DayOfWeek day : DayOfWeek.values()) {
+            consumption.put(day, values[day.ordinal()]);
+            dailyConsumption.put(day.name(), values[day.ordinal()]);
+        }
+        StockSimulationParams params = StockSimulationParams.builder()
+                .startDate(LocalDate.of(2025, 3, 5))
+                .initialStock(4)
+                .deliveryDelay(9)
+                .packSize(6)
+                .purchaseDay(DayOfWeek.THURSDAY)
+                .consumptionProfile(ConsumptionProfile.builder().dailyConsumption(consumption).build())
+                .build();
+        SimulationResult full = new YogurtOptimizationService().simulateYogurtStockForYear(params);
+        List<PurchaseRecommendation> purchases = full.getPurchaseRecommendations();
+        LocalDate lastDay = params.getStartDate().plusDays(365 - 7 - 9 - 7);
+
+        for (DailyStockLevel level : full.getDailyStockLevels()) {
+            LocalDate day = level.getDate();
+            if (day.isAfter(lastDay)) {
+                break;
+            }
+            int stock = level.getStockLevel();
+            List<InFlightDeliveryDto> inFlight = new ArrayList<>();
+            PurchaseRecommendation expected = null;
+            for (PurchaseRecommendation purchase : purchases) {
+                if (purchase.getDeliveryDate().equals(day)) {
+                    stock -= purchase.getPacksToBuy() * params.getPackSize();
+                }
+                if (purchase.getOrderDate().isBefore(day) && !purchase.getDeliveryDate().isBefore(day)) {
+                    inFlight.add(new InFlightDeliveryDto(purchase.getDeliveryDate(), purchase.getPacksToBuy()));
+                }
+                if (expected == null && !purchase.getOrderDate().isBefore(day)) {
+                    expected = purchase;
+                }
+            }
+
+            PurchaseRecommendation actual = nextOrderService.recommendNextOrder(NextOrderRequestDto.builder()
+                    .asOf(day)
+                    .currentStock(stock)
+                    .deliveryDelay(params.getDeliveryDelay())
+                    .packSize(params.getPackSize())
+                    .purchaseDay("thursday")
+                    .dailyConsumption(dailyConsumption)
+                    .inFlightDeliveries(inFlight)
+                    .build());
+
+            if (expected != null && expected.getOrderDate().equals(actual.getOrderDate())) {
+                assertEquals(expected, actual, "Commande divergente pour " + day);
+            } else {
+                assertEquals(0, actual.getPacksToBuy(), "Commande inattendue pour " + day);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait appliquer les valeurs par défaut et commander au prochain jour d'achat")
+    void shouldUseDefaults() {
+        // Lundi ; achat par défaut le dimanche
+        LocalDate monday = LocalDate.of(2025, 1, 6);
+
+        PurchaseRecommendation recommendation = nextOrderService.recommendNextOrder(
+                NextOrderRequestDto.builder().asOf(monday).build());
+
+        assertEquals(LocalDate.of(2025, 1, 12), recommendation.getOrderDate());
+        assertEquals(LocalDate.of(2025, 1, 14), recommendation.getDeliveryDate());
+        assertEquals(0, recommendation.getStockBeforePurchase());
+        // 2 jours de délai + 7 jours, à partir du dimanche : 4 + 3*5 + 4 + 4 + 3 = 30 -> 15 paquets de 2
+        assertEquals(15, recommendation.getPacksToBuy());
+        assertEquals(30, recommendation.getStockAfterDelivery());
+    }
+
+    @Test
+    @DisplayName("Devrait traiter un lot et signaler toutes les erreurs avec leur position")
+    void shouldReportBulkViolationsWithIndex() {
+        List<NextOrderRequestDto> requests = List.of(
+                NextOrderRequestDto.builder().asOf(LocalDate.of(2025, 1, 6)).build(),
+                NextOrderRequestDto.builder().currentStock(-1).build(),
+                NextOrderRequestDto.builder().purchaseDay("JEUDI").build());
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> nextOrderService.recommendNextOrders(requests));
+
+        assertEquals(2, exception.getViolations().size());
+        assertTrue(exception.getViolations().get(0).startsWith("[1] "));
+        assertTrue(exception.getViolations().get(1).startsWith("[2] "));
+
+        List<PurchaseRecommendation> recommendations = nextOrderService.recommendNextOrders(
+                List.of(requests.get(0), requests.get(0)));
+        assertEquals(2, recommendations.size());
+        assertEquals(recommendations.get(0), recommendations.get(1));
+    }
+}
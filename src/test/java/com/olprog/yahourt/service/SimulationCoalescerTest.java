@@ -0,0 +1,122 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.StockSimulationParams;
+import com.olprog.yahourt.store.ResultStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class SimulationCoalescerTest {
+
+    @Mock
+    private YogurtOptimizationService optimizationService;
+
+    @Mock
+    private SimulationResultSerializer serializer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SimulationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new SimulationCoalescer(optimizationService, serializer, ResultStore.NONE, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Devrait partager un seul calcul entre requêtes identiques concurrentes")
+    void shouldShareSingleComputationBetweenConcurrentIdenticalRequests() throws Exception {
+        // Given
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SimulationResult result = SimulationResult.builder().build();
+        byte[] bytes = "{}".getBytes();
+        when(optimizationService.simulateYogurtStockForYear(any())).thenAnswer(invocation -> {
+            leaderStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+        when(serializer.serialize(result)).thenReturn(bytes);
+
+        int followers = 7;
+        ExecutorService executor = Executors.newFixedThreadPool(followers + 1);
+        try {
+            List<Future<byte[]>> responses = new ArrayList<>();
+            responses.add(executor.submit(() -> coalescer.simulate(StockSimulationParams.createDefault())));
+            leaderStarted.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < followers; i++) {
+                responses.add(executor.submit(() -> coalescer.simulate(StockSimulationParams.createDefault())));
+            }
+            // Attendre que les suiveurs soient accrochés au calcul en cours : le compteur
+            // n'est incrémenté qu'une fois le calcul trouvé dans la table
+            while (meterRegistry.counter("yogurt.coalescing.deduplicated").count() < followers) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            // Then
+            for (Future<byte[]> response : responses) {
+                assertSame(bytes, response.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(optimizationService, times(1)).simulateYogurtStockForYear(any());
+        assertEquals(1, meterRegistry.counter("yogurt.coalescing.computations").count());
+        assertEquals(followers, meterRegistry.counter("yogurt.coalescing.deduplicated").count());
+    }
+
+    @Test
+    @DisplayName("Devrait recalculer une fois le calcul précédent terminé")
+    void shouldRecomputeAfterPreviousComputationCompleted() {
+        // Given
+        when(optimizationService.simulateYogurtStockForYear(any())).thenReturn(SimulationResult.builder().build());
+        when(serializer.serialize(any())).thenReturn(new byte[0]);
+
+        // When
+        coalescer.simulate(StockSimulationParams.createDefault());
+        coalescer.simulate(StockSimulationParams.createDefault());
+
+        // Then
+        verify(optimizationService, times(2)).simulateYogurtStockForYear(any());
+    }
+
+    @Test
+    @DisplayName("Devrait propager l'erreur de validation du calcul partagé")
+    void shouldPropagateValidationErrorFromSharedComputation() {
+        // Given
+        when(optimizationService.simulateYogurtStockForYear(any()))
+                .thenThrow(new ValidationException("Le stock initial doit être supérieur ou égal à 0"));
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> {
+            coalescer.simulate(StockSimulationParams.createDefault());
+        });
+    }
+}
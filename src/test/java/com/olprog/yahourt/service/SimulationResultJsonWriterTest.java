@@ -0,0 +1,90 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.dto.SkuDto;
+import com.olprog.yahourt.model.CostModel;
+import com.olprog.yahourt.model.DailyStockLevel;
+import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.model.SimulationResult;
+import com.olprog.yahourt.model.SimulationSummary;
+
+@JsonTest
+public class SimulationResultJsonWriterTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final YogurtOptimizationService optimizationService = new YogurtOptimizationService();
+
+    @Test
+    @DisplayName("Devrait produire exactement les mêmes octets que Jackson")
+    void shouldMatchJacksonOutputByteForByte() throws Exception {
+        OptimizationRequestDto daily = new OptimizationRequestDto();
+        OptimizationRequestDto weekly = OptimizationRequestDto.builder().granularity("week").build();
+        OptimizationRequestDto monthly = OptimizationRequestDto.builder().granularity("month").initialStock(0)
+                .build();
+        OptimizationRequestDto paged = OptimizationRequestDto.builder().pageSize(45).from(LocalDate.of(2025, 2, 1))
+                .build();
+
+        OptimizationRequestDto skus = OptimizationRequestDto.builder().skus(List.of(
+                SkuDto.builder().id("nature").build(),
+                SkuDto.builder().id("fraise \"bio\"\\\n\u0001 été ✓").packSize(4).build())).build();
+
+        OptimizationRequestDto perishable = OptimizationRequestDto.builder().packSize(12).shelfLifeDays(4).build();
+
+        OptimizationRequestDto costed = OptimizationRequestDto.builder().policy("cost_optimal")
+                .costModel(CostModel.builder().pricePerPack(1.15).fixedOrderCost(3).holdingCostPerUnitDay(0.01)
+                        .build())
+                .build();
+
+        for (OptimizationRequestDto dto : List.of(daily, weekly, monthly, paged, skus, perishable, costed)) {
+            SimulationResult result = optimizationService.simulateYogurtStockForYear(
+                    optimizationService.convertRequestToParams(dto));
+            assertSameBytes(result);
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait écrire les valeurs nulles et les dates hors table comme Jackson")
+    void shouldMatchJacksonOutputForNullsAndUnusualDates() throws Exception {
+        assertSameBytes(SimulationResult.builder()
+                .purchaseRecommendations(null)
+                .dailyStockLevels(Collections.emptyList())
+                .summary(null)
+                .build());
+
+        assertSameBytes(SimulationResult.builder()
+                .purchaseRecommendations(List.of(PurchaseRecommendation.builder()
+                        .orderDate(LocalDate.of(1850, 3, 4))
+                        .deliveryDate(null)
+                        .packsToBuy(Integer.MIN_VALUE)
+                        .stockBeforePurchase(-12)
+                        .stockAfterDelivery(Integer.MAX_VALUE)
+                        .build()))
+                .dailyStockLevels(List.of(DailyStockLevel.builder()
+                        .date(LocalDate.of(12025, 1, 1))
+                        .isDeliveryDay(true)
+                        .build()))
+                .summary(SimulationSummary.builder().averagePacksToBuy(1.0 / 3).partial(true).build())
+                .build());
+    }
+
+    private void assertSameBytes(SimulationResult result) throws Exception {
+        String expected = objectMapper.writeValueAsString(result);
+        String actual = new String(SimulationResultJsonWriter.toBytes(result), StandardCharsets.UTF_8);
+        assertEquals(expected, actual);
+    }
+}
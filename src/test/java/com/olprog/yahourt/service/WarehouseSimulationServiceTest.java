@@ -0,0 +1,121 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.dto.WarehouseSimulationRequestDto;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.model.HouseholdSupplyOutcome;
+import com.olprog.yahourt.model.PurchaseRecommendation;
+import com.olprog.yahourt.model.WarehouseSimulationResult;
+import com.olprog.yahourt.model.WarehouseSummary;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class WarehouseSimulationServiceTest {
+
+    private final WorkloadLanes lanes = new WorkloadLanes(new SimpleMeterRegistry(), 5000, 0.5, 8, 0.5, 4);
+    private final WarehouseSimulationService warehouseService = new WarehouseSimulationService(
+            new YogurtOptimizationService(), lanes);
+
+    @AfterEach
+    void shutdown() {
+        lanes.destroy();
+    }
+
+    @Test
+    @DisplayName("Devrait servir les commandes dans l'ordre des foyers et compter celles qui manquent")
+    void shouldServeOrdersInHouseholdOrderAndCountShortfalls() {
+        OptimizationRequestDto household = OptimizationRequestDto.builder().initialStock(0).packSize(6).build();
+        WarehouseSimulationRequestDto request = WarehouseSimulationRequestDto.builder()
+                .households(List.of(household, household, household))
+                .initialStock(0L)
+                .deliveryDelay(4)
+                .reorderPoint(60L)
+                .orderUpTo(120L)
+                .lotSize(24)
+                .build();
+
+        WarehouseSimulationResult result = warehouseService.simulate(request);
+        WarehouseSummary summary = result.getSummary();
+
+        // Entrepôt vide au premier jour : les trois premières commandes manquent entièrement
+        assertTrue(result.getDailyStockLevels().get(0).isPurchaseDay());
+        assertEquals(0, result.getDailyStockLevels().get(0).getStockLevel());
+        PurchaseRecommendation first = result.getReplenishments().get(0);
+        assertEquals(5, first.getPacksToBuy());
+        assertEquals(first.getOrderDate().plusDays(4), first.getDeliveryDate());
+
+        long requested = 0;
+        long shipped = 0;
+        int unmet = 0;
+        for (HouseholdSupplyOutcome outcome : result.getHouseholds()) {
+            requested += outcome.getRequestedYogurts();
+            shipped += outcome.getShippedYogurts();
+            unmet += outcome.getUnmetOrders();
+            assertTrue(outcome.getUnmetOrders() >= 1);
+        }
+        assertEquals(summary.getRequestedYogurts(), requested);
+        assertEquals(summary.getShippedYogurts(), shipped);
+        assertEquals(summary.getUnmetOrders(), unmet);
+        assertEquals(requested - shipped, summary.getUnmetYogurts());
+        // À stock égal, le premier foyer est servi avant les suivants
+        assertTrue(result.getHouseholds().get(0).getShippedYogurts() >= result.getHouseholds().get(2)
+                .getShippedYogurts());
+    }
+
+    @Test
+    @DisplayName("Devrait simuler des dizaines de milliers de foyers avec une règle déduite de leur demande")
+    void shouldScaleWithDerivedRule() {
+        Random random = new Random(48);
+        String[] days = { "monday", "wednesday", "friday", "sunday" };
+        List<OptimizationRequestDto> households = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            households.add(OptimizationRequestDto.builder()
+                    .householdId("foyer-" + i)
+                    .initialStock(random.nextInt(20))
+                    .deliveryDelay(1 + random.nextInt(4))
+                    .packSize(new int[] { 4, 6, 8 }[random.nextInt(3)])
+                    .dailyConsumption(Map.of(days[random.nextInt(days.length)], random.nextInt(6)))
+                    .build());
+        }
+
+        WarehouseSimulationResult result = warehouseService.simulate(
+                WarehouseSimulationRequestDto.builder().households(households).build());
+        WarehouseSummary summary = result.getSummary();
+
+        assertEquals(20_000, summary.getHouseholds());
+        assertEquals("foyer-19999", result.getHouseholds().get(19_999).getHouseholdId());
+        assertTrue(summary.getReorderPoint() > 0 && summary.getOrderUpTo() > summary.getReorderPoint());
+        // Recomplètement quotidien au-dessus de la demande du délai : presque tout est servi
+        assertTrue(summary.getFillRate() > 0.99, "Taux de service " + summary.getFillRate());
+        assertEquals(summary.getHouseholdOrders(), result.getHouseholds().stream()
+                .mapToInt(HouseholdSupplyOutcome::getOrders).sum());
+    }
+
+    @Test
+    @DisplayName("Devrait signaler les foyers invalides avec leur position et une règle incohérente")
+    void shouldReportInvalidHouseholdsAndRule() {
+        List<OptimizationRequestDto> households = List.of(new OptimizationRequestDto(),
+                OptimizationRequestDto.builder().granularity("hour").build());
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> warehouseService.simulate(WarehouseSimulationRequestDto.builder()
+                        .households(households).build()));
+        assertTrue(exception.getViolations().get(0).startsWith("[1] "));
+
+        assertThrows(ValidationException.class, () -> warehouseService.simulate(WarehouseSimulationRequestDto
+                .builder().households(List.of(new OptimizationRequestDto())).reorderPoint(50L).orderUpTo(10L)
+                .build()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class WarmUpRunnerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Devrait exposer la durée et le nombre d'appels du préchauffage")
+    void shouldExposeWarmUpMetrics() {
+        WarmUpRunner runner = new WarmUpRunner(new YogurtOptimizationService(), new SimulationResultSerializer(),
+                meterRegistry, 20, 200, 10.0, Duration.ofSeconds(30));
+
+        runner.warmUp();
+
+        // Tolérance très large : stable dès les premières séries une fois le minimum atteint
+        assertEquals(200, meterRegistry.get("yogurt.warmup.iterations").gauge().value());
+        assertEquals(1, meterRegistry.get("yogurt.warmup.stable").gauge().value());
+        assertTrue(meterRegistry.get("yogurt.warmup.duration").timeGauge().value(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    @DisplayName("Devrait s'arrêter à la durée maximale si le temps par appel ne se stabilise pas")
+    void shouldStopAtMaxDuration() {
+        WarmUpRunner runner = new WarmUpRunner(new YogurtOptimizationService(), new SimulationResultSerializer(),
+                meterRegistry, 5, Integer.MAX_VALUE, 0.0, Duration.ofMillis(200));
+
+        runner.warmUp();
+
+        assertEquals(0, meterRegistry.get("yogurt.warmup.stable").gauge().value());
+        assertTrue(meterRegistry.get("yogurt.warmup.iterations").gauge().value() >= 5);
+        assertTrue(meterRegistry.get("yogurt.warmup.duration").timeGauge().value(TimeUnit.MILLISECONDS) >= 200);
+    }
+}
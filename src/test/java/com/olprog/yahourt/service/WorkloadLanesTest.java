@@ -0,0 +1,108 @@
+package com.olprog.yahourt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.olprog.yahourt.dto.NextOrderRequestDto;
+import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.dto.SkuDto;
+import com.olprog.yahourt.exception.LaneRejectedException;
+import com.olprog.yahourt.exception.ValidationException;
+import com.olprog.yahourt.service.WorkloadLanes.Lane;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class WorkloadLanesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Une seule place dans la voie lourde : un thread, une requête en file
+    private final WorkloadLanes lanes = new WorkloadLanes(meterRegistry, 5000, 0.5, 8, 0.0, 1);
+
+    @AfterEach
+    void tearDown() {
+        lanes.destroy();
+    }
+
+    @Test
+    @DisplayName("Devrait classer les requêtes sur l'horizon, les scénarios et les références")
+    void shouldClassifyByEstimatedCost() {
+        OptimizationRequestDto single = new OptimizationRequestDto();
+        OptimizationRequestDto manySkus = OptimizationRequestDto.builder()
+                .skus(Collections.nCopies(20, SkuDto.builder().packSize(4).build()))
+                .build();
+        OptimizationRequestDto shortWindow = OptimizationRequestDto.builder()
+                .skus(manySkus.getSkus())
+                .to(LocalDate.now().plusDays(30))
+                .build();
+
+        assertEquals(Lane.INTERACTIVE, lanes.classify(WorkloadCost.of(single)));
+        assertEquals(Lane.BULK, lanes.classify(WorkloadCost.of(manySkus)));
+        assertEquals(Lane.INTERACTIVE, lanes.classify(WorkloadCost.of(shortWindow)));
+        assertEquals(Lane.BULK, lanes.classify(WorkloadCost.of(Collections.nCopies(20, single))));
+        assertEquals(Lane.BULK, lanes.classify(WorkloadCost.unbounded()));
+        // Prochaines commandes : délai de livraison plus une semaine par foyer
+        NextOrderRequestDto household = NextOrderRequestDto.builder().deliveryDelay(3).build();
+        assertEquals(Lane.INTERACTIVE, lanes.classify(WorkloadCost.ofNextOrders(List.of(household))));
+        assertEquals(Lane.BULK, lanes.classify(WorkloadCost.ofNextOrders(Collections.nCopies(500, household))));
+    }
+
+    @Test
+    @DisplayName("Devrait servir les appels interactifs pendant que la voie lourde est saturée")
+    void shouldIsolateInteractiveFromSaturatedBulkLane() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> lanes.execute(10_000, () -> {
+            running.countDown();
+            release.await();
+            return "premier";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> lanes.execute(10_000, () -> "second"));
+        waitForQueueDepth(1);
+
+        assertThrows(LaneRejectedException.class, () -> lanes.execute(10_000, () -> "refusé"));
+        assertEquals("interactif", lanes.execute(1, () -> "interactif"));
+
+        release.countDown();
+        assertEquals("premier", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("yogurt.lane.rejected").tag("lane", "bulk").counter().count());
+        assertEquals(2, meterRegistry.get("yogurt.lane.wait").tag("lane", "bulk").timer().count());
+        assertTrue(meterRegistry.get("yogurt.lane.wait").tag("lane", "bulk").timer()
+                .max(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    @DisplayName("Devrait relancer les exceptions de la tâche telles quelles")
+    void shouldPropagateTaskExceptions() {
+        assertThrows(ValidationException.class, () -> lanes.execute(1, () -> {
+            throw new ValidationException("invalide");
+        }));
+        UncheckedIOException exception = assertThrows(UncheckedIOException.class, () -> lanes.execute(1, () -> {
+            throw new IOException("disque");
+        }));
+        assertEquals("disque", exception.getCause().getMessage());
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("yogurt.lane.queue_depth").tag("lane", "bulk").gauge().value() < depth) {
+            assertTrue(System.nanoTime() < deadline, "La requête n'a pas été mise en file");
+            Thread.sleep(5);
+        }
+    }
+}
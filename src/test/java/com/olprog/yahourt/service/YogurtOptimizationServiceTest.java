@@ -5,9 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.ByteBuffer;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -22,12 +26,14 @@ import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.olprog.yahourt.dto.OptimizationRequestDto;
+import com.olprog.yahourt.dto.SkuDto;
 import com.olprog.yahourt.exception.ValidationException;
 import com.olprog.yahourt.model.ConsumptionProfile;
 import com.olprog.yahourt.model.DailyStockLevel;
 import com.olprog.yahourt.model.PurchaseRecommendation;
 import com.olprog.yahourt.model.SimulationResult;
 import com.olprog.yahourt.model.SimulationSummary;
+import com.olprog.yahourt.model.StockBucket;
 import com.olprog.yahourt.model.StockSimulationParams;
 
 @ExtendWith(MockitoExtension.class)
@@ -260,6 +266,388 @@ public class YogurtOptimizationServiceTest {
         });
     }
 
+    @Test
+    @DisplayName("Devrait collecter toutes les violations en un seul passage")
+    void shouldCollectAllViolationsInSinglePass() {
+        final StockSimulationParams invalidParams = StockSimulationParams.builder()
+                .startDate(LocalDate.now())
+                .initialStock(-1)
+                .deliveryDelay(0)
+                .packSize(0)
+                .purchaseDay(DayOfWeek.SUNDAY)
+                .consumptionProfile(ConsumptionProfile.createDefault())
+                .build();
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> {
+            optimizationService.simulateYogurtStockForYear(invalidParams);
+        });
+
+        assertEquals(3, exception.getViolations().size());
+        // Les erreurs de validation attendues ne capturent pas de pile d'appels
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    @DisplayName("Devrait appliquer les consommations exceptionnelles et reporter les livraisons bloquées")
+    void shouldApplyCalendarOverrides() {
+        // Given : le premier achat (dimanche 5 janvier) est livré le mardi 7, bloqué
+        OptimizationRequestDto dto = new OptimizationRequestDto();
+        Map<LocalDate, Integer> overrides = new HashMap<>();
+        overrides.put(LocalDate.of(2025, 1, 6), 0);
+        overrides.put(LocalDate.of(2025, 12, 25), 12);
+        dto.setConsumptionOverrides(overrides);
+        dto.setBlockedDeliveryDates(List.of(LocalDate.of(2025, 1, 7), LocalDate.of(2025, 1, 8)));
+
+        // When
+        SimulationResult result = optimizationService.simulateYogurtStockForYear(
+                optimizationService.convertRequestToParams(dto));
+
+        // Then
+        DailyStockLevel january6 = result.getDailyStockLevels().get(1);
+        assertEquals(LocalDate.of(2025, 1, 6), january6.getDate());
+        assertEquals(0, january6.getConsumption());
+        assertEquals(12, result.getDailyStockLevels().stream()
+                .filter(level -> level.getDate().equals(LocalDate.of(2025, 12, 25)))
+                .findFirst().orElseThrow().getConsumption());
+
+        PurchaseRecommendation first = result.getPurchaseRecommendations().get(0);
+        assertEquals(LocalDate.of(2025, 1, 5), first.getOrderDate());
+        assertEquals(LocalDate.of(2025, 1, 9), first.getDeliveryDate());
+        assertTrue(result.getDailyStockLevels().get(4).isDeliveryDay());
+        assertTrue(result.getDailyStockLevels().subList(0, 4).stream().noneMatch(DailyStockLevel::isDeliveryDay));
+    }
+
+    @Test
+    @DisplayName("Devrait agréger la série par semaine et par mois sans lignes quotidiennes")
+    void shouldAggregateStockSeriesByWeekAndMonth() {
+        // Given
+        SimulationResult daily = optimizationService.simulateYogurtStockForYear(defaultParams);
+
+        OptimizationRequestDto weekly = new OptimizationRequestDto();
+        weekly.setGranularity("week");
+        OptimizationRequestDto monthly = new OptimizationRequestDto();
+        monthly.setGranularity("MONTH");
+
+        // When
+        SimulationResult byWeek = optimizationService.simulateYogurtStockForYear(
+                optimizationService.convertRequestToParams(weekly));
+        SimulationResult byMonth = optimizationService.simulateYogurtStockForYear(
+                optimizationService.convertRequestToParams(monthly));
+
+        // Then
+        assertEquals(null, byWeek.getDailyStockLevels());
+        assertEquals(null, byMonth.getDailyStockLevels());
+        assertEquals(daily.getSummary(), byWeek.getSummary());
+
+        // Le 5 janvier 2025 est un dimanche : première semaine d'un seul jour
+        assertEquals(1, byWeek.getStockBuckets().get(0).getDays());
+        assertEquals(LocalDate.of(2025, 1, 6), byWeek.getStockBuckets().get(1).getPeriodStart());
+        assertEquals(13, byMonth.getStockBuckets().size());
+        assertEquals(LocalDate.of(2025, 1, 31), byMonth.getStockBuckets().get(0).getPeriodEnd());
+
+        for (SimulationResult result : List.of(byWeek, byMonth)) {
+            assertEquals(365, result.getStockBuckets().stream().mapToInt(StockBucket::getDays).sum());
+            assertEquals(daily.getSummary().getTotalYogurtsConsumed(),
+                    result.getStockBuckets().stream().mapToInt(StockBucket::getTotalConsumption).sum());
+            assertEquals(daily.getDailyStockLevels().stream().filter(DailyStockLevel::isDeliveryDay).count(),
+                    result.getStockBuckets().stream().mapToInt(StockBucket::getDeliveries).sum());
+            assertEquals(daily.getSummary().getMinimumStockLevel(),
+                    result.getStockBuckets().stream().mapToInt(StockBucket::getMinimumStockLevel).min().orElseThrow());
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait paginer par semaines ou mois entiers")
+    void shouldPageWholeBuckets() {
+        for (String granularity : List.of("week", "month")) {
+            OptimizationRequestDto dto = OptimizationRequestDto.builder().granularity(granularity).build();
+            List<StockBucket> full = optimizationService.simulateYogurtStockForYear(
+                    optimizationService.convertRequestToParams(dto)).getStockBuckets();
+
+            dto.setPageSize(3);
+            List<StockBucket> buckets = new ArrayList<>();
+            SimulationResult page;
+            do {
+                page = optimizationService.simulateYogurtStockForYear(
+                        optimizationService.convertRequestToParams(dto));
+                assertTrue(page.getStockBuckets().size() <= 3);
+                buckets.addAll(page.getStockBuckets());
+                dto.setCursor(page.getNextCursor());
+            } while (page.getNextCursor() != null);
+
+            assertEquals(full, buckets);
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait rejeter une granularité inconnue")
+    void shouldRejectUnknownGranularity() {
+        OptimizationRequestDto dto = new OptimizationRequestDto();
+        dto.setGranularity("hour");
+
+        assertThrows(ValidationException.class, () -> {
+            optimizationService.convertRequestToParams(dto);
+        });
+    }
+
+    @Test
+    @DisplayName("Devrait restituer uniquement la fenêtre demandée et marquer la synthèse partielle")
+    void shouldRestrictOutputToWindow() {
+        // Given
+        OptimizationRequestDto dto = new OptimizationRequestDto();
+        dto.setFrom(LocalDate.of(2025, 3, 1));
+        dto.setTo(LocalDate.of(2025, 3, 30));
+
+        // When
+        SimulationResult result = optimizationService.simulateYogurtStockForYear(
+                optimizationService.convertRequestToParams(dto));
+
+        // Then
+        assertEquals(30, result.getDailyStockLevels().size());
+        assertEquals(LocalDate.of(2025, 3, 1), result.getDailyStockLevels().get(0).getDate());
+        assertTrue(result.getSummary().isPartial());
+        assertEquals(null, result.getNextCursor());
+        for (PurchaseRecommendation purchase : result.getPurchaseRecommendations()) {
+            assertTrue(!purchase.getOrderDate().isBefore(dto.getFrom())
+                    && !purchase.getOrderDate().isAfter(dto.getTo()));
+        }
+
+        SimulationResult full = optimizationService.simulateYogurtStockForYear(defaultParams);
+        assertEquals(full.getDailyStockLevels().subList(55, 85), result.getDailyStockLevels());
+    }
+
+    @Test
+    @DisplayName("Devrait reprendre la simulation page par page à partir du curseur")
+    void shouldResumeSimulationFromCursor() {
+        // Given
+        SimulationResult full = optimizationService.simulateYogurtStockForYear(defaultParams);
+        OptimizationRequestDto dto = new OptimizationRequestDto();
+        dto.setPageSize(100);
+
+        // When
+        List<DailyStockLevel> levels = new ArrayList<>();
+        List<PurchaseRecommendation> purchases = new ArrayList<>();
+        SimulationResult page;
+        int pages = 0;
+        do {
+            page = optimizationService.simulateYogurtStockForYear(optimizationService.convertRequestToParams(dto));
+            levels.addAll(page.getDailyStockLevels());
+            purchases.addAll(page.getPurchaseRecommendations());
+            dto.setCursor(page.getNextCursor());
+            pages++;
+        } while (page.getNextCursor() != null);
+
+        // Then
+        assertEquals(4, pages);
+        assertEquals(full.getDailyStockLevels(), levels);
+        assertEquals(full.getPurchaseRecommendations(), purchases);
+        assertEquals(full.getSummary(), page.getSummary());
+    }
+
+    @Test
+    @DisplayName("Devrait refuser un curseur issu d'autres paramètres")
+    void shouldRejectCursorFromOtherParameters() {
+        // Given
+        OptimizationRequestDto dto = new OptimizationRequestDto();
+        dto.setPageSize(10);
+        String cursor = optimizationService.simulateYogurtStockForYear(
+                optimizationService.convertRequestToParams(dto)).getNextCursor();
+
+        dto.setCursor(cursor);
+        dto.setInitialStock(42);
+        StockSimulationParams otherParams = optimizationService.convertRequestToParams(dto);
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> {
+            optimizationService.simulateYogurtStockForYear(otherParams);
+        });
+
+        dto.setCursor("pas-un-curseur");
+        StockSimulationParams garbage = optimizationService.convertRequestToParams(dto);
+        assertThrows(ValidationException.class, () -> {
+            optimizationService.simulateYogurtStockForYear(garbage);
+        });
+    }
+
+    @Test
+    @DisplayName("Devrait simuler plusieurs références comme autant de simulations indépendantes")
+    void shouldSimulateSkusLikeIndependentSimulations() {
+        Map<String, Integer> weekendConsumption = Map.of("SATURDAY", 5, "SUNDAY", 6, "MONDAY", 0);
+        List<SkuDto> skuDtos = List.of(
+                SkuDto.builder().id("nature").build(),
+                SkuDto.builder().id("fraise").initialStock(0).packSize(4).dailyConsumption(weekendConsumption)
+                        .build(),
+                SkuDto.builder().id("vanille").initialStock(20).packSize(12).build());
+        OptimizationRequestDto requestDto = OptimizationRequestDto.builder()
+                .deliveryDelay(3)
+                .blockedDeliveryDates(List.of(LocalDate.of(2025, 3, 12)))
+                .skus(skuDtos)
+                .build();
+
+        SimulationResult combined = optimizationService.simulateYogurtStockForYear(
+                optimizationService.convertRequestToParams(requestDto));
+
+        assertEquals(3, combined.getSkus().size());
+        int consumed = 0;
+        int purchased = 0;
+        for (int i = 0; i < skuDtos.size(); i++) {
+            SkuDto skuDto = skuDtos.get(i);
+            SimulationResult alone = optimizationService.simulateYogurtStockForYear(
+                    optimizationService.convertRequestToParams(OptimizationRequestDto.builder()
+                            .deliveryDelay(3)
+                            .blockedDeliveryDates(requestDto.getBlockedDeliveryDates())
+                            .initialStock(skuDto.getInitialStock())
+                            .packSize(skuDto.getPackSize())
+                            .dailyConsumption(skuDto.getDailyConsumption())
+                            .build()));
+
+            assertEquals(skuDto.getId(), combined.getSkus().get(i).getSkuId());
+            assertEquals(alone.getPurchaseRecommendations(), combined.getSkus().get(i).getPurchaseRecommendations());
+            assertEquals(alone.getSummary(), combined.getSkus().get(i).getSummary());
+            consumed += alone.getSummary().getTotalYogurtsConsumed();
+            purchased += alone.getSummary().getTotalYogurtsPurchased();
+        }
+
+        // La synthèse et la série combinées cumulent les références
+        assertEquals(consumed, combined.getSummary().getTotalYogurtsConsumed());
+        assertEquals(purchased, combined.getSummary().getTotalYogurtsPurchased());
+        for (PurchaseRecommendation purchase : combined.getPurchaseRecommendations()) {
+            int packs = 0;
+            for (var sku : combined.getSkus()) {
+                for (PurchaseRecommendation skuPurchase : sku.getPurchaseRecommendations()) {
+                    if (skuPurchase.getOrderDate().equals(purchase.getOrderDate())) {
+                        packs += skuPurchase.getPacksToBuy();
+                    }
+                }
+            }
+            assertEquals(packs, purchase.getPacksToBuy());
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait reprendre une simulation multi-références depuis un curseur")
+    void shouldResumeSkuSimulationFromCursor() {
+        List<SkuDto> skuDtos = List.of(SkuDto.builder().id("nature").build(),
+                SkuDto.builder().id("fraise").packSize(6).build());
+        SimulationResult full = optimizationService.simulateYogurtStockForYear(
+                optimizationService.convertRequestToParams(OptimizationRequestDto.builder().skus(skuDtos).build()));
+
+        String cursor = null;
+        SimulationResult page;
+        List<PurchaseRecommendation> paged = new ArrayList<>();
+        do {
+            page = optimizationService.simulateYogurtStockForYear(optimizationService.convertRequestToParams(
+                    OptimizationRequestDto.builder().skus(skuDtos).pageSize(150).cursor(cursor).build()));
+            paged.addAll(page.getSkus().get(1).getPurchaseRecommendations());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(full.getSkus().get(1).getPurchaseRecommendations(), paged);
+        assertEquals(full.getSummary(), page.getSummary());
+        assertEquals(full.getSkus().get(0).getSummary(), page.getSkus().get(0).getSummary());
+    }
+
+    @Test
+    @DisplayName("Devrait refuser des références invalides")
+    void shouldRejectInvalidSkus() {
+        StockSimulationParams params = optimizationService.convertRequestToParams(OptimizationRequestDto.builder()
+                .consumptionOverrides(Map.of(LocalDate.of(2025, 12, 25), 8))
+                .skus(List.of(SkuDto.builder().id("nature").build(), SkuDto.builder().id("nature").build(),
+                        SkuDto.builder().packSize(0).build()))
+                .build());
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> optimizationService.simulateYogurtStockForYear(params));
+
+        assertEquals(4, exception.getViolations().size());
+    }
+
+    @Test
+    @DisplayName("Une durée de conservation plus longue que l'année ne devrait rien changer")
+    void shouldIgnoreShelfLifeLongerThanYear() {
+        SimulationResult withoutShelfLife = optimizationService.simulateYogurtStockForYear(defaultParams);
+        defaultParams.setShelfLifeDays(400);
+
+        SimulationResult withShelfLife = optimizationService.simulateYogurtStockForYear(defaultParams);
+
+        assertEquals(withoutShelfLife, withShelfLife);
+        assertEquals(0, withShelfLife.getSummary().getExpiredYogurts());
+    }
+
+    @Test
+    @DisplayName("Devrait jeter les lots périmés et en tenir compte dans les commandes")
+    void shouldExpireLotsAndOrderAccordingly() {
+        // Gros paquets pour une petite consommation : une partie périme forcément
+        defaultParams.setPackSize(12);
+        defaultParams.setInitialStock(20);
+        defaultParams.setShelfLifeDays(5);
+
+        SimulationResult result = optimizationService.simulateYogurtStockForYear(defaultParams);
+        SimulationSummary summary = result.getSummary();
+
+        assertTrue(summary.getExpiredYogurts() > 0);
+        assertTrue(summary.getTotalYogurtsConsumed() + summary.getExpiredYogurts()
+                <= defaultParams.getInitialStock() + summary.getTotalYogurtsPurchased());
+        // Seuls 16 des 20 yaourts initiaux seront mangés avant péremption :
+        // il manque 30 - 16 = 14 yaourts, soit 2 paquets au lieu d'un
+        PurchaseRecommendation first = result.getPurchaseRecommendations().get(0);
+        assertEquals(LocalDate.of(2025, 1, 5), first.getOrderDate());
+        assertEquals(20, first.getStockBeforePurchase());
+        assertEquals(2, first.getPacksToBuy());
+    }
+
+    @Test
+    @DisplayName("Devrait reprendre les lots en cours depuis un curseur")
+    void shouldResumeLotsFromCursor() {
+        OptimizationRequestDto requestDto = OptimizationRequestDto.builder().packSize(12).shelfLifeDays(4).build();
+        SimulationResult full = optimizationService.simulateYogurtStockForYear(
+                optimizationService.convertRequestToParams(requestDto));
+
+        requestDto.setPageSize(50);
+        List<DailyStockLevel> paged = new ArrayList<>();
+        SimulationResult page;
+        do {
+            page = optimizationService.simulateYogurtStockForYear(
+                    optimizationService.convertRequestToParams(requestDto));
+            paged.addAll(page.getDailyStockLevels());
+            requestDto.setCursor(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+
+        assertEquals(full.getDailyStockLevels(), paged);
+        assertEquals(full.getSummary(), page.getSummary());
+        assertTrue(full.getSummary().getExpiredYogurts() > 0);
+    }
+
+    @Test
+    @DisplayName("Devrait refuser un curseur dont les lots ne correspondent pas au stock")
+    void shouldRejectCursorWithInconsistentLots() {
+        // Stock initial encore en lot après le premier jour
+        OptimizationRequestDto requestDto = OptimizationRequestDto.builder().initialStock(30).packSize(12)
+                .shelfLifeDays(4).pageSize(1).build();
+        byte[] cursor = Base64.getUrlDecoder().decode(optimizationService.simulateYogurtStockForYear(
+                optimizationService.convertRequestToParams(requestDto)).getNextCursor());
+        // En-tête de 68 octets, puis la référence : stock en tête, nombre de lots à +44, lots à +48
+        ByteBuffer buffer = ByteBuffer.wrap(cursor);
+        assertTrue(buffer.getInt(68 + 44) > 0);
+
+        // Stock supérieur à la somme des lots
+        assertInvalidCursor(requestDto, cursor, 68, buffer.getInt(68) + 1000);
+        // Lot vide
+        assertInvalidCursor(requestDto, cursor, 68 + 48 + 4, 0);
+        // Lot déjà périmé au jour repris
+        assertInvalidCursor(requestDto, cursor, 68 + 48, 0);
+        // Plus de lots que de places
+        assertInvalidCursor(requestDto, cursor, 68 + 44, Integer.MAX_VALUE);
+    }
+
+    private void assertInvalidCursor(OptimizationRequestDto requestDto, byte[] cursor, int position, int value) {
+        byte[] tampered = cursor.clone();
+        ByteBuffer.wrap(tampered).putInt(position, value);
+        requestDto.setCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(tampered));
+        StockSimulationParams params = optimizationService.convertRequestToParams(requestDto);
+        assertThrows(ValidationException.class, () -> optimizationService.simulateYogurtStockForYear(params));
+    }
+
     @ParameterizedTest
     @MethodSource("provideCustomConsumptionProfiles")
     @DisplayName("Devrait simuler correctement avec différents profils de consommation")
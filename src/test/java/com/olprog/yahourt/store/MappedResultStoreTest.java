@@ -0,0 +1,138 @@
+package com.olprog.yahourt.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.olprog.yahourt.model.StockSimulationParams;
+
+public class MappedResultStoreTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("Devrait relire un résultat enregistré, y compris après réouverture")
+  void shouldReadBackStoredResultAfterReopen() throws Exception {
+    ResultKey key = SimulationFingerprint.of(StockSimulationParams.createDefault());
+    byte[] payload = "{\"summary\":{}}".getBytes(StandardCharsets.UTF_8);
+
+    try (MappedResultStore store = new MappedResultStore(directory, 4096, 4 * 4096, 64)) {
+      assertNull(store.find(key));
+      store.save(key, payload);
+      assertArrayEquals(payload, store.find(key));
+    }
+
+    try (MappedResultStore reopened = new MappedResultStore(directory, 4096, 4 * 4096, 64)) {
+      assertArrayEquals(payload, reopened.find(key));
+    }
+  }
+
+  @Test
+  @DisplayName("Devrait borner la taille du stockage en supprimant les segments les plus anciens")
+  void shouldBoundStoreSizeByDroppingOldestSegments() throws Exception {
+    try (MappedResultStore store = new MappedResultStore(directory, 1024, 2 * 1024, 256)) {
+      byte[] payload = new byte[200];
+      for (int i = 0; i < 40; i++) {
+        store.save(new ResultKey(i + 1, i), payload);
+      }
+
+      try (Stream<Path> files = Files.list(directory)) {
+        assertEquals(2, files.filter(path -> path.getFileName().toString().startsWith("segment-")).count());
+      }
+      assertNull(store.find(new ResultKey(1, 0)));
+      assertArrayEquals(payload, store.find(new ResultKey(40, 39)));
+    }
+  }
+
+  @Test
+  @DisplayName("Devrait abandonner les segments supprimés par une autre instance")
+  void shouldReleaseSegmentsCompactedElsewhere() throws Exception {
+    byte[] payload = new byte[200];
+    try (MappedResultStore reader = new MappedResultStore(directory, 1024, 2 * 1024, 256);
+        MappedResultStore writer = new MappedResultStore(directory, 1024, 2 * 1024, 256)) {
+      reader.save(new ResultKey(1, 0), payload);
+      assertArrayEquals(payload, reader.find(new ResultKey(1, 0)));
+      assertEquals(1, reader.mappedSegments());
+
+      for (int i = 1; i < 40; i++) {
+        writer.save(new ResultKey(i + 1, i), payload);
+      }
+      // Le lecteur n'a jamais compacté : il ne garde que les segments conservés
+      assertNull(reader.find(new ResultKey(1, 0)));
+      assertArrayEquals(payload, reader.find(new ResultKey(40, 39)));
+      assertTrue(reader.mappedSegments() <= 2);
+    }
+  }
+
+  @Test
+  @DisplayName("Devrait borner la taille d'après la taille de segment de l'index existant")
+  void shouldBoundSizeWithStoredSegmentSize() throws Exception {
+    try (MappedResultStore store = new MappedResultStore(directory, 1024, 2 * 1024, 256)) {
+      store.save(new ResultKey(1, 0), new byte[200]);
+    }
+    // Taille de segment reconfigurée : l'index existant garde 1 Ko, soit 2 segments pour 2 Ko
+    try (MappedResultStore store = new MappedResultStore(directory, 4096, 2 * 1024, 256)) {
+      for (int i = 1; i < 40; i++) {
+        store.save(new ResultKey(i + 1, i), new byte[200]);
+      }
+      try (Stream<Path> files = Files.list(directory)) {
+        assertEquals(2, files.filter(path -> path.getFileName().toString().startsWith("segment-")).count());
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Devrait produire une empreinte stable qui distingue les paramètres")
+  void shouldProduceStableFingerprint() {
+    StockSimulationParams params = StockSimulationParams.createDefault();
+    assertEquals(SimulationFingerprint.of(params), SimulationFingerprint.of(StockSimulationParams.createDefault()));
+
+    params.getConsumptionProfile().getDailyConsumption().put(DayOfWeek.MONDAY, 4);
+    assertNotEquals(SimulationFingerprint.of(params), SimulationFingerprint.of(StockSimulationParams.createDefault()));
+  }
+
+  @Test
+  @DisplayName("Devrait servir les résultats écrits par un autre processus")
+  void shouldServeResultsWrittenByAnotherProcess() throws Exception {
+    try (MappedResultStore store = new MappedResultStore(directory, 4096, 4 * 4096, 64)) {
+      Process writer = new ProcessBuilder(
+          Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+          "-cp", System.getProperty("java.class.path"),
+          WriterProcess.class.getName(), directory.toString())
+          .redirectErrorStream(true)
+          .redirectOutput(new File(directory.toFile(), "writer.log"))
+          .start();
+      assertTrue(writer.waitFor(60, TimeUnit.SECONDS));
+      assertEquals(0, writer.exitValue());
+
+      ResultKey key = SimulationFingerprint.of(StockSimulationParams.createDefault());
+      assertArrayEquals(WriterProcess.PAYLOAD, store.find(key));
+    }
+  }
+
+  static class WriterProcess {
+
+    static final byte[] PAYLOAD = "{\"written\":\"elsewhere\"}".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+      try (MappedResultStore store = new MappedResultStore(Path.of(args[0]), 4096, 4 * 4096, 64)) {
+        store.save(SimulationFingerprint.of(StockSimulationParams.createDefault()), PAYLOAD);
+      }
+    }
+  }
+}